@@ -31,7 +31,7 @@ import com.left8.evs.utilities.Config;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.24_1922
+ * @version 2026.10.18_1400
  */
 public class EDMethodPicker {
     
@@ -61,11 +61,7 @@ public class EDMethodPicker {
         
         switch(choice) {
             case 1: {
-                Dataset ds = new Dataset(config);
-                EDCoWCorpus corpus = new EDCoWCorpus(config, ds.getTweetList(), ds.getSWH(), 10);
-                
-                corpus.createCorpus();
-                corpus.setDocTermFreqIdList();
+                EDCoWCorpus corpus = EDCoWCorpus.createOrOpen(config, 10);
                 int delta = 4, delta2 = 11, gamma = 26, timeSliceA = 1, 
                         timeSliceB = 154;
                 double minTermSupport = 0.001, maxTermSupport = 0.01;
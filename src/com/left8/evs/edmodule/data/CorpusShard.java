@@ -0,0 +1,563 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.left8.evs.edmodule.utils.Stemmers;
+import com.left8.evs.edmodule.utils.StopWordsHandlers;
+import com.left8.evs.edmodule.utils.TimeBucketer;
+import com.left8.evs.preprocessingmodule.language.LangUtils;
+import com.left8.evs.preprocessingmodule.language.LanguageCodes;
+import com.left8.evs.preprocessingmodule.nlp.Tokenizer;
+import com.left8.evs.preprocessingmodule.nlp.stemming.StemUtils;
+import com.left8.evs.preprocessingmodule.nlp.stemming.Stemmer;
+import com.left8.evs.utilities.Config;
+import com.left8.evs.utilities.dsretriever.Tweet;
+
+/**
+ * Partial EDCoW corpus, built from a contiguous range of the tweet list. <br>
+ * Shards are built concurrently by {@link BuildTask BuildTask} objects and
+ * merged from left to right, so the merged shard is identical to the one a
+ * single thread would build: term IDs follow the order in which the terms
+ * were first seen and the tweet IDs of every bucket keep the order of the
+ * tweet list. <br>
+ * A shard may cover only the buckets [firstBucket, firstBucket + numberOfBuckets),
+ * which is the case when new tweets are appended to an existing corpus. <br>
+ * Shards that are built by {@link #buildTweetTerms(List, Config, 
+ * StopWordsHandlers, int) buildTweetTerms()} have no buckets; they only
+ * record the term IDs of every tweet, for a {@link TweetTerms TweetTerms}
+ * cache of the tweets. <br>
+ * If a {@link TermSupportSketch TermSupportSketch} of the tweets is set, only
+ * the terms whose estimated support exceeds a minimum are counted in the
+ * buckets; all terms are still added to the dictionary.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class CorpusShard {
+
+    private final TermDictionary dictionary = new TermDictionary(); //Terms, in the order they were first seen
+    private final Map<Integer, TermCounts> termsPerBucket = new HashMap<>();
+    private final Map<Integer, ArrayList<String>> idsPerBucket = new HashMap<>();
+    private final StemUtils stemHandler = new StemUtils();
+    private final int firstBucket;
+    private final int[] messageDistribution;
+    private final boolean termsOnly; //Only the term IDs of the tweets are recorded, without buckets
+    private int numberOfTweets = 0;
+    private int[] termOffsets = new int[16]; //Tweet 't' has the terms [termOffsets[t], termOffsets[t + 1]) of 'termsOfTweets'
+    private int[] termsOfTweets = new int[64];
+    private int numberOfTermsOfTweets = 0;
+    private TermSupportSketch supportFilter; //Counts only the terms that pass it, if set
+    private double minSupportCount;
+    private byte[] counted = new byte[16]; //0 if not checked yet, 1 if the term is counted, 2 otherwise
+
+    /**
+     * Public constructor.
+     * @param numberOfBuckets The number of time buckets of the corpus.
+     */
+    public CorpusShard(int numberOfBuckets) {
+        this(0, numberOfBuckets);
+    }
+
+    /**
+     * Public constructor for a shard that covers a range of buckets.
+     * @param firstBucket The index of the first bucket of the shard.
+     * @param numberOfBuckets The number of time buckets of the shard.
+     */
+    public CorpusShard(int firstBucket, int numberOfBuckets) {
+        this.firstBucket = firstBucket;
+        messageDistribution = new int[numberOfBuckets];
+        termsOnly = false;
+    }
+
+    /**
+     * Private constructor for a shard that only records the term IDs of its
+     * tweets.
+     */
+    private CorpusShard() {
+        firstBucket = 0;
+        messageDistribution = new int[0];
+        termsOnly = true;
+    }
+
+    /**
+     * Sets the pre-filter of the terms that are counted in the buckets. It
+     * must be set before the shard is filled.
+     * @param sketch A TermSupportSketch object of all tweets of the corpus.
+     * @param minSupportCount The estimated support a term must exceed.
+     */
+    public final void setSupportFilter(TermSupportSketch sketch, double minSupportCount) {
+        this.supportFilter = sketch;
+        this.minSupportCount = minSupportCount;
+    }
+
+    /**
+     * Returns true if the term must be counted in the buckets.
+     */
+    private boolean isCounted(int term, String token) {
+        if(supportFilter == null) {
+            return true;
+        }
+        if(term >= counted.length) {
+            counted = Arrays.copyOf(counted, Math.max(term + 1, counted.length * 2));
+        }
+        if(counted[term] == 0) {
+            counted[term] = (byte) (supportFilter.estimate(token) > minSupportCount ? 1 : 2);
+        }
+        return counted[term] == 1;
+    }
+
+    /**
+     * Returns the stemmed clean tokens and hashtags of a tweet.
+     */
+    private static List<String> getTerms(Tweet tweet, Config config, StopWordsHandlers swH,
+            Map<LanguageCodes, Stemmer> stemmers, StemUtils stemHandler) {
+        LanguageCodes isoCode = LangUtils.getLangISOFromString(tweet.getLanguage());
+        Tokenizer tokens = new Tokenizer(config, tweet.getText(),
+                swH.getSWHandlerAccordingToLanguage(isoCode));
+        Stemmer stemmer = stemmers.computeIfAbsent(isoCode, Stemmers::newStemmer);
+        return stemHandler.getStemsAsList(tokens.getCleanTokensAndHashtags(), stemmer);
+    }
+
+    /**
+     * Tokenizes, stems and counts the tweets [from, to) of a list. <br>
+     * Every shard must be filled by a single thread, as it uses its own
+     * Tokenizer and Stemmer instances.
+     * @param tweets The tweet list.
+     * @param from The first tweet (inclusive).
+     * @param to The last tweet (exclusive).
+     * @param bucketer A TimeBucketer object, unused if the shard only records
+     * the terms of the tweets.
+     * @param config A Config object.
+     * @param swH A StopWordsHandlers object.
+     */
+    public final void fill(List<Tweet> tweets, int from, int to, TimeBucketer bucketer,
+            Config config, StopWordsHandlers swH) {
+        Map<LanguageCodes, Stemmer> stemmers = new EnumMap<>(LanguageCodes.class);
+
+        for(int i = from; i < to; i++) {
+            Tweet tweet = tweets.get(i);
+            numberOfTweets++;
+            if(termsOnly) {
+                for(String token : getTerms(tweet, config, swH, stemmers, stemHandler)) {
+                    if(numberOfTermsOfTweets == termsOfTweets.length) {
+                        termsOfTweets = Arrays.copyOf(termsOfTweets, termsOfTweets.length * 2);
+                    }
+                    termsOfTweets[numberOfTermsOfTweets++] = dictionary.add(token);
+                }
+                if(numberOfTweets == termOffsets.length) {
+                    termOffsets = Arrays.copyOf(termOffsets, termOffsets.length * 2);
+                }
+                termOffsets[numberOfTweets] = numberOfTermsOfTweets;
+                continue;
+            }
+            String id = String.valueOf(tweet.getID());
+
+            //Find the bucket of the tweet
+            int bucket = bucketer.getBucket(tweet.getDateMillis());
+            messageDistribution[bucket - firstBucket]++;
+            TermCounts termsWithOccurencies =
+                    termsPerBucket.computeIfAbsent(bucket, (key) -> new TermCounts());
+
+            //Iterate through the stemmed clean tokens/hashtags of the tweet
+            for(String token : getTerms(tweet, config, swH, stemmers, stemHandler)) {
+                int term = dictionary.add(token);
+                if(isCounted(term, token)) {
+                    termsWithOccurencies.add(term, 1);
+                }
+            }
+            //Store the tweet ID too
+            idsPerBucket.computeIfAbsent(bucket, (key) -> new ArrayList<>()).add(id);
+        }
+    }
+
+    /**
+     * Appends a shard that was built from the tweets right after the ones
+     * of this shard. The given shard must not be used afterwards.
+     * @param right A CorpusShard object.
+     */
+    public final void merge(CorpusShard right) {
+        //Map the term IDs of the right shard to the IDs of this one
+        int[] termIds = new int[right.dictionary.size()];
+        for(int term = 0; term < termIds.length; term++) {
+            termIds[term] = dictionary.add(right.dictionary, term);
+        }
+        right.termsPerBucket.forEach((bucket, rightTerms) -> {
+            TermCounts leftTerms = termsPerBucket.computeIfAbsent(bucket, (key) -> new TermCounts());
+            rightTerms.forEach((term, count) -> {
+                leftTerms.add(termIds[term], count);
+            });
+        });
+        right.idsPerBucket.forEach((bucket, rightIds) -> {
+            ArrayList<String> leftIds = idsPerBucket.get(bucket);
+            if(leftIds == null) {
+                idsPerBucket.put(bucket, rightIds);
+            } else {
+                leftIds.addAll(rightIds);
+            }
+        });
+        stemHandler.getStemsMap().putAll(right.stemHandler.getStemsMap()); //Later stems overwrite, as in a serial pass
+        for(int bucket = 0; bucket < messageDistribution.length; bucket++) {
+            messageDistribution[bucket] += right.messageDistribution[bucket];
+        }
+        
+        if(termsOnly) {
+            //Append the terms of the tweets of the right shard, with the IDs of this one
+            termsOfTweets = Arrays.copyOf(termsOfTweets, 
+                    Math.max(termsOfTweets.length, numberOfTermsOfTweets + right.numberOfTermsOfTweets));
+            for(int k = 0; k < right.numberOfTermsOfTweets; k++) {
+                termsOfTweets[numberOfTermsOfTweets + k] = termIds[right.termsOfTweets[k]];
+            }
+            termOffsets = Arrays.copyOf(termOffsets, 
+                    Math.max(termOffsets.length, numberOfTweets + right.numberOfTweets + 1));
+            for(int tweet = 1; tweet <= right.numberOfTweets; tweet++) {
+                termOffsets[numberOfTweets + tweet] = numberOfTermsOfTweets + right.termOffsets[tweet];
+            }
+            numberOfTermsOfTweets += right.numberOfTermsOfTweets;
+        }
+        numberOfTweets += right.numberOfTweets;
+    }
+
+    /**
+     * Returns the terms of the shard.
+     * @return A TermDictionary object, whose IDs follow the order in which
+     * the terms were first seen.
+     */
+    public final TermDictionary getDictionary() { return dictionary; }
+
+    /**
+     * Returns the terms and their frequencies of a bucket.
+     * @param bucket The index of the bucket.
+     * @return A TermCounts object or null if the shard has no tweets in this bucket.
+     */
+    public final TermCounts getTermsOfBucket(int bucket) { return termsPerBucket.get(bucket); }
+
+    /**
+     * Returns the tweet IDs of a bucket.
+     * @param bucket The index of the bucket.
+     * @return An ArrayList or null if the shard has no tweets in this bucket.
+     */
+    public final ArrayList<String> getIDsOfBucket(int bucket) { return idsPerBucket.get(bucket); }
+
+    /**
+     * Returns the stems handler of the shard.
+     * @return A StemUtils object.
+     */
+    public final StemUtils getStemsHandler() { return stemHandler; }
+
+    /**
+     * Returns the number of tweets of every bucket of the shard.
+     * @return An integer array, whose first element refers to the first bucket
+     * of the shard.
+     */
+    public final int[] getMessageDistribution() { return messageDistribution; }
+
+    /**
+     * Returns the number of tweets of the shard.
+     * @return An integer with the number of tweets.
+     */
+    public final int getNumberOfTweets() { return numberOfTweets; }
+    
+    /**
+     * Returns the term IDs of every tweet of a shard that only records the
+     * terms of its tweets. The ordinals of the cache follow the order of the
+     * tweets the shard was built from.
+     * @return A TweetTerms object, which shares the dictionary and the stems
+     * handler of the shard, or null if the shard counts buckets.
+     */
+    public final TweetTerms getTweetTerms() {
+        if(!termsOnly) {
+            return null;
+        }
+        return new TweetTerms(dictionary, stemHandler, Arrays.copyOf(termOffsets, numberOfTweets + 1),
+                Arrays.copyOf(termsOfTweets, numberOfTermsOfTweets));
+    }
+    
+    /**
+     * Builds the shard of a list of tweets; a few shards per thread are built,
+     * so that uneven shards are balanced, and they are merged in order.
+     * @param tweets The tweet list.
+     * @param firstBucket The index of the first bucket of the tweets.
+     * @param numberOfBuckets The number of buckets of the tweets.
+     * @param bucketer A TimeBucketer object.
+     * @param config A Config object.
+     * @param swH A StopWordsHandlers object.
+     * @param parallelism The number of threads. Values lower than 2 build the
+     * shard in the calling thread.
+     * @return The merged CorpusShard object.
+     */
+    public static CorpusShard build(List<Tweet> tweets, int firstBucket, int numberOfBuckets, 
+            TimeBucketer bucketer, Config config, StopWordsHandlers swH, int parallelism) {
+        return build(tweets, firstBucket, numberOfBuckets, bucketer, config, swH, parallelism, 
+                null, 0);
+    }
+
+    /**
+     * Builds the shard of a list of tweets, counting only the terms that pass
+     * a support pre-filter.
+     * @param tweets The tweet list.
+     * @param firstBucket The index of the first bucket of the tweets.
+     * @param numberOfBuckets The number of buckets of the tweets.
+     * @param bucketer A TimeBucketer object.
+     * @param config A Config object.
+     * @param swH A StopWordsHandlers object.
+     * @param parallelism The number of threads. Values lower than 2 build the
+     * shard in the calling thread.
+     * @param sketch A TermSupportSketch object of all tweets of the corpus,
+     * e.g. from {@link #countSupport(List, TermSupportSketch, Config, 
+     * StopWordsHandlers, int) countSupport()}, or null to count all terms.
+     * @param minSupportCount The estimated support a term must exceed.
+     * @return The merged CorpusShard object.
+     */
+    public static CorpusShard build(List<Tweet> tweets, int firstBucket, int numberOfBuckets, 
+            TimeBucketer bucketer, Config config, StopWordsHandlers swH, int parallelism,
+            TermSupportSketch sketch, double minSupportCount) {
+        int threshold = (parallelism < 2) ? tweets.size() : Math.max(1, tweets.size() / (parallelism * 4));
+        BuildTask task = new BuildTask(tweets, 0, tweets.size(), threshold, 
+                firstBucket, numberOfBuckets, bucketer, config, swH);
+        task.setSupportFilter(sketch, minSupportCount);
+        if(parallelism < 2) {
+            return task.invoke();
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds the term IDs of every tweet of a list, without the buckets of a
+     * corpus. The IDs follow the order in which the terms were first seen,
+     * for any number of threads.
+     * @param tweets The tweet list.
+     * @param config A Config object.
+     * @param swH A StopWordsHandlers object.
+     * @param parallelism The number of threads. Values lower than 2 build the
+     * cache in the calling thread.
+     * @return A TweetTerms object, indexed by the positions of the tweets in
+     * the list.
+     */
+    public static TweetTerms buildTweetTerms(List<Tweet> tweets, Config config,
+            StopWordsHandlers swH, int parallelism) {
+        int threshold = (parallelism < 2) ? tweets.size() : Math.max(1, tweets.size() / (parallelism * 4));
+        BuildTask task = new BuildTask(tweets, 0, tweets.size(), threshold, 0, null, config, swH);
+        task.termsOnly = true;
+        if(parallelism < 2) {
+            return task.invoke().getTweetTerms();
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task).getTweetTerms();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Adds the terms of a list of tweets to a support sketch. This is the
+     * first pass of a corpus with a support pre-filter; the terms are
+     * tokenized and stemmed as in the shards, but they get no IDs.
+     * @param tweets The tweet list.
+     * @param sketch The TermSupportSketch object to be updated.
+     * @param config A Config object.
+     * @param swH A StopWordsHandlers object.
+     * @param parallelism The number of threads. Values lower than 2 count the
+     * tweets in the calling thread; otherwise every thread fills a sketch of
+     * its own and the sketches are merged.
+     */
+    public static void countSupport(List<Tweet> tweets, TermSupportSketch sketch, Config config,
+            StopWordsHandlers swH, int parallelism) {
+        if(parallelism < 2) {
+            addSupport(tweets, 0, tweets.size(), sketch, config, swH);
+            return;
+        }
+        int threshold = Math.max(1, (tweets.size() + parallelism - 1) / parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            sketch.merge(pool.invoke(new SupportTask(tweets, 0, tweets.size(), threshold, 
+                    sketch, config, swH)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void addSupport(List<Tweet> tweets, int from, int to, TermSupportSketch sketch,
+            Config config, StopWordsHandlers swH) {
+        Map<LanguageCodes, Stemmer> stemmers = new EnumMap<>(LanguageCodes.class);
+        StemUtils stems = new StemUtils(); //Stems of the first pass are discarded
+        for(int i = from; i < to; i++) {
+            Tweet tweet = tweets.get(i);
+            for(String token : getTerms(tweet, config, swH, stemmers, stems)) {
+                sketch.add(token);
+            }
+            stems.getStemsMap().clear();
+        }
+    }
+
+    /**
+     * Fork/join task that fills a support sketch with a range of tweets.
+     */
+    private static class SupportTask extends RecursiveTask<TermSupportSketch> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final TermSupportSketch prototype;
+        private final Config config;
+        private final StopWordsHandlers swH;
+
+        SupportTask(List<Tweet> tweets, int from, int to, int threshold,
+                TermSupportSketch prototype, Config config, StopWordsHandlers swH) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.prototype = prototype;
+            this.config = config;
+            this.swH = swH;
+        }
+
+        @Override
+        protected TermSupportSketch compute() {
+            if(to - from <= threshold) {
+                TermSupportSketch sketch = prototype.emptyCopy();
+                addSupport(tweets, from, to, sketch, config, swH);
+                return sketch;
+            }
+            int middle = (from + to) >>> 1;
+            SupportTask left = new SupportTask(tweets, from, middle, threshold, prototype, config, swH);
+            SupportTask right = new SupportTask(tweets, middle, to, threshold, prototype, config, swH);
+            right.fork();
+            TermSupportSketch sketch = left.compute();
+            sketch.merge(right.join());
+            return sketch;
+        }
+    }
+
+    /**
+     * Fork/join task that builds the shard of a range of tweets, by splitting
+     * it in halves until it is small enough.
+     */
+    public static class BuildTask extends RecursiveTask<CorpusShard> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int firstBucket;
+        private final int numberOfBuckets;
+        private final TimeBucketer bucketer;
+        private final Config config;
+        private final StopWordsHandlers swH;
+        private TermSupportSketch supportFilter;
+        private double minSupportCount;
+        private boolean termsOnly;
+
+        /**
+         * Public constructor.
+         * @param tweets The tweet list.
+         * @param from The first tweet (inclusive).
+         * @param to The last tweet (exclusive).
+         * @param threshold The maximum number of tweets of a single shard.
+         * @param numberOfBuckets The number of time buckets of the corpus.
+         * @param bucketer A TimeBucketer object.
+         * @param config A Config object.
+         * @param swH A StopWordsHandlers object.
+         */
+        public BuildTask(List<Tweet> tweets, int from, int to, int threshold,
+                int numberOfBuckets, TimeBucketer bucketer, Config config,
+                StopWordsHandlers swH) {
+            this(tweets, from, to, threshold, 0, numberOfBuckets, bucketer, config, swH);
+        }
+
+        /**
+         * Public constructor for shards that cover a range of buckets.
+         * @param tweets The tweet list.
+         * @param from The first tweet (inclusive).
+         * @param to The last tweet (exclusive).
+         * @param threshold The maximum number of tweets of a single shard.
+         * @param firstBucket The index of the first bucket of the shards.
+         * @param numberOfBuckets The number of time buckets of the shards.
+         * @param bucketer A TimeBucketer object.
+         * @param config A Config object.
+         * @param swH A StopWordsHandlers object.
+         */
+        public BuildTask(List<Tweet> tweets, int from, int to, int threshold,
+                int firstBucket, int numberOfBuckets, TimeBucketer bucketer,
+                Config config, StopWordsHandlers swH) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.firstBucket = firstBucket;
+            this.numberOfBuckets = numberOfBuckets;
+            this.bucketer = bucketer;
+            this.config = config;
+            this.swH = swH;
+        }
+
+        /**
+         * Sets the support pre-filter of the shards.
+         * @param sketch A TermSupportSketch object or null to count all terms.
+         * @param minSupportCount The estimated support a term must exceed.
+         * @see CorpusShard#setSupportFilter(TermSupportSketch, double) 
+         * CorpusShard.setSupportFilter() method.
+         */
+        public final void setSupportFilter(TermSupportSketch sketch, double minSupportCount) {
+            this.supportFilter = sketch;
+            this.minSupportCount = minSupportCount;
+        }
+
+        @Override
+        protected CorpusShard compute() {
+            if(to - from <= threshold) {
+                CorpusShard shard = termsOnly ? new CorpusShard() : new CorpusShard(firstBucket, numberOfBuckets);
+                shard.setSupportFilter(supportFilter, minSupportCount);
+                shard.fill(tweets, from, to, bucketer, config, swH);
+                return shard;
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask left = new BuildTask(tweets, from, middle, threshold,
+                    firstBucket, numberOfBuckets, bucketer, config, swH);
+            BuildTask right = new BuildTask(tweets, middle, to, threshold,
+                    firstBucket, numberOfBuckets, bucketer, config, swH);
+            left.setSupportFilter(supportFilter, minSupportCount);
+            right.setSupportFilter(supportFilter, minSupportCount);
+            left.termsOnly = termsOnly;
+            right.termsOnly = termsOnly;
+            right.fork();
+            CorpusShard shard = left.compute();
+            shard.merge(right.join());
+            return shard;
+        }
+    }
+}
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.left8.evs.edmodule.edcow.frequencies.TermFrequencyIndex;
+import com.left8.evs.utilities.dsretriever.Tweet;
+import com.left8.evs.utilities.dsretriever.TweetRecord;
+
+/**
+ * Binary snapshot of a built EDCoW corpus. <br>
+ * The file consists of a fixed-size header and a number of sections, all
+ * little-endian and 8-byte aligned:
+ * <ol>
+ * <li>the term dictionary (offsets, hash codes and UTF-8 arena),</li>
+ * <li>the original (unstemmed) word of every term (offsets and UTF-8 arena),</li>
+ * <li>the term x bucket frequencies, as the rows of a TermFrequencyIndex,</li>
+ * <li>the first tweet ordinal of every bucket, as tweets are stored in bucket order,</li>
+ * <li>the ID, user ID and date of every tweet and</li>
+ * <li>the sentiment columns of every tweet, one byte per tweet and column.</li>
+ * </ol>
+ * The header holds a format version, the number of tweets and the name of
+ * the collection the corpus was built from, so that a snapshot of another
+ * dataset is not reused, and a CRC32 checksum of all sections followed by
+ * the header itself, with its checksum field set to zero, so a corrupt
+ * header field is detected as well as a corrupt section.
+ * Snapshots are opened through {@link FileChannel#map(FileChannel.MapMode, long, long)
+ * FileChannel.map()}, so nothing is parsed; the arrays of the dictionary and
+ * the frequency index are bulk-copied out of the mapping, while the tweet
+ * columns are read in place, only for the tweets that are requested.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class CorpusSnapshot {
+
+    private static final int MAGIC = 0x43535645; //"EVSC" in little-endian
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 256;
+    private static final int CHECKSUM_POSITION = 64;
+    private static final int COLLECTION_POSITION = 72; //Length of the UTF-8 name, followed by the name
+    private static final int MAX_COLLECTION_LENGTH = HEADER_SIZE - COLLECTION_POSITION - 4;
+
+    private final MappedByteBuffer map;
+    private final int refreshWindow;
+    private final long origin;
+    private final int numberOfBuckets;
+    private final int numberOfTerms;
+    private final int numberOfEntries;
+    private final int numberOfTweets;
+    private final int arenaSize;
+    private final int originalsSize;
+    private final long earliestDate;
+    private final long latestDate;
+    private final boolean incompleteTerms;
+    private final String collectionName;
+
+    //Positions of the sections in the file
+    private final int termOffsetsPosition;
+    private final int termHashesPosition;
+    private final int arenaPosition;
+    private final int originalOffsetsPosition;
+    private final int originalsPosition;
+    private final int rowOffsetsPosition;
+    private final int docIdsPosition;
+    private final int frequenciesPosition;
+    private final int bucketOffsetsPosition;
+    private final int tweetIdsPosition;
+    private final int userIdsPosition;
+    private final int datesPosition;
+    private final int stanfordPosition;
+    private final int naiveBayesPosition;
+    private final int bayesianNetPosition;
+    private final int positiveEmoticonPosition;
+    private final int negativeEmoticonPosition;
+    private final int fileSize;
+
+    /**
+     * Private constructor; snapshots are opened by {@link #open(String) open()}.
+     * @param map The mapped file.
+     * @throws IOException If the header is invalid or the checksum does not match.
+     */
+    private CorpusSnapshot(MappedByteBuffer map) throws IOException {
+        this.map = map;
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if(map.capacity() < HEADER_SIZE || map.getInt(0) != MAGIC) {
+            throw new IOException("Not a corpus snapshot");
+        }
+        if(map.getInt(4) != VERSION) {
+            throw new IOException("Unsupported corpus snapshot version " + map.getInt(4)
+                    + ", expected " + VERSION);
+        }
+        ByteBuffer sections = map.duplicate();
+        sections.position(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(sections);
+        crc.update(headerWithoutChecksum(map));
+        if(crc.getValue() != map.getLong(CHECKSUM_POSITION)) {
+            throw new IOException("Corpus snapshot checksum mismatch");
+        }
+        refreshWindow = map.getInt(8);
+        numberOfBuckets = map.getInt(12);
+        origin = map.getLong(16);
+        numberOfTerms = map.getInt(24);
+        numberOfEntries = map.getInt(28);
+        numberOfTweets = map.getInt(32);
+        arenaSize = map.getInt(36);
+        originalsSize = map.getInt(40);
+        incompleteTerms = map.getInt(44) != 0;
+        earliestDate = map.getLong(48);
+        latestDate = map.getLong(56);
+        int collectionLength = map.getInt(COLLECTION_POSITION);
+        if(collectionLength < 0 || collectionLength > MAX_COLLECTION_LENGTH) {
+            throw new IOException("Invalid collection name length " + collectionLength);
+        }
+        byte[] collection = new byte[collectionLength];
+        ByteBuffer name = map.duplicate();
+        name.position(COLLECTION_POSITION + 4);
+        name.get(collection);
+        collectionName = new String(collection, StandardCharsets.UTF_8);
+
+        termOffsetsPosition = HEADER_SIZE;
+        termHashesPosition = next(termOffsetsPosition, 4L * (numberOfTerms + 1));
+        arenaPosition = next(termHashesPosition, 4L * numberOfTerms);
+        originalOffsetsPosition = next(arenaPosition, arenaSize);
+        originalsPosition = next(originalOffsetsPosition, 4L * (numberOfTerms + 1));
+        rowOffsetsPosition = next(originalsPosition, originalsSize);
+        docIdsPosition = next(rowOffsetsPosition, 4L * (numberOfTerms + 1));
+        frequenciesPosition = next(docIdsPosition, 4L * numberOfEntries);
+        bucketOffsetsPosition = next(frequenciesPosition, 4L * numberOfEntries);
+        tweetIdsPosition = next(bucketOffsetsPosition, 4L * (numberOfBuckets + 1));
+        userIdsPosition = next(tweetIdsPosition, 8L * numberOfTweets);
+        datesPosition = next(userIdsPosition, 8L * numberOfTweets);
+        stanfordPosition = next(datesPosition, 8L * numberOfTweets);
+        naiveBayesPosition = next(stanfordPosition, numberOfTweets);
+        bayesianNetPosition = next(naiveBayesPosition, numberOfTweets);
+        positiveEmoticonPosition = next(bayesianNetPosition, numberOfTweets);
+        negativeEmoticonPosition = next(positiveEmoticonPosition, numberOfTweets);
+        fileSize = next(negativeEmoticonPosition, numberOfTweets);
+        if(fileSize != map.capacity()) {
+            throw new IOException("Truncated corpus snapshot, expected " + fileSize
+                    + " bytes but found " + map.capacity());
+        }
+    }
+
+    /**
+     * Copies the header of a snapshot with its checksum field set to zero,
+     * which is how the header enters the checksum.
+     * @param buffer A buffer that starts with the header.
+     * @return A byte array of HEADER_SIZE bytes.
+     */
+    private static byte[] headerWithoutChecksum(ByteBuffer buffer) {
+        byte[] bytes = new byte[HEADER_SIZE];
+        ByteBuffer header = buffer.duplicate();
+        header.position(0);
+        header.get(bytes);
+        for(int b = CHECKSUM_POSITION; b < CHECKSUM_POSITION + 8; b++) {
+            bytes[b] = 0;
+        }
+        return bytes;
+    }
+
+    /**
+     * Opens a snapshot file and verifies its header and checksum.
+     * @param path The path of the snapshot file.
+     * @return A CorpusSnapshot object.
+     * @throws IOException If the file cannot be read or is not a valid snapshot.
+     */
+    public static CorpusSnapshot open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Corpus snapshot is larger than 2GB");
+            }
+            return new CorpusSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a snapshot of a corpus. The file is first written next to the
+     * target and then moved over it, so a failed write never leaves a
+     * partial snapshot behind.
+     * @param corpus An EDCoWCorpus object, whose term-frequency index has been set.
+     * @param path The path of the snapshot file.
+     * @param collectionName The name of the collection the corpus was built from.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(EDCoWCorpus corpus, String path, String collectionName) 
+            throws IOException {
+        byte[] collection = collectionName.getBytes(StandardCharsets.UTF_8);
+        if(collection.length > MAX_COLLECTION_LENGTH) {
+            throw new IOException("The collection name is longer than " + MAX_COLLECTION_LENGTH + " bytes");
+        }
+        TermDictionary dictionary = corpus.getDictionary();
+        TermFrequencyIndex index = corpus.getTermFrequencyIndex();
+        Integer[] distribution = corpus.getNumberOfDocuments();
+        int numberOfTerms = dictionary.size();
+        int[] termOffsets = dictionary.getOffsets();
+        int[] termHashes = dictionary.getHashes();
+
+        //Original words, in term ID order
+        byte[][] originals = new byte[numberOfTerms][];
+        int originalsSize = 0;
+        for(int term = 0; term < numberOfTerms; term++) {
+            String original = corpus.getStemsHandler().getOriginalWord(dictionary.getTerm(term));
+            originals[term] = (original == null) ? new byte[0] : original.getBytes(StandardCharsets.UTF_8);
+            originalsSize += originals[term].length;
+        }
+
+        Path target = Paths.get(path);
+        Path temporary = Paths.get(path + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SectionWriter out = new SectionWriter(channel);
+
+            //Dictionary
+            for(int term = 0; term <= numberOfTerms; term++) {
+                out.putInt(termOffsets[term]);
+            }
+            out.align();
+            for(int term = 0; term < numberOfTerms; term++) {
+                out.putInt(termHashes[term]);
+            }
+            out.align();
+            out.putBytes(dictionary.getArena(), 0, termOffsets[numberOfTerms]);
+            out.align();
+
+            //Original words
+            int offset = 0;
+            out.putInt(offset);
+            for(int term = 0; term < numberOfTerms; term++) {
+                offset += originals[term].length;
+                out.putInt(offset);
+            }
+            out.align();
+            for(int term = 0; term < numberOfTerms; term++) {
+                out.putBytes(originals[term], 0, originals[term].length);
+            }
+            out.align();
+
+            //Frequencies, row by row
+            offset = 0;
+            out.putInt(offset);
+            for(int term = 0; term < numberOfTerms; term++) {
+                offset += index.getRowDocIds(term).length;
+                out.putInt(offset);
+            }
+            out.align();
+            int numberOfEntries = offset;
+            for(int term = 0; term < numberOfTerms; term++) {
+                for(int docId : index.getRowDocIds(term)) {
+                    out.putInt(docId);
+                }
+            }
+            out.align();
+            for(int term = 0; term < numberOfTerms; term++) {
+                for(int frequency : index.getRowFrequencies(term)) {
+                    out.putInt(frequency);
+                }
+            }
+            out.align();
+
+            //Buckets and tweets, in bucket order
+            offset = 0;
+            out.putInt(offset);
+            for(Integer tweetsOfBucket : distribution) {
+                offset += tweetsOfBucket;
+                out.putInt(offset);
+            }
+            out.align();
+            int numberOfTweets = offset;
+            List<Tweet> tweets = corpus.getTweetsOfWindowAsList(0, distribution.length);
+            for(Tweet tweet : tweets) {
+                out.putLong(tweet.getID());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putLong(tweet.getUserId());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putLong(tweet.getDateMillis());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putByte(tweet.getStanfordSentiment());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putByte(tweet.getNaiveBayesSentiment());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putByte(tweet.getBayesianNetSentiment());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putByte(tweet.getPositiveEmoticonFlag());
+            }
+            out.align();
+            for(Tweet tweet : tweets) {
+                out.putByte(tweet.getNegativeEmoticonFlag());
+            }
+            out.align();
+            out.flush();
+
+            //Header, written last as it holds the checksum
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, corpus.getBucketer().getWidthInMinutes());
+            header.putInt(12, distribution.length);
+            header.putLong(16, corpus.getBucketer().getOrigin());
+            header.putInt(24, numberOfTerms);
+            header.putInt(28, numberOfEntries);
+            header.putInt(32, numberOfTweets);
+            header.putInt(36, termOffsets[numberOfTerms]);
+            header.putInt(40, originalsSize);
+            header.putInt(44, corpus.hasIncompleteTerms() ? 1 : 0);
+            header.putLong(48, corpus.getEarliestDateOfCorpus().getTime());
+            header.putLong(56, corpus.getLatestDateOfCorpus().getTime());
+            header.putInt(COLLECTION_POSITION, collection.length);
+            header.position(COLLECTION_POSITION + 4);
+            header.put(collection);
+            header.position(0);
+            header.putLong(CHECKSUM_POSITION, out.getChecksum(header));
+            channel.write(header, 0);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the refresh window (width of every bucket) of the corpus.
+     * @return An integer with the refresh window in minutes.
+     */
+    public final int getRefreshWindow() { return refreshWindow; }
+
+    /**
+     * Returns the start of the first bucket of the corpus.
+     * @return The origin in epoch milliseconds.
+     */
+    public final long getOrigin() { return origin; }
+
+    /**
+     * Returns the number of buckets (documents) of the corpus.
+     * @return An integer with the number of buckets.
+     */
+    public final int getNumberOfBuckets() { return numberOfBuckets; }
+
+    /**
+     * Returns the number of terms of the corpus.
+     * @return An integer with the number of terms.
+     */
+    public final int getNumberOfTerms() { return numberOfTerms; }
+
+    /**
+     * Returns the number of tweets of the corpus.
+     * @return An integer with the number of tweets.
+     */
+    public final int getNumberOfTweets() { return numberOfTweets; }
+
+    /**
+     * Returns the earliest date a tweet was published in the corpus.
+     * @return A Date object.
+     */
+    public final Date getEarliestDate() { return new Date(earliestDate); }
+
+    /**
+     * Returns the latest date a tweet was published in the corpus.
+     * @return A Date object.
+     */
+    public final Date getLatestDate() { return new Date(latestDate); }
+
+    /**
+     * Returns whether the support pre-filter skipped some terms of the corpus
+     * in some buckets.
+     * @return True if some terms are incomplete, false otherwise.
+     */
+    public final boolean hasIncompleteTerms() { return incompleteTerms; }
+
+    /**
+     * Returns the name of the collection the corpus was built from.
+     * @return A String with the name.
+     */
+    public final String getCollectionName() { return collectionName; }
+
+    /**
+     * Reads the term dictionary of the corpus.
+     * @return A new TermDictionary object.
+     */
+    public final TermDictionary readDictionary() {
+        int[] offsets = readInts(termOffsetsPosition, numberOfTerms + 1);
+        int[] hashes = readInts(termHashesPosition, numberOfTerms);
+        byte[] arena = new byte[arenaSize];
+        section(arenaPosition).get(arena);
+        return new TermDictionary(arena, offsets, hashes, numberOfTerms);
+    }
+
+    /**
+     * Reads the term-frequency index of the corpus.
+     * @return A new TermFrequencyIndex object.
+     */
+    public final TermFrequencyIndex readTermFrequencyIndex() {
+        return new TermFrequencyIndex(numberOfBuckets,
+                readInts(rowOffsetsPosition, numberOfTerms + 1),
+                readInts(docIdsPosition, numberOfEntries),
+                readInts(frequenciesPosition, numberOfEntries));
+    }
+
+    /**
+     * Reads the number of tweets of every bucket.
+     * @return An integer array.
+     */
+    public final int[] readMessageDistribution() {
+        int[] bucketOffsets = readInts(bucketOffsetsPosition, numberOfBuckets + 1);
+        int[] distribution = new int[numberOfBuckets];
+        for(int bucket = 0; bucket < numberOfBuckets; bucket++) {
+            distribution[bucket] = bucketOffsets[bucket + 1] - bucketOffsets[bucket];
+        }
+        return distribution;
+    }
+
+    /**
+     * Returns the original (unstemmed) word of a term.
+     * @param term The ID of the term.
+     * @return A String with the original word or null if it is unknown.
+     */
+    public final String getOriginalWord(int term) {
+        int from = map.getInt(originalOffsetsPosition + 4 * term);
+        int to = map.getInt(originalOffsetsPosition + 4 * (term + 1));
+        if(from == to) {
+            return null;
+        }
+        byte[] bytes = new byte[to - from];
+        ByteBuffer original = section(originalsPosition + from);
+        original.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the ordinal of the first tweet of a bucket. The tweets of
+     * bucket 'b' are the ordinals [getFirstTweetOfBucket(b), getFirstTweetOfBucket(b + 1)).
+     * @param bucket The index of the bucket, up to getNumberOfBuckets() (inclusive).
+     * @return An integer with the ordinal of the tweet.
+     */
+    public final int getFirstTweetOfBucket(int bucket) {
+        return map.getInt(bucketOffsetsPosition + 4 * bucket);
+    }
+
+    /**
+     * Returns the ID of a tweet.
+     * @param ordinal The ordinal of the tweet.
+     * @return A long with the ID of the tweet.
+     */
+    public final long getTweetID(int ordinal) {
+        return map.getLong(tweetIdsPosition + 8 * ordinal);
+    }
+
+    /**
+     * Creates a Tweet object out of the stored columns of a tweet. Only the
+     * ID, the user ID, the date, the sentiments and the emoticon flags are
+     * stored; the text and all other fields are left empty.
+     * @param ordinal The ordinal of the tweet.
+     * @return A Tweet object.
+     */
+    public final Tweet getTweet(int ordinal) {
+        return new TweetRecord(getTweetID(ordinal), null, map.getLong(userIdsPosition + 8 * ordinal),
+                null, new Date(map.getLong(datesPosition + 8 * ordinal)), 0, 0, 0, 0,
+                false, false, false, null, 0,
+                map.get(stanfordPosition + ordinal),
+                map.get(positiveEmoticonPosition + ordinal),
+                map.get(negativeEmoticonPosition + ordinal),
+                map.get(naiveBayesPosition + ordinal),
+                map.get(bayesianNetPosition + ordinal));
+    }
+
+    /**
+     * Returns a little-endian view of the mapping, positioned at a section.
+     * @param position The position of the section.
+     * @return A ByteBuffer object.
+     */
+    private ByteBuffer section(int position) {
+        ByteBuffer view = map.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position(position);
+        return view;
+    }
+
+    /**
+     * Bulk-copies an integer section into a new array.
+     * @param position The position of the section.
+     * @param length The number of integers.
+     * @return An integer array.
+     */
+    private int[] readInts(int position, int length) {
+        int[] values = new int[length];
+        section(position).asIntBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Returns the position that follows a section, aligned to 8 bytes.
+     * @param position The position of the section.
+     * @param length The length of the section in bytes.
+     * @return An integer with the aligned position.
+     * @throws IOException If the position exceeds the 2GB limit of a mapping.
+     */
+    private static int next(int position, long length) throws IOException {
+        long end = (position + length + 7) & ~7L;
+        if(length < 0 || end > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt corpus snapshot header");
+        }
+        return (int) end;
+    }
+
+    /**
+     * Buffered writer of the sections of a snapshot, which keeps track of
+     * their checksum. The sections start right after the header.
+     */
+    private static class SectionWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private long position = HEADER_SIZE;
+        private long written = 0; //Bytes of the sections, buffered ones included
+
+        SectionWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            written += 4;
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            written += 8;
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+            written++;
+        }
+
+        void putBytes(byte[] bytes, int from, int length) throws IOException {
+            while(length > 0) {
+                ensure(1);
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, from, chunk);
+                from += chunk;
+                length -= chunk;
+                written += chunk;
+            }
+        }
+
+        /**
+         * Pads the current section with zeros up to the next 8-byte boundary.
+         */
+        void align() throws IOException {
+            while((written & 7) != 0) {
+                putByte(0);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            ByteBuffer checked = buffer.duplicate();
+            crc.update(checked);
+            while(buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Returns the checksum of the sections followed by the header.
+         * @param header The header, whose checksum field is ignored.
+         */
+        long getChecksum(ByteBuffer header) {
+            crc.update(headerWithoutChecksum(header));
+            return crc.getValue();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if(buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+    }
+}
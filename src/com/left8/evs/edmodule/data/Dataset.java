@@ -24,16 +24,18 @@ import com.left8.evs.utilities.Config;
 import com.left8.evs.utilities.PrintUtilities;
 import com.left8.evs.utilities.dsretriever.MongoHandler;
 import com.left8.evs.utilities.dsretriever.Tweet;
+import com.left8.evs.utilities.dsretriever.TweetTable;
 
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1251
+ * @version 2026.10.18_1600
  */
 public final class Dataset {
     
     private final StopWordsHandlers swH;
-    private final List<Tweet> tweets;
+    private final TweetTable table;
+    private final List<Tweet> tweets; //Read-only view of the table
 
     /**
      * This method retrieves a dataset from an already stored MongoDB collection.
@@ -50,7 +52,8 @@ public final class Dataset {
         Stemmers.initStemmers();
         
         //Load all tweets from MongoDB Store
-        tweets = mongo.retrieveAllTweetsFiltered();
+        table = mongo.retrieveAllTweetsAsTable();
+        tweets = table.asList();
         mongo.closeMongoConnection();
  
         long endTime = System.currentTimeMillis();
@@ -69,4 +72,10 @@ public final class Dataset {
      * @return A List containing tweets.
      */
     public final List<Tweet> getTweetList() { return tweets; }
+    
+    /**
+     * Method to return the columnar storage of the retrieved tweets.
+     * @return A TweetTable object.
+     */
+    public final TweetTable getTweetTable() { return table; }
 }
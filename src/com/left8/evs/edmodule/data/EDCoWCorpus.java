@@ -16,24 +16,24 @@
  */
 package com.left8.evs.edmodule.data;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.IntStream;
+import java.util.RandomAccess;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-import com.left8.evs.edmodule.edcow.frequencies.DocumentTermFrequencyItem;
+import com.left8.evs.edmodule.edcow.frequencies.TermFrequencyIndex;
 import com.left8.evs.edmodule.utils.BinPair;
-import com.left8.evs.edmodule.utils.StringDateUtils;
-import com.left8.evs.edmodule.utils.Stemmers;
 import com.left8.evs.edmodule.utils.StopWordsHandlers;
-import com.left8.evs.preprocessingmodule.language.LangUtils;
-import com.left8.evs.preprocessingmodule.nlp.Tokenizer;
+import com.left8.evs.edmodule.utils.TimeBucketer;
 import com.left8.evs.preprocessingmodule.nlp.stemming.StemUtils;
+import com.left8.evs.utilities.dsretriever.MongoHandler;
 import com.left8.evs.utilities.dsretriever.Tweet;
 import com.left8.evs.utilities.Config;
 import com.left8.evs.utilities.PrintUtilities;
@@ -41,7 +41,7 @@ import com.left8.evs.utilities.PrintUtilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1252
+ * @version 2026.10.19_0030
  */
 public class EDCoWCorpus {
     
@@ -52,17 +52,23 @@ public class EDCoWCorpus {
     private Integer[] numberOfDocuments;
     private final List<BinPair<String, Integer>> bins = new ArrayList<>();
     private List<String> terms = new ArrayList<>(); //List containing all occuring termsprivate final HashMap<String, Integer> termsMap = new HashMap<>(); //A map containing terms along with their frequency of occurance
-    private final List<DocumentTermFrequencyItem> termDocFreqId = new ArrayList<>(); //A list containg triplets of tweetIDs, termIDs and their frequenciesprivate final HashMap<Integer, List<String>> docTerms = new HashMap<>(); //A map containing the tweetIDs and a list of the terms that each one of them includes
+    private TermFrequencyIndex termFrequencyIndex; //Term-major index of the frequencies of every term in every document
     private int numberOfTweets = 0;
-    private final Map<String, HashMap<String, Integer>> termsDocsWithOccurencies = new HashMap<>();
-    private final Map<String, ArrayList<String>> idsDocs = new HashMap<>();
-    private final Map<String, Integer> termIds = new HashMap<>(); //A map containing the ids of the terms (namely, their index as they are being read)
-    private final Map<String, Integer> messageDistribution = new HashMap<>();
-    private final Map<String, Integer> documentIndices = new HashMap<>();
-    private final Map<String, Tweet> tweetMap = new HashMap<>();
+    private final List<TermCounts> termsDocsWithOccurencies = new ArrayList<>(); //Term IDs and their frequencies, per time bucket (null for the buckets of a snapshot)
+    private final List<ArrayList<String>> idsDocs = new ArrayList<>(); //Tweet IDs, per time bucket (null for the buckets of a snapshot)
+    private final List<List<Tweet>> tweetsDocs = new ArrayList<>(); //Read-only views of the tweets, per time bucket (null for the buckets of a snapshot)
+    private TermDictionary dictionary = new TermDictionary(); //The ids of the terms (namely, their index as they are being read)
+    private int[] messageDistribution; //Number of tweets, per time bucket
+    private TimeBucketer bucketer;
     private final StemUtils stemHandler = new StemUtils();
     private Date earliestDate;
     private Date latestDate;
+    private CorpusSnapshot snapshot; //The snapshot the corpus was opened from, if any
+    private int snapshotBuckets = 0; //Buckets [0, snapshotBuckets) are read from the snapshot
+    private boolean snapshotStemsLoaded = false;
+    private TermSupportSketch supportSketch; //Support of the terms of all tweets, if the pre-filter is enabled
+    private final BitSet incompleteTerms = new BitSet(); //Terms the pre-filter skipped in some bucket
+    private boolean snapshotIncomplete = false; //The snapshot was written with incomplete terms
     
     /**
      * Public constructor.
@@ -80,157 +86,552 @@ public class EDCoWCorpus {
     }
     
     /**
-     * Main method that creates a working corpus for EDCoW algorithm.
+     * Opens a corpus from a snapshot file, without tokenizing any tweet. <br>
+     * The term dictionary and the term-frequency index are read as a whole,
+     * while the tweets of the snapshot are read only when a window is
+     * requested; these tweets carry their ID, user ID, date and sentiment
+     * annotations only. New tweets can still be appended to the corpus.
+     * @param config A configuration object.
+     * @param path The path of the snapshot file.
+     * @param swH A StopWordsHandlers object, used for appended tweets.
+     * @return An EDCoWCorpus object, whose term-frequency index is already set.
+     * @throws IOException If the snapshot cannot be read or is not valid.
+     * @see CorpusSnapshot CorpusSnapshot class.
+     */
+    public static EDCoWCorpus fromSnapshot(Config config, String path, StopWordsHandlers swH) 
+            throws IOException {
+        long startTime = System.currentTimeMillis();
+        CorpusSnapshot snapshot = CorpusSnapshot.open(path);
+        EDCoWCorpus corpus = new EDCoWCorpus(config, new ArrayList<>(), swH, 
+                snapshot.getRefreshWindow());
+        corpus.snapshot = snapshot;
+        corpus.snapshotBuckets = snapshot.getNumberOfBuckets();
+        corpus.bucketer = new TimeBucketer(snapshot.getOrigin(), snapshot.getRefreshWindow());
+        corpus.earliestDate = snapshot.getEarliestDate();
+        corpus.latestDate = snapshot.getLatestDate();
+        corpus.numberOfTweets = snapshot.getNumberOfTweets();
+        corpus.messageDistribution = snapshot.readMessageDistribution();
+        corpus.dictionary = snapshot.readDictionary();
+        corpus.termFrequencyIndex = snapshot.readTermFrequencyIndex();
+        corpus.snapshotIncomplete = snapshot.hasIncompleteTerms();
+        for(int bucket = 0; bucket < corpus.snapshotBuckets; bucket++) {
+            corpus.termsDocsWithOccurencies.add(null);
+            corpus.idsDocs.add(null);
+            corpus.tweetsDocs.add(null);
+        }
+        corpus.setNumberOfDocuments();
+        
+        long endTime = System.currentTimeMillis();
+        PrintUtilities.printExecutionTime(startTime, endTime, EDCoWCorpus.class.getName(), 
+                Thread.currentThread().getStackTrace()[1].getMethodName());
+        return corpus;
+    }
+    
+    /**
+     * Returns a corpus that is ready for EDCoW, with its term-frequency index
+     * set. If a snapshot file is configured and exists, the corpus is opened
+     * from it, provided that it was built from the configured collection,
+     * with the same number of tweets and the same refresh window; otherwise
+     * the tweets are loaded from MongoDB and the corpus is created, and then
+     * stored to the configured snapshot file, if any.
+     * @param config A configuration object.
+     * @param refreshWindow An integer representing the refresh window in minutes.
+     * @return An EDCoWCorpus object.
+     * @see Config#getCorpusSnapshotFile() Config.getCorpusSnapshotFile() method.
+     */
+    public static EDCoWCorpus createOrOpen(Config config, int refreshWindow) {
+        String snapshotFile = config.getCorpusSnapshotFile();
+        if(snapshotFile != null && new File(snapshotFile).exists()) {
+            try {
+                EDCoWCorpus corpus = fromSnapshot(config, snapshotFile, new StopWordsHandlers(config));
+                String collectionName = getCollectionName(config);
+                long tweetsOfCollection;
+                if(corpus.getBucketer().getWidthInMinutes() != refreshWindow) {
+                    PrintUtilities.printWarningMessageln("The corpus snapshot has a refresh window of " 
+                            + corpus.getBucketer().getWidthInMinutes() + " minutes instead of " 
+                            + refreshWindow + ". It will be rebuilt.");
+                } else if(!corpus.snapshot.getCollectionName().equals(collectionName)) {
+                    PrintUtilities.printWarningMessageln("The corpus snapshot was built from '" 
+                            + corpus.snapshot.getCollectionName() + "' instead of '" 
+                            + collectionName + "'. It will be rebuilt.");
+                } else if((tweetsOfCollection = countTweetsOfCollection(config)) != -1 
+                        && tweetsOfCollection != corpus.snapshot.getNumberOfTweets()) {
+                    PrintUtilities.printWarningMessageln("The corpus snapshot has " 
+                            + corpus.snapshot.getNumberOfTweets() + " tweets while '" 
+                            + collectionName + "' has " + tweetsOfCollection 
+                            + ". It will be rebuilt.");
+                } else {
+                    return corpus;
+                }
+            } catch (IOException ex) {
+                PrintUtilities.printWarningMessageln("Could not open the corpus snapshot. It will be rebuilt.");
+                Logger.getLogger(EDCoWCorpus.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+        
+        Dataset ds = new Dataset(config);
+        EDCoWCorpus corpus = new EDCoWCorpus(config, ds.getTweetList(), ds.getSWH(), refreshWindow);
+        corpus.createCorpus();
+        corpus.setDocTermFreqIdList();
+        if(snapshotFile != null) {
+            try {
+                corpus.writeSnapshot(snapshotFile);
+            } catch (IOException ex) {
+                PrintUtilities.printWarningMessageln("Could not store the corpus snapshot.");
+                Logger.getLogger(EDCoWCorpus.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+        return corpus;
+    }
+    
+    /**
+     * Stores the corpus to a snapshot file, which can later be opened by
+     * {@link #fromSnapshot(Config, String, StopWordsHandlers) fromSnapshot()}.
+     * The term-frequency index is set first, if needed.
+     * @param path The path of the snapshot file.
+     * @throws IOException If the file cannot be written.
+     */
+    public final void writeSnapshot(String path) throws IOException {
+        long startTime = System.currentTimeMillis();
+        if(termFrequencyIndex == null) {
+            setDocTermFreqIdList();
+        }
+        CorpusSnapshot.write(this, path, getCollectionName(config));
+        
+        long endTime = System.currentTimeMillis();
+        PrintUtilities.printExecutionTime(startTime, endTime, EDCoWCorpus.class.getName(), 
+                Thread.currentThread().getStackTrace()[1].getMethodName());
+    }
+    
+    /**
+     * Returns the name of the collection the tweets of a corpus are read from.
+     * @param config A configuration object.
+     * @return A String with the database and the collection name, e.g. 'evs.tweets'.
+     */
+    private static String getCollectionName(Config config) {
+        return config.getDBName() + "." + config.getRawTweetsCollectionName();
+    }
+    
+    /**
+     * Counts the tweets of the collection the tweets of a corpus are read from.
+     * @param config A configuration object.
+     * @return A long with the number of tweets or -1 if they could not be counted.
+     */
+    private static long countTweetsOfCollection(Config config) {
+        MongoHandler mongo = new MongoHandler(config);
+        if(!mongo.connectToMongoDB()) {
+            return -1;
+        }
+        long tweetsOfCollection = mongo.countTweets();
+        mongo.closeMongoConnection();
+        return tweetsOfCollection;
+    }
+    
+    /**
+     * Main method that creates a working corpus for EDCoW algorithm. <br>
+     * Every document of the corpus is a time bucket of 'refreshWindow' minutes
+     * and its ID is the index of the bucket, starting from the bucket of the
+     * earliest tweet. The corpus is built by as many threads as configured.
+     * @see #createCorpus(int) createCorpus() method with explicit parallelism.
      */
     public final void createCorpus() {
+        createCorpus(config.getCorpusBuildThreads());
+    }
+    
+    /**
+     * Creates a working corpus for EDCoW algorithm, using a given number of
+     * threads. <br>
+     * The tweet list is partitioned into contiguous shards, which are tokenized,
+     * stemmed and counted concurrently and then merged in order. Hence, the
+     * term IDs and all other structures of the corpus are the same for any
+     * number of threads. <br>
+     * If {@link Config#getCorpusMinTermSupport() Config.getCorpusMinTermSupport()}
+     * is positive, the tweets are read twice: the first pass fills a
+     * {@link TermSupportSketch TermSupportSketch} and the second one counts in
+     * the buckets only the terms whose estimated support exceeds the minimum.
+     * As the estimates never fall below the occurrences of the terms, the
+     * other terms cannot pass a minimum term support of EDCoW that is at
+     * least as high, so they are only kept in the dictionary of the corpus.
+     * @param parallelism The number of threads. Values lower than 2 build the
+     * corpus in the calling thread.
+     * @see CorpusShard CorpusShard class.
+     */
+    public final void createCorpus(int parallelism) {
         long startTime = System.currentTimeMillis();
         
         //Initialize variables
-        earliestDate = tweets.get(0).getDate();
-        latestDate = tweets.get(0).getDate();
+        termsDocsWithOccurencies.clear();
+        idsDocs.clear();
+        tweetsDocs.clear();
+        stemHandler.getStemsMap().clear();
+        bins.clear();
+        snapshot = null;
+        double minSupport = config.getCorpusMinTermSupport();
+        supportSketch = (minSupport > 0) ? TermSupportSketch.forMinSupport(minSupport) : null;
+        snapshotBuckets = 0;
+        snapshotIncomplete = false;
+        incompleteTerms.clear();
+        termFrequencyIndex = null;
         
-        Calendar cal;
-        String docKey;
-        int termCount = 0;
-        int documentCount = 0;        
-        
-        //Set the calendar instance
-        cal = Calendar.getInstance();
-
+        //Find the bounds of the corpus, so that the buckets can be preallocated
+        long earliestMillis = Long.MAX_VALUE;
+        long latestMillis = Long.MIN_VALUE;
         for(Tweet tweet : tweets) {
-            tweetMap.put(String.valueOf(tweet.getID()), tweet);
-            
-            Date tweetDate = tweet.getDate();
-            if(tweetDate.before(earliestDate)) {
-                earliestDate = tweetDate;
-            }
-            if(tweetDate.after(latestDate)) {
-                latestDate = tweetDate;
+            long tweetMillis = tweet.getDateMillis();
+            earliestMillis = Math.min(earliestMillis, tweetMillis);
+            latestMillis = Math.max(latestMillis, tweetMillis);
+        }
+        earliestDate = new Date(earliestMillis);
+        latestDate = new Date(latestMillis);
+        bucketer = TimeBucketer.alignedTo(earliestDate, refreshWindow);
+        int numberOfBuckets = bucketer.getBucket(latestMillis) + 1;
+        int[] bucketOfTweet = new int[tweets.size()];
+        for(int i = 0; i < bucketOfTweet.length; i++) {
+            bucketOfTweet[i] = bucketer.getBucket(tweets.get(i).getDateMillis());
+        }
+        TweetBuckets tweetsByBucket = new TweetBuckets(tweets, bucketOfTweet, numberOfBuckets);
+        
+        CorpusShard shard = buildShard(tweets, 0, numberOfBuckets, tweets.size(), parallelism);
+        
+        //Store the merged shard
+        numberOfTweets = shard.getNumberOfTweets();
+        messageDistribution = shard.getMessageDistribution();
+        for(int bucket = 0; bucket < numberOfBuckets; bucket++) {
+            TermCounts termsWithOccurencies = shard.getTermsOfBucket(bucket);
+            ArrayList<String> ids = shard.getIDsOfBucket(bucket);
+            termsDocsWithOccurencies.add(termsWithOccurencies == null ? new TermCounts() : termsWithOccurencies);
+            idsDocs.add(ids == null ? new ArrayList<>() : ids);
+            tweetsDocs.add(tweetsByBucket.getTweets(bucket));
+        }
+        
+        dictionary = shard.getDictionary(); //IDs in the order the terms were first seen
+        stemHandler.getStemsMap().putAll(shard.getStemsHandler().getStemsMap());
+        setNumberOfDocuments();
+        if(supportSketch != null) {
+            double minSupportCount = config.getCorpusMinTermSupport() * tweets.size();
+            for(int term = 0; term < dictionary.size(); term++) {
+                if(supportSketch.estimate(dictionary.getTerm(term)) <= minSupportCount) {
+                    incompleteTerms.set(term);
+                }
             }
-            
-            //Count the tweet, update the distribution, get the docKey
-            //and update the corresponding HashMap
-            numberOfTweets++;
-            docKey = updateMessageDistribution(cal, tweet.getDate());
-            if(!documentIndices.containsKey(docKey)) {
-                documentIndices.put(docKey, documentCount);
-                documentCount++;
+            PrintUtilities.printInfoMessageln("Support pre-filter: " 
+                    + (dictionary.size() - incompleteTerms.cardinality()) + " of " 
+                    + dictionary.size() + " terms are counted in the buckets");
+        }
+        
+        long endTime = System.currentTimeMillis();
+        PrintUtilities.printExecutionTime(startTime, endTime, EDCoWCorpus.class.getName(), 
+                Thread.currentThread().getStackTrace()[1].getMethodName());
+    }
+    
+    /**
+     * Appends new tweets to the corpus, using as many threads as configured.
+     * @param newTweets A list containing the new tweets.
+     * @return An integer with the number of tweets that were appended.
+     * @see #append(List, int) append() method with explicit parallelism.
+     */
+    public final int append(List<Tweet> newTweets) {
+        return append(newTweets, config.getCorpusBuildThreads());
+    }
+    
+    /**
+     * Appends new tweets to a corpus that has already been created, using a
+     * given number of threads. <br>
+     * The buckets of the corpus are closed and never change; the new tweets
+     * only create new buckets after the last one, so tweets of a window should
+     * be appended once the window has elapsed. Tweets that belong to a closed
+     * bucket are skipped with a warning. Only the new tweets are processed and
+     * the term-frequency index, if set, is extended with the new buckets, so
+     * the cost of an append does not depend on the size of the corpus. <br>
+     * The support pre-filter gives the same counts as a corpus created from
+     * all tweets: terms that exceed the minimum support only with the new
+     * tweets are counted again in the closed buckets, which reads the tweets
+     * of these buckets once more. Hence tweets cannot be appended to a
+     * snapshot that was written with the pre-filter, as the snapshot keeps
+     * no texts.
+     * @param newTweets A list containing the new tweets, in any order. The
+     * list must not be modified afterwards, as the corpus reads its tweets
+     * from it.
+     * @param parallelism The number of threads. Values lower than 2 process
+     * the tweets in the calling thread.
+     * @return An integer with the number of tweets that were appended.
+     */
+    public final int append(List<Tweet> newTweets, int parallelism) {
+        if(bucketer == null) {
+            PrintUtilities.printErrorMessageln("The corpus must be created before appending tweets to it.");
+            return 0;
+        }
+        if(snapshotIncomplete) {
+            PrintUtilities.printErrorMessageln("The corpus snapshot was written with the support "
+                    + "pre-filter, so tweets cannot be appended to it. The corpus must be created again.");
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        
+        //Keep the tweets of the new buckets only
+        int firstBucket = messageDistribution.length;
+        int lastBucket = firstBucket - 1;
+        long newLatestMillis = latestDate.getTime();
+        int[] acceptedOrdinals = new int[newTweets.size()];
+        int[] bucketOfTweet = new int[newTweets.size()];
+        int numberOfAcceptedTweets = 0;
+        int ordinal = 0;
+        for(Tweet tweet : newTweets) {
+            long tweetMillis = tweet.getDateMillis();
+            int bucket = bucketer.getBucket(tweetMillis);
+            if(bucket >= firstBucket) {
+                acceptedOrdinals[numberOfAcceptedTweets] = ordinal;
+                bucketOfTweet[numberOfAcceptedTweets++] = bucket - firstBucket;
+                lastBucket = Math.max(lastBucket, bucket);
+                newLatestMillis = Math.max(newLatestMillis, tweetMillis);
             }
-            
-            //Get the tweet's text and tokenize it
-            String text = tweet.getText();
-            String id = String.valueOf(tweet.getID());
-            Tokenizer tokens = new Tokenizer(config, text, 
-                    swH.getSWHandlerAccordingToLanguage(LangUtils.getLangISOFromString(tweet.getLanguage())));
-
-            //Iterate through the stemmed clean tokens/hashtags
-            
-            for(String token : stemHandler.getStemsAsList(tokens.getCleanTokensAndHashtags(),
-                    Stemmers.getStemmer(LangUtils.getLangISOFromString(tweet.getLanguage())))) {
-                
-                //Update the HashMap with the triplet Document, Token, Frequency
-                if(termsDocsWithOccurencies.containsKey(docKey)) { //Document already exists, update it
-                    if(termsDocsWithOccurencies.get(docKey).containsKey(token)) { //Token already exists, update it
-                        termsDocsWithOccurencies.get(docKey).put(token, 
-                                (termsDocsWithOccurencies.get(docKey).get(token) + 1));
-                    } else { //Token does not exist, put it
-                        termsDocsWithOccurencies.get(docKey).put(token, 1);
+            ordinal++;
+        }
+        List<Tweet> acceptedTweets = new TweetSelection(newTweets, 
+                Arrays.copyOf(acceptedOrdinals, numberOfAcceptedTweets));
+        if(acceptedTweets.size() < newTweets.size()) {
+            PrintUtilities.printWarningMessageln((newTweets.size() - acceptedTweets.size()) 
+                    + " tweets belong to closed time buckets and were skipped.");
+        }
+        if(acceptedTweets.isEmpty()) {
+            return 0;
+        }
+        int numberOfNewBuckets = lastBucket - firstBucket + 1;
+        CorpusShard shard = buildShard(acceptedTweets, firstBucket, numberOfNewBuckets, 
+                numberOfTweets + acceptedTweets.size(), parallelism);
+        TweetBuckets tweetsByBucket = new TweetBuckets(acceptedTweets, 
+                Arrays.copyOf(bucketOfTweet, numberOfAcceptedTweets), numberOfNewBuckets);
+        
+        //Map the term IDs of the shard to the IDs of the corpus
+        TermDictionary shardDictionary = shard.getDictionary();
+        int[] termIds = new int[shardDictionary.size()];
+        for(int term = 0; term < termIds.length; term++) {
+            termIds[term] = dictionary.add(shardDictionary, term);
+        }
+        
+        //Append the new buckets
+        messageDistribution = Arrays.copyOf(messageDistribution, lastBucket + 1);
+        int[] newMessageDistribution = shard.getMessageDistribution();
+        for(int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            messageDistribution[bucket] = newMessageDistribution[bucket - firstBucket];
+            TermCounts termsWithOccurencies = new TermCounts();
+            TermCounts shardTerms = shard.getTermsOfBucket(bucket);
+            if(shardTerms != null) {
+                int documentID = bucket;
+                shardTerms.forEach((term, frequency) -> {
+                    termsWithOccurencies.add(termIds[term], frequency);
+                    if(termFrequencyIndex != null) {
+                        termFrequencyIndex.append(termIds[term], documentID, frequency);
                     }
-                } else { //Document does not exist, so as the token -create it and put it
-                    HashMap<String, Integer> termsWithOccurencies = new HashMap<>();
-                    termsWithOccurencies.put(token, 1);
-                    termsDocsWithOccurencies.put(docKey, termsWithOccurencies);
-                }
-                
-                
-                
-                //Generate a HashMap containig the index IDs of the terms
-                if(!termIds.containsKey(token)) {
-                    termIds.put(token, termCount);
-                    termCount++;
-                }
-            }
-            //Store the tweet ID too
-            if(idsDocs.containsKey(docKey)) {
-                idsDocs.get(docKey).add(id);
-            } else {
-                ArrayList<String> temp = new ArrayList<>();
-                temp.add(id);
-                idsDocs.put(docKey, temp);
+                });
             }
+            ArrayList<String> ids = shard.getIDsOfBucket(bucket);
+            termsDocsWithOccurencies.add(termsWithOccurencies);
+            idsDocs.add(ids == null ? new ArrayList<>() : ids);
+            tweetsDocs.add(tweetsByBucket.getTweets(bucket - firstBucket));
+        }
+        if(termFrequencyIndex != null) {
+            termFrequencyIndex.setNumberOfDocuments(lastBucket + 1);
+        }
+        
+        numberOfTweets += shard.getNumberOfTweets();
+        latestDate = new Date(newLatestMillis);
+        stemHandler.getStemsMap().putAll(shard.getStemsHandler().getStemsMap());
+        appendNumberOfDocuments(firstBucket);
+        if(supportSketch != null) {
+            completeTerms(firstBucket, parallelism);
         }
-        setNumberOfDocuments(messageDistribution);
         
         long endTime = System.currentTimeMillis();
         PrintUtilities.printExecutionTime(startTime, endTime, EDCoWCorpus.class.getName(), 
                 Thread.currentThread().getStackTrace()[1].getMethodName());
+        return acceptedTweets.size();
+    }
+    
+    /**
+     * Builds the shard of a list of tweets, with the bucketer of the corpus.
+     * If the support pre-filter is enabled, the tweets are first added to the
+     * support sketch, so terms that reach the minimum support only with
+     * appended tweets are counted in the new buckets; see
+     * {@link #completeTerms(int, int) completeTerms()} for the closed ones.
+     * @param source The tweet list.
+     * @param firstBucket The index of the first bucket of the tweets.
+     * @param numberOfBuckets The number of buckets of the tweets.
+     * @param totalTweets The number of tweets of the corpus, including the new ones.
+     * @param parallelism The number of threads.
+     * @return The merged CorpusShard object.
+     */
+    private CorpusShard buildShard(List<Tweet> source, int firstBucket, int numberOfBuckets, 
+            int totalTweets, int parallelism) {
+        if(supportSketch == null) {
+            return CorpusShard.build(source, firstBucket, numberOfBuckets, bucketer, config, swH, 
+                    parallelism);
+        }
+        CorpusShard.countSupport(source, supportSketch, config, swH, parallelism);
+        return CorpusShard.build(source, firstBucket, numberOfBuckets, bucketer, config, swH, 
+                parallelism, supportSketch, config.getCorpusMinTermSupport() * totalTweets);
+    }
+    
+    /**
+     * Counts in the closed buckets the terms that the pre-filter skipped
+     * before, but whose estimated support now exceeds the minimum, so that
+     * every such term has the counts of a corpus created from all tweets.
+     * The terms that the pre-filter skips now are marked as incomplete. If
+     * any term is counted again, the term-frequency index, if set, is
+     * created again as well.
+     * @param firstBucket The first new bucket; the buckets before it are closed.
+     * @param parallelism The number of threads.
+     */
+    private void completeTerms(int firstBucket, int parallelism) {
+        double minSupportCount = config.getCorpusMinTermSupport() * numberOfTweets;
+        BitSet recountedTerms = new BitSet();
+        for(int term = 0; term < dictionary.size(); term++) {
+            if(supportSketch.estimate(dictionary.getTerm(term)) <= minSupportCount) {
+                incompleteTerms.set(term);
+            } else if(incompleteTerms.get(term)) {
+                recountedTerms.set(term);
+            }
+        }
+        if(recountedTerms.isEmpty()) {
+            return;
+        }
+        
+        //Tokenize the tweets of the closed buckets again and map their terms to the corpus
+        List<Tweet> closedTweets = getTweetsOfWindowAsList(0, firstBucket);
+        TweetTerms closedTerms = CorpusShard.buildTweetTerms(closedTweets, config, swH, parallelism);
+        TermDictionary closedDictionary = closedTerms.getDictionary();
+        int[] termIds = new int[closedDictionary.size()];
+        for(int term = 0; term < termIds.length; term++) {
+            int corpusTerm = dictionary.getId(closedDictionary.getTerm(term));
+            termIds[term] = (corpusTerm != -1 && recountedTerms.get(corpusTerm)) ? corpusTerm : -1;
+        }
+        
+        //Replace the counts of the terms in every closed bucket
+        int tweet = 0;
+        for(int bucket = 0; bucket < firstBucket; bucket++) {
+            TermCounts recounts = new TermCounts();
+            for(int last = tweet + tweetsDocs.get(bucket).size(); tweet < last; tweet++) {
+                closedTerms.forEachTerm(tweet, (term) -> {
+                    if(termIds[term] != -1) {
+                        recounts.add(termIds[term], 1);
+                    }
+                });
+            }
+            TermCounts termsWithOccurencies = termsDocsWithOccurencies.get(bucket);
+            recounts.forEach((term, frequency) -> {
+                termsWithOccurencies.add(term, frequency - termsWithOccurencies.get(term));
+            });
+        }
+        incompleteTerms.andNot(recountedTerms);
+        if(termFrequencyIndex != null) {
+            setDocTermFreqIdList();
+        }
+        PrintUtilities.printInfoMessageln("Support pre-filter: " + recountedTerms.cardinality() 
+                + " terms were counted again in " + firstBucket + " closed buckets");
+    }
+    
+    /**
+     * Returns whether some terms of the corpus are not counted in all buckets,
+     * because the support pre-filter skipped them.
+     * @return True if some terms are incomplete, false otherwise.
+     */
+    public final boolean hasIncompleteTerms() {
+        return snapshotIncomplete || !incompleteTerms.isEmpty();
     }
     
     /**
      * Updates the distribution of incoming messages (tweets).
      * More formally, it calculates the tweets belonging to a certain document. 
      * In this iteration, a document is set in a user-defined refresh window, 
-     * so the method calculates and stores the tweets of this period. It then 
-     * stores this information into a HashMap which its docKey is the corresponding
-     * date and its value is the summary of the messages that have been generated
-     * into that time period.
-     * @param cal A Calendar instance, already set.
+     * so the method finds the time bucket of the given date and increases
+     * the number of messages that have been generated into that time period.
      * @param date The date to be checked.
-     * @return A String key with date information.
+     * @return An integer with the index of the time bucket.
      */
-    public final String updateMessageDistribution(Calendar cal, Date date) {
-        String key = StringDateUtils.getDateKey(cal, date, refreshWindow);
-        
-        if(messageDistribution.containsKey(key)) {
-            messageDistribution.put(key, messageDistribution.get(key) + 1);
-        } else {
-            messageDistribution.put(key, 1);
-        }
-        return key;
+    public final int updateMessageDistribution(Date date) {
+        int bucket = bucketer.getBucket(date);
+        messageDistribution[bucket]++;
+        return bucket;
     }
     
     /**
      * Returns the terms of the dataset.
-     * @return A String list containing the unique terms of the dataset.
+     * @return A String list containing the unique terms of the dataset. The
+     * index of every term in the list is its term ID.
      */
     public List<String> getTerms() { 
-        Set<String> termsSet = new HashSet<>();
-        termsDocsWithOccurencies.keySet().stream().forEach((docKey) -> {
-            termsSet.addAll(termsDocsWithOccurencies.get(docKey).keySet());
-        });
-        terms = new ArrayList<>(termsSet); //Store them
+        String[] termsById = new String[dictionary.size()];
+        for(int termID = 0; termID < termsById.length; termID++) {
+            termsById[termID] = dictionary.getTerm(termID);
+        }
+        terms = new ArrayList<>(Arrays.asList(termsById)); //Store them
         return terms; 
     }
     
     /**
-     * Initializes and stores a list containing objects of DocumentTermFrequencyItem
-     * class. <br>
-     * More formally, each listing in this list contains a triplet with the ID of
-     * a document, the ID of a term that the document contains and the term's
-     * frequency.
+     * Returns the dictionary of the terms of the dataset. <br>
+     * It should be preferred over {@link #getTerms() getTerms()}, as it does
+     * not create a String for every term.
+     * @return A TermDictionary object, whose IDs are the term IDs of the corpus.
+     */
+    public final TermDictionary getDictionary() { return dictionary; }
+    
+    /**
+     * Initializes and stores the term-major frequency index of the corpus. <br>
+     * More formally, row 't' of the index contains the IDs of the documents 
+     * that contain the term with ID 't', along with the term's frequency in
+     * each of them. The index is built once, so every term's frequencies can
+     * later be read without scanning the whole corpus.
+     * @see TermFrequencyIndex TermFrequencyIndex class.
      */
     public final void setDocTermFreqIdList() {
-        int documentID, termID;
-        int frequency;
-        for(String docKey : termsDocsWithOccurencies.keySet()) {
-            documentID = documentIndices.get(docKey); //Get the actual ID
-            for(String token : termsDocsWithOccurencies.get(docKey).keySet()) {
-                termID = termIds.get(token);
-                frequency = termsDocsWithOccurencies.get(docKey).get(token);
-                DocumentTermFrequencyItem item = new DocumentTermFrequencyItem(documentID, termID, frequency);
-                termDocFreqId.add(item);
-            }
+        if(snapshot != null) {
+            return; //Read along with the snapshot and kept current by append()
+        }
+        int numberOfTerms = dictionary.size();
+        
+        //Count the length of every row and turn the counts into offsets
+        int[] rowOffsets = new int[numberOfTerms + 1];
+        termsDocsWithOccurencies.forEach((termsOfDocument) -> {
+            termsOfDocument.forEach((termID, frequency) -> {
+                rowOffsets[termID + 1]++;
+            });
+        });
+        for(int term = 0; term < numberOfTerms; term++) {
+            rowOffsets[term + 1] += rowOffsets[term];
+        }
+        
+        //Fill the rows, visiting the documents (buckets) in order so that every row is sorted
+        int[] nextEntry = Arrays.copyOf(rowOffsets, numberOfTerms);
+        int[] docIds = new int[rowOffsets[numberOfTerms]];
+        int[] frequencies = new int[rowOffsets[numberOfTerms]];
+        for(int documentID = 0; documentID < termsDocsWithOccurencies.size(); documentID++) {
+            int docID = documentID;
+            termsDocsWithOccurencies.get(documentID).forEach((termID, frequency) -> {
+                docIds[nextEntry[termID]] = docID;
+                frequencies[nextEntry[termID]] = frequency;
+                nextEntry[termID]++;
+            });
         }
+        termFrequencyIndex = new TermFrequencyIndex(numberOfDocuments.length, 
+                rowOffsets, docIds, frequencies);
     }
     
     /**
-     * Returns true if the termDocFreqId list contains values.
-     * @return True if the list is not empty, false otherwise.
+     * Returns true if the frequency index contains values.
+     * @return True if the index is not empty, false otherwise.
      */
     public final boolean frequencyListContainsValues() {
-        return !termDocFreqId.isEmpty();
+        return termFrequencyIndex != null && termFrequencyIndex.getNumberOfEntries() != 0;
     }
     
+    /**
+     * Returns the term-major frequency index of the corpus.
+     * @return A TermFrequencyIndex object or null if 
+     * {@link #setDocTermFreqIdList() setDocTermFreqIdList()} has not been called yet.
+     */
+    public final TermFrequencyIndex getTermFrequencyIndex() { return termFrequencyIndex; }
+    
     /**
      * Returns the frequencies in all occurring documents/tweets of a term.
      * @param term The index of the term in the 'terms' list.
@@ -242,58 +643,38 @@ public class EDCoWCorpus {
             return null;
         }
         
-        //Creates a short array which equals the number of documents
+        //Creates an array which equals the number of documents, initialized with zeros
         Integer[] frqs = new Integer[numberOfDocuments.length];
-        
-        //Initializes the 'frqs' array with zeros
-        IntStream.range(0, numberOfDocuments.length).forEach(i -> frqs[i] = 0);
-        if (term != -1) {   
-            //For every single element in the list 'termDocFreqId'
-            termDocFreqId.stream()
-                .filter(dti -> dti.term_id == term) //Filter out irrelevant terms
-                .forEach(dti -> frqs[dti.doc_id] = dti.frequency); //Go to the corresponding index in 'frqs' array
-                //defined by the id of the document ('doc_id') and store the corresponding frequency that already
-                //exists in 'termDocFreqId' array
+        Arrays.fill(frqs, 0);
+        if (term != -1) {
+            int[] row = termFrequencyIndex.getDenseRow(term);
+            for(int i = 0; i < frqs.length; i++) {
+                frqs[i] = row[i];
+            }
         }
         return frqs;
     }
     
     /**
      * Sets an integer array of numberOfDocuments size that contains.
-     * the tweets distribution of the user-defined window.
-     * @param distribution A HashMap containing the tweets distribution.
+     * the tweets distribution of the user-defined window. The labels of the
+     * bins are generated here, once per time bucket.
      */
-    private void setNumberOfDocuments(Map<String, Integer> distribution) {
-        
-        Calendar cal = Calendar.getInstance();
-        
-        //Get earliest and latest dates of corpus
-        String earliestKey = StringDateUtils.getDateKey(cal, getEarliestDateOfCorpus(), refreshWindow);
-        String latestKey = StringDateUtils.getDateKey(cal, getLatestDateOfCorpus(), refreshWindow);
-        int value;
-        
-        StringDateUtils.clearAndSetYearToMinute(cal, latestKey);
-        long endMillis = cal.getTimeInMillis();
-        StringDateUtils.clearAndSetYearToMinute(cal, earliestKey);
-        
-        //Iterate between the two dates and store all the corresponding 10-minute windows
-        for (; cal.getTimeInMillis() <= endMillis; cal.add(Calendar.MINUTE, refreshWindow)) {
-            
-            String currentKey = StringDateUtils.getDateKey(cal, cal.getTime(), refreshWindow);
-            if(distribution.containsKey(currentKey)) {
-                value = distribution.get(currentKey);
-            } else {
-                value = 0;
-            }
-            BinPair pair = new BinPair(currentKey, value);
-            bins.add(pair);
-        }
-        
-        numberOfDocuments = new Integer[bins.size()];
-        int i = 0;
-        for(BinPair<String, Integer> bin : bins) {
-            numberOfDocuments[i] = bin.getValue();
-            i++;
+    private void setNumberOfDocuments() {
+        numberOfDocuments = new Integer[0];
+        appendNumberOfDocuments(0);
+    }
+    
+    /**
+     * Extends the number of documents and the bins with the buckets that
+     * were appended to the message distribution.
+     * @param firstBucket The index of the first new bucket.
+     */
+    private void appendNumberOfDocuments(int firstBucket) {
+        numberOfDocuments = Arrays.copyOf(numberOfDocuments, messageDistribution.length);
+        for(int bucket = firstBucket; bucket < messageDistribution.length; bucket++) {
+            numberOfDocuments[bucket] = messageDistribution[bucket];
+            bins.add(new BinPair<>(bucketer.getLabel(bucket), messageDistribution[bucket]));
         }
     }
     
@@ -329,7 +710,18 @@ public class EDCoWCorpus {
      * Returns a pre-configured stems handler object.
      * @return A stemUtils object.
      */
-    public final StemUtils getStemsHandler() { return stemHandler; }
+    public final StemUtils getStemsHandler() {
+        if(snapshot != null && !snapshotStemsLoaded) {
+            for(int term = 0; term < snapshot.getNumberOfTerms(); term++) {
+                String original = snapshot.getOriginalWord(term);
+                if(original != null) { //Stems of appended tweets are newer
+                    stemHandler.getStemsMap().putIfAbsent(dictionary.getTerm(term), original);
+                }
+            }
+            snapshotStemsLoaded = true;
+        }
+        return stemHandler; 
+    }
     
     /**
      * Method to convert a timeslice used in EDCoW analysis into its date.
@@ -341,52 +733,119 @@ public class EDCoWCorpus {
     }
     
     /**
-     * Method to get all tweet IDs in a specific window [start, end).
+     * Returns the TimeBucketer that maps the dates of the corpus to time slices.
+     * @return A TimeBucketer object or null if the corpus has not been created yet.
+     */
+    public final TimeBucketer getBucketer() { return bucketer; }
+    
+    /**
+     * Method to get all tweet IDs in a specific window [startSlice, endSlice).
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @return The tweet IDs separated by white spaces.
+     */
+    public final String getIDsOfWindowAsString(int startSlice, int endSlice) {
+        return getIDsOfWindow(startSlice, endSlice).toString();
+    }
+    
+    /**
+     * Method to get a compact handle of the tweet IDs in a specific window 
+     * [startSlice, endSlice). The IDs are read from the corpus on iteration.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @return A WindowTweetIDs object.
+     */
+    public final WindowTweetIDs getIDsOfWindow(int startSlice, int endSlice) {
+        return new WindowTweetIDs(this, startSlice, endSlice);
+    }
+    
+    /**
+     * Returns the number of tweet IDs of a timeslice.
+     * @param slice The timeslice.
+     * @return An integer with the number of tweets.
+     */
+    final int getNumberOfIDsOfSlice(int slice) {
+        if(slice < snapshotBuckets) {
+            return snapshot.getFirstTweetOfBucket(slice + 1) - snapshot.getFirstTweetOfBucket(slice);
+        }
+        return idsDocs.get(slice).size();
+    }
+    
+    /**
+     * Returns a tweet ID of a timeslice.
+     * @param slice The timeslice.
+     * @param position The position of the tweet in the timeslice.
+     * @return A String with the ID.
+     */
+    final String getIDOfSlice(int slice, int position) {
+        if(slice < snapshotBuckets) {
+            return String.valueOf(snapshot.getTweetID(snapshot.getFirstTweetOfBucket(slice) + position));
+        }
+        return idsDocs.get(slice).get(position);
+    }
+    
+    /**
+     * Method to get all tweet IDs in a specific window [start, end].
      * @param start A String with starting point of the window, assembled in YYYYMMDD_HHMM fashion.
      * @param end A String with ending point of the window, assembled in YYYYMMDD_HHMM fashion.
      * @return The tweet IDs separated by white spaces.
+     * @see #getIDsOfWindowAsString(int, int) getIDsOfWindowAsString() timeslice-based method.
      */
     public final String getIDsOfWindowAsString(String start, String end) {
-        Calendar cal = Calendar.getInstance();
-        StringBuilder ids = new StringBuilder();
-        
-        StringDateUtils.clearAndSetYearToMinute(cal, end);
-        long endMillis = cal.getTimeInMillis();
-        StringDateUtils.clearAndSetYearToMinute(cal, start);
-        
-        //Iterate between the two dates and store all the corresponding 10-minute windows
-        for (; cal.getTimeInMillis() <= endMillis; cal.add(Calendar.MINUTE, refreshWindow)) {
-            
-            String currentKey = StringDateUtils.getDateKey(cal, cal.getTime(), refreshWindow);
-            idsDocs.get(currentKey).stream().forEach((id) -> {
-                ids.append(id).append(" ");
-            }); //ids.append(idsDocs.get(currentKey));
+        return getIDsOfWindowAsString(bucketer.getBucketOfLabel(start), 
+                bucketer.getBucketOfLabel(end) + 1);
+    }
+    
+    /**
+     * Returns the tweets that belong to the window [startSlice, endSlice) as a list.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @return A list comprised by all tweets in the specified window.
+     */
+    public final List<Tweet> getTweetsOfWindowAsList(int startSlice, int endSlice) {
+        List<Tweet> tweetsInWindow = new ArrayList<>();
+        for(int slice = startSlice; slice < endSlice; slice++) {
+            if(slice < snapshotBuckets) {
+                for(int tweet = snapshot.getFirstTweetOfBucket(slice); 
+                        tweet < snapshot.getFirstTweetOfBucket(slice + 1); tweet++) {
+                    tweetsInWindow.add(snapshot.getTweet(tweet));
+                }
+                continue;
+            }
+            tweetsInWindow.addAll(tweetsDocs.get(slice));
         }
-        return ids.toString();
+        return tweetsInWindow;
     }
     
     /**
-     * Returns the tweets that belong to the window [start, end) as a list.
-     * @param start The start point of the window.
-     * @param end The end point of the window.
+     * Returns the tweets that belong to the window [start, end] as a list.
+     * @param start The start point of the window, assembled in YYYYMMDD_HHMM fashion.
+     * @param end The end point of the window, assembled in YYYYMMDD_HHMM fashion.
      * @return A list comprised by all tweets in the specified window.
+     * @see #getTweetsOfWindowAsList(int, int) getTweetsOfWindowAsList() timeslice-based method.
      */
     public final List<Tweet> getTweetsOfWindowAsList(String start, String end) {
-        List<Tweet> tweetsInWindow = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
+        return getTweetsOfWindowAsList(bucketer.getBucketOfLabel(start), 
+                bucketer.getBucketOfLabel(end) + 1);
+    }
+    
+    /**
+     * Read-only view of the tweets of a list with the given ordinals.
+     */
+    private static class TweetSelection extends AbstractList<Tweet> implements RandomAccess {
         
-        StringDateUtils.clearAndSetYearToMinute(cal, end);
-        long endMillis = cal.getTimeInMillis();
-        StringDateUtils.clearAndSetYearToMinute(cal, start);
+        private final List<Tweet> tweets;
+        private final int[] ordinals;
         
-        //Iterate between the two dates and store all the corresponding 10-minute windows
-        for (; cal.getTimeInMillis() <= endMillis; cal.add(Calendar.MINUTE, refreshWindow)) {
-            
-            String currentKey = StringDateUtils.getDateKey(cal, cal.getTime(), refreshWindow);
-            idsDocs.get(currentKey).forEach((id) -> {
-                tweetsInWindow.add(tweetMap.get(id));
-            });
+        TweetSelection(List<Tweet> tweets, int[] ordinals) {
+            this.tweets = tweets;
+            this.ordinals = ordinals;
         }
-        return tweetsInWindow;
+        
+        @Override
+        public Tweet get(int index) { return tweets.get(ordinals[index]); }
+        
+        @Override
+        public int size() { return ordinals.length; }
     }
 }
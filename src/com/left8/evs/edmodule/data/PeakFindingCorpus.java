@@ -16,29 +16,28 @@
  */
 package com.left8.evs.edmodule.data;
 
-import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 
-import com.left8.evs.edmodule.utils.StringDateUtils;
 import com.left8.evs.edmodule.utils.StopWordsHandlers;
+import com.left8.evs.edmodule.utils.TimeBucketer;
 import com.left8.evs.utilities.dsretriever.Tweet;
 import com.left8.evs.utilities.Config;
 
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.30_1826
+ * @version 2026.10.19_0030
  */
 public class PeakFindingCorpus {
     
     private final StopWordsHandlers swH;
     private List<Tweet> tweets;
     private final Config config;
-    private final HashMap<String, Integer> messageDistribution = new HashMap<>();
-    private final HashMap<String, ArrayList<Tweet>> tweetsByWindow = new HashMap<>();
+    private int[] messageDistribution; //Number of tweets, per time bucket
+    private TweetBuckets tweetsByWindow; //Tweets, per time bucket
+    private TimeBucketer bucketer;
+    private TweetTerms tweetTerms; //Term IDs of every tweet, shared by all events
     private Date earliestDate;
     private Date latestDate;
     
@@ -57,52 +56,46 @@ public class PeakFindingCorpus {
     /**
      * Method to create and return the windows needed for OfflinePeakFinding 
      * algorithm to operate.
-     * More formally, it creates HashMap of Strings and Integers. Every key is
-     * a specific time window and its value is the corresponding summary of tweets
-     * in this time interval (window). Note that only non-zero windows are created.
-     * Due to the fact that a HashMap does not store its values ordered, additional
-     * configuration is required to generate all the time intervals between the
-     * earliest and the latest date of corpus if needed (assuming that the corpus
-     * has some extend of sparseness).
+     * More formally, it creates an array of integers. Every position is a
+     * specific time window (bucket), starting from the window of the earliest
+     * tweet, and its value is the corresponding summary of tweets in this
+     * time interval (window). All windows between the earliest and the latest
+     * date of corpus are created, including the empty ones. <br>
+     * The first call also tokenizes and stems every tweet once, caching
+     * its term IDs for the events of every subsequent call.
      * @param window An integer indicating the time interval in which the tweets
      * should be counted. All values in minutes. <br>
      * E.g. For 1 minute interval, 1. <br>
      * For half an hour interval, 30. <br>
      * For 5 hours interval, 300.
-     * @return A HashMap containing the bins.
+     * @return An integer array containing the bins.
      * @see com.left8.evs.edmodule.peakfinding.BinsCreator BinsCreator class.
      * @see com.left8.evs.edmodule.peakfinding.OfflinePeakFinding OfflinePeakFinding class.
      */
-    public final HashMap<String, Integer> createCorpus(int window) {   
+    public final int[] createCorpus(int window) {   
         //Initialize variables
-        earliestDate = tweets.get(0).getDate();
-        latestDate = tweets.get(0).getDate();
-        Calendar cal = Calendar.getInstance();
+        long earliestMillis = Long.MAX_VALUE;
+        long latestMillis = Long.MIN_VALUE;
+        for(Tweet tweet : tweets) {
+            long tweetMillis = tweet.getDateMillis();
+            earliestMillis = Math.min(earliestMillis, tweetMillis);
+            latestMillis = Math.max(latestMillis, tweetMillis);
+        }
+        earliestDate = new Date(earliestMillis);
+        latestDate = new Date(latestMillis);
+        bucketer = TimeBucketer.alignedTo(earliestDate, window);
+        int numberOfBuckets = bucketer.getBucket(latestMillis) + 1;
+        messageDistribution = new int[numberOfBuckets];
         
-        tweets.stream().forEach((tweet) -> {
-            Date tweetDate = tweet.getDate();
-            if(tweetDate.before(earliestDate)) {
-                earliestDate = tweetDate;
-            }
-            if(tweetDate.after(latestDate)) {
-                latestDate = tweetDate;
-            }
-
-            //Assemble the date key
-            String key = StringDateUtils.getDateKey(cal, tweetDate, window);
-
-            if(messageDistribution.containsKey(key)) {
-                messageDistribution.put(key, messageDistribution.get(key) + 1);
-                ArrayList<Tweet> tweetsInWindow = new ArrayList<>(tweetsByWindow.get(key));
-                tweetsInWindow.add(tweet);
-                tweetsByWindow.put(key, tweetsInWindow);
-            } else {
-                messageDistribution.put(key, 1);
-                ArrayList<Tweet> tweetsInWindow = new ArrayList<>();
-                tweetsInWindow.add(tweet);
-                tweetsByWindow.put(key, tweetsInWindow);
-            }
-        });
+        int[] bucketOfTweet = new int[tweets.size()];
+        for(int i = 0; i < bucketOfTweet.length; i++) {
+            bucketOfTweet[i] = bucketer.getBucket(tweets.get(i).getDateMillis());
+            messageDistribution[bucketOfTweet[i]]++;
+        }
+        tweetsByWindow = new TweetBuckets(tweets, bucketOfTweet, numberOfBuckets);
+        if(tweetTerms == null) {
+            tweetTerms = CorpusShard.buildTweetTerms(tweets, config, swH, config.getCorpusBuildThreads());
+        }
         return messageDistribution;    
     }
     
@@ -120,10 +113,32 @@ public class PeakFindingCorpus {
     
     /**
      * Returns all tweets grouped by refreshed window.
-     * @return A HashMap which key is the refresh window and its value is the 
-     * tweets in this window.
+     * @return A TweetBuckets object, whose buckets are the refresh windows, or
+     * null if the corpus has not been created yet.
+     */
+    public final TweetBuckets getTweetsByWindow() { return tweetsByWindow; }
+    
+    /**
+     * Returns the TimeBucketer that maps the dates of the corpus to windows.
+     * @return A TimeBucketer object or null if the corpus has not been created yet.
+     */
+    public final TimeBucketer getBucketer() { return bucketer; }
+    
+    /**
+     * Returns the dictionary of the terms of the events of the corpus.
+     * @return A TermDictionary object or null if the corpus has not been
+     * created yet.
+     */
+    public final TermDictionary getDictionary() { 
+        return tweetTerms == null ? null : tweetTerms.getDictionary(); 
+    }
+    
+    /**
+     * Returns the term IDs of every tweet of the corpus, indexed by the
+     * ordinals of the tweets.
+     * @return A TweetTerms object or null if the corpus has not been created yet.
      */
-    public final HashMap<String, ArrayList<Tweet>> getTweetsByWindow() { return tweetsByWindow; }
+    public final TweetTerms getTweetTerms() { return tweetTerms; }
     
     /**
      * Return the configuration object, already stored in the Constructor.
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.Arrays;
+
+/**
+ * Frequencies of terms, keyed by their IDs in a {@link TermDictionary}. <br>
+ * It is a primitive open-addressing map, so counting a term neither boxes
+ * the ID nor the frequency.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_1200
+ */
+public class TermCounts {
+
+    private static final int EMPTY = -1;
+
+    private int[] terms;
+    private int[] counts;
+    private int size = 0;
+
+    /**
+     * Visitor for the iteration over all terms of a TermCounts object.
+     * @see #forEach(TermCountVisitor) forEach() method.
+     */
+    public interface TermCountVisitor {
+
+        /**
+         * Visits a single term.
+         * @param term The ID of the term.
+         * @param count The frequency of the term.
+         */
+        public void visit(int term, int count);
+    }
+
+    /**
+     * Public constructor.
+     */
+    public TermCounts() {
+        terms = new int[16];
+        counts = new int[16];
+        Arrays.fill(terms, EMPTY);
+    }
+
+    /**
+     * Increases the frequency of a term.
+     * @param term The ID of the term.
+     * @param count The amount by which the frequency is increased.
+     */
+    public final void add(int term, int count) {
+        int slot = findSlot(term);
+        if(terms[slot] == EMPTY) {
+            terms[slot] = term;
+            size++;
+            if(size * 2 > terms.length) { //Keep the load factor under 0.5
+                counts[slot] = count;
+                rehash();
+                return;
+            }
+        }
+        counts[slot] += count;
+    }
+
+    /**
+     * Returns the frequency of a term.
+     * @param term The ID of the term.
+     * @return An integer with the frequency of the term, zero if it is absent.
+     */
+    public final int get(int term) {
+        int slot = findSlot(term);
+        return terms[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the number of distinct terms.
+     * @return An integer with the number of terms.
+     */
+    public final int size() { return size; }
+
+    /**
+     * Iterates over all terms and their frequencies, in no particular order.
+     * @param visitor A TermCountVisitor object.
+     */
+    public final void forEach(TermCountVisitor visitor) {
+        for(int slot = 0; slot < terms.length; slot++) {
+            if(terms[slot] != EMPTY) {
+                visitor.visit(terms[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of a term; either the one that holds it or the free
+     * slot in which it should be inserted.
+     * @param term The ID of the term.
+     * @return An integer with the index of the slot.
+     */
+    private int findSlot(int term) {
+        int mask = terms.length - 1;
+        int hash = term * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while(terms[slot] != EMPTY && terms[slot] != term) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Doubles the capacity and reinserts all terms.
+     */
+    private void rehash() {
+        int[] oldTerms = terms;
+        int[] oldCounts = counts;
+        terms = new int[oldTerms.length * 2];
+        counts = new int[oldTerms.length * 2];
+        Arrays.fill(terms, EMPTY);
+        for(int slot = 0; slot < oldTerms.length; slot++) {
+            if(oldTerms[slot] != EMPTY) {
+                int newSlot = findSlot(oldTerms[slot]);
+                terms[newSlot] = oldTerms[slot];
+                counts[newSlot] = oldCounts[slot];
+            }
+        }
+    }
+}
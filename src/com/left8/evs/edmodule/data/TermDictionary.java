@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary of terms, mapping every term to a dense integer ID. <br>
+ * IDs are assigned in insertion order, starting from 0. The terms are stored
+ * once, UTF-8 encoded in a single contiguous byte arena, and they are looked
+ * up through an open-addressing hash table of IDs, so the dictionary keeps no
+ * String objects at all. Strings are only created by
+ * {@link #getTerm(int) getTerm()}, when a term has to be presented. <br>
+ * Concurrent lookups are safe, provided that no terms are added meanwhile.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_1400
+ */
+public class TermDictionary {
+
+    private static final int EMPTY = -1;
+
+    private byte[] arena = new byte[1 << 12]; //UTF-8 bytes of all terms
+    private int arenaSize = 0;
+    private int[] offsets = new int[257]; //Term 'id' spans [offsets[id], offsets[id + 1]) of the arena
+    private int[] hashes = new int[256]; //String.hashCode() of every term
+    private int[] table = new int[512]; //IDs of the terms, EMPTY for free slots
+    private int size = 0;
+
+    /**
+     * Public constructor.
+     */
+    public TermDictionary() {
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * Constructor that restores a dictionary from its stored arrays, as
+     * returned by {@link #getArena() getArena()}, {@link #getOffsets() getOffsets()}
+     * and {@link #getHashes() getHashes()}. Only the hash table is rebuilt,
+     * from the stored hash codes, so no term is decoded.
+     * @param arena The UTF-8 bytes of all terms.
+     * @param offsets The (size + 1) offsets of the terms in the arena.
+     * @param hashes The hash codes of the terms.
+     * @param size The number of terms.
+     */
+    TermDictionary(byte[] arena, int[] offsets, int[] hashes, int size) {
+        int capacity = Math.max(256, hashes.length); //insert() expects offsets.length == hashes.length + 1
+        this.arena = arena;
+        this.arenaSize = offsets[size];
+        this.hashes = (hashes.length == capacity) ? hashes : Arrays.copyOf(hashes, capacity);
+        this.offsets = (offsets.length == capacity + 1) ? offsets : Arrays.copyOf(offsets, capacity + 1);
+        this.size = size;
+        int tableLength = 512;
+        while(size * 2 > tableLength) {
+            tableLength *= 2;
+        }
+        table = new int[tableLength / 2]; //Doubled by rehash()
+        rehash();
+    }
+
+    /**
+     * Returns the ID of a term, adding it to the dictionary if needed.
+     * @param term The term.
+     * @return An integer with the ID of the term.
+     */
+    public final int add(String term) {
+        int hash = term.hashCode();
+        int slot = findSlot(term, hash);
+        if(table[slot] != EMPTY) {
+            return table[slot];
+        }
+        ensureArenaCapacity(term.length() * 3); //At most 3 bytes per UTF-16 unit
+        arenaSize = encode(term, arena, arenaSize);
+        return insert(slot, hash);
+    }
+
+    /**
+     * Returns the ID of a term of another dictionary, adding it to this
+     * dictionary if needed. The term is copied in its encoded form, without
+     * creating a String.
+     * @param other Another TermDictionary object.
+     * @param otherId The ID of the term in the other dictionary.
+     * @return An integer with the ID of the term in this dictionary.
+     */
+    public final int add(TermDictionary other, int otherId) {
+        int hash = other.hashes[otherId];
+        int from = other.offsets[otherId];
+        int length = other.offsets[otherId + 1] - from;
+        int slot = mix(hash) & (table.length - 1);
+        while(table[slot] != EMPTY) {
+            int id = table[slot];
+            if(hashes[id] == hash && offsets[id + 1] - offsets[id] == length
+                    && rangeEquals(arena, offsets[id], other.arena, from, length)) {
+                return id;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        ensureArenaCapacity(length);
+        System.arraycopy(other.arena, from, arena, arenaSize, length);
+        arenaSize += length;
+        return insert(slot, hash);
+    }
+
+    /**
+     * Returns the ID of a term.
+     * @param term The term.
+     * @return An integer with the ID of the term or -1 if the term does not
+     * exist in the dictionary.
+     */
+    public final int getId(String term) {
+        return table[findSlot(term, term.hashCode())];
+    }
+
+    /**
+     * Returns the term with the given ID, as a new String.
+     * @param id The ID of the term.
+     * @return A String with the term.
+     */
+    public final String getTerm(int id) {
+        int from = offsets[id];
+        int to = offsets[id + 1];
+        char[] chars = new char[to - from]; //Never fewer bytes than UTF-16 units
+        int length = 0;
+        for(int i = from; i < to;) {
+            int b = arena[i] & 0xFF;
+            if(b < 0x80) {
+                chars[length++] = (char) b;
+                i++;
+            } else if(b < 0xE0) {
+                chars[length++] = (char) (((b & 0x1F) << 6) | (arena[i + 1] & 0x3F));
+                i += 2;
+            } else if(b < 0xF0) {
+                chars[length++] = (char) (((b & 0x0F) << 12) | ((arena[i + 1] & 0x3F) << 6)
+                        | (arena[i + 2] & 0x3F));
+                i += 3;
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((arena[i + 1] & 0x3F) << 12)
+                        | ((arena[i + 2] & 0x3F) << 6) | (arena[i + 3] & 0x3F);
+                chars[length++] = Character.highSurrogate(codePoint);
+                chars[length++] = Character.lowSurrogate(codePoint);
+                i += 4;
+            }
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Returns the length of a term in UTF-16 units, as String.length() would,
+     * without creating the String.
+     * @param id The ID of the term.
+     * @return An integer with the length of the term.
+     */
+    public final int getTermLength(int id) {
+        int length = 0;
+        for(int i = offsets[id]; i < offsets[id + 1]; i++) {
+            int b = arena[i] & 0xFF;
+            if(b < 0x80 || b >= 0xC0) { //Not a continuation byte
+                length += (b >= 0xF0) ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the number of terms of the dictionary.
+     * @return An integer with the number of terms.
+     */
+    public final int size() { return size; }
+
+    /**
+     * Returns the byte arena of the dictionary; only the first
+     * {@code getOffsets()[size()]} bytes are in use.
+     * @return The byte array, which must not be modified.
+     */
+    final byte[] getArena() { return arena; }
+
+    /**
+     * Returns the offsets of the terms in the arena; term 'id' spans
+     * [offsets[id], offsets[id + 1]).
+     * @return An integer array of at least (size() + 1) length, which must not
+     * be modified.
+     */
+    final int[] getOffsets() { return offsets; }
+
+    /**
+     * Returns the hash codes of the terms.
+     * @return An integer array of at least size() length, which must not be
+     * modified.
+     */
+    final int[] getHashes() { return hashes; }
+
+    /**
+     * Finds the slot of a term; either the one that holds its ID or the free
+     * slot in which it should be inserted.
+     * @param term The term.
+     * @param hash The hash code of the term.
+     * @return An integer with the index of the slot.
+     */
+    private int findSlot(String term, int hash) {
+        int slot = mix(hash) & (table.length - 1);
+        while(table[slot] != EMPTY) {
+            int id = table[slot];
+            if(hashes[id] == hash && termEquals(id, term)) {
+                return slot;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return slot;
+    }
+
+    /**
+     * Stores a new ID whose bytes have already been appended to the arena.
+     * @param slot The free slot of the table.
+     * @param hash The hash code of the term.
+     * @return An integer with the new ID.
+     */
+    private int insert(int slot, int hash) {
+        int id = size;
+        if(id == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            offsets = Arrays.copyOf(offsets, hashes.length + 1);
+        }
+        hashes[id] = hash;
+        offsets[id + 1] = arenaSize;
+        table[slot] = id;
+        size++;
+        if(size * 2 > table.length) { //Keep the load factor under 0.5
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Doubles the table and reinserts all IDs.
+     */
+    private void rehash() {
+        int[] newTable = new int[table.length * 2];
+        Arrays.fill(newTable, EMPTY);
+        for(int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & (newTable.length - 1);
+            while(newTable[slot] != EMPTY) {
+                slot = (slot + 1) & (newTable.length - 1);
+            }
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+
+    /**
+     * Grows the arena so that it can hold a number of additional bytes.
+     * @param extra The number of additional bytes.
+     */
+    private void ensureArenaCapacity(int extra) {
+        if(arenaSize + extra > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + extra));
+        }
+    }
+
+    /**
+     * Checks whether a stored term equals a String, by decoding the stored
+     * bytes on the fly.
+     * @param id The ID of the stored term.
+     * @param term The String.
+     * @return True if they are equal, false otherwise.
+     */
+    private boolean termEquals(int id, String term) {
+        int length = term.length();
+        int position = 0;
+        int to = offsets[id + 1];
+        for(int i = offsets[id]; i < to;) {
+            int b = arena[i] & 0xFF;
+            if(b < 0xF0) {
+                char c;
+                if(b < 0x80) {
+                    c = (char) b;
+                    i++;
+                } else if(b < 0xE0) {
+                    c = (char) (((b & 0x1F) << 6) | (arena[i + 1] & 0x3F));
+                    i += 2;
+                } else {
+                    c = (char) (((b & 0x0F) << 12) | ((arena[i + 1] & 0x3F) << 6)
+                            | (arena[i + 2] & 0x3F));
+                    i += 3;
+                }
+                if(position >= length || term.charAt(position++) != c) {
+                    return false;
+                }
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((arena[i + 1] & 0x3F) << 12)
+                        | ((arena[i + 2] & 0x3F) << 6) | (arena[i + 3] & 0x3F);
+                i += 4;
+                if(position + 1 >= length
+                        || term.charAt(position++) != Character.highSurrogate(codePoint)
+                        || term.charAt(position++) != Character.lowSurrogate(codePoint)) {
+                    return false;
+                }
+            }
+        }
+        return position == length;
+    }
+
+    /**
+     * Encodes a String in UTF-8. Unpaired surrogates are encoded as 3-byte
+     * sequences, so that every String survives the round trip unchanged.
+     * @param term The String.
+     * @param destination The destination array, large enough.
+     * @param position The position of the first byte.
+     * @return The position after the last byte.
+     */
+    private static int encode(String term, byte[] destination, int position) {
+        int length = term.length();
+        for(int i = 0; i < length; i++) {
+            char c = term.charAt(i);
+            if(c < 0x80) {
+                destination[position++] = (byte) c;
+            } else if(c < 0x800) {
+                destination[position++] = (byte) (0xC0 | (c >> 6));
+                destination[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if(Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(term.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, term.charAt(++i));
+                destination[position++] = (byte) (0xF0 | (codePoint >> 18));
+                destination[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                destination[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                destination[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                destination[position++] = (byte) (0xE0 | (c >> 12));
+                destination[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                destination[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Spreads the bits of a hash code, since the table is indexed by its
+     * lowest bits.
+     * @param hash A hash code.
+     * @return The mixed hash code.
+     */
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Compares two byte ranges.
+     * @param a The first array.
+     * @param aFrom The start of the first range.
+     * @param b The second array.
+     * @param bFrom The start of the second range.
+     * @param length The length of both ranges.
+     * @return True if the ranges are equal, false otherwise.
+     */
+    private static boolean rangeEquals(byte[] a, int aFrom, byte[] b, int bFrom, int length) {
+        for(int i = 0; i < length; i++) {
+            if(a[aFrom + i] != b[bFrom + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
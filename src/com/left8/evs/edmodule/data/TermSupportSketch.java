@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+/**
+ * Count-min sketch of the support of the terms of a tweet stream, keyed by
+ * the terms themselves, so that the terms need no IDs. <br>
+ * The support of a term is the number of its occurrences, which is what
+ * EDCoW compares with its minimum term support. Counts are increased with
+ * the conservative update, namely only the counters that are equal to the
+ * current estimate are increased, so every counter of a term stays at least
+ * equal to its occurrences. Hence the estimate of a term is never lower
+ * than its support. Sketches of disjoint parts of a stream can be merged,
+ * which keeps the estimates upper bounds.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class TermSupportSketch {
+
+    private static final int DEPTH = 4;
+    private static final int MIN_WIDTH = 1 << 10;
+    private static final int MAX_WIDTH = 1 << 24;
+
+    private final int widthMask;
+    private final int[] counters; //DEPTH rows of width counters
+
+    /**
+     * Public constructor.
+     * @param width The number of counters per row. It is rounded up to a
+     * power of two; an estimate exceeds the true support by at most
+     * e / width of the total support with probability 1 - e^-4.
+     */
+    public TermSupportSketch(int width) {
+        int size = powerOfTwo(width, MIN_WIDTH, MAX_WIDTH);
+        widthMask = size - 1;
+        counters = new int[DEPTH * size];
+    }
+
+    /**
+     * Creates a sketch that is accurate enough to filter terms by a minimum
+     * support.
+     * @param minSupport The minimum support, e.g. 0.0001.
+     * @return A TermSupportSketch object, whose expected error is below half
+     * of the minimum support, for about 8 terms per tweet.
+     */
+    public static TermSupportSketch forMinSupport(double minSupport) {
+        int width = (int) Math.min(MAX_WIDTH, Math.ceil(2 * Math.E * 8 / minSupport));
+        return new TermSupportSketch(width);
+    }
+
+    private static int powerOfTwo(int value, int min, int max) {
+        int size = min;
+        while(size < value && size < max) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Counts an occurrence of a term.
+     * @param term The term.
+     */
+    public final void add(String term) {
+        long hash = mix(term.hashCode());
+        int estimate = estimate(hash);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for(int row = 0; row < DEPTH; row++) {
+            int slot = row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+            if(counters[slot] == estimate) { //Conservative update
+                counters[slot]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated support of a term.
+     * @param term The term.
+     * @return An integer that is at least the number of occurrences of the
+     * term.
+     */
+    public final int estimate(String term) {
+        return estimate(mix(term.hashCode()));
+    }
+
+    private int estimate(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters[row * (widthMask + 1) + ((h1 + row * h2) & widthMask)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Adds the counts of a sketch of another part of the stream, with the
+     * same dimensions.
+     * @param other A TermSupportSketch object.
+     */
+    public final void merge(TermSupportSketch other) {
+        for(int slot = 0; slot < counters.length; slot++) {
+            counters[slot] += other.counters[slot];
+        }
+    }
+
+    /**
+     * Creates an empty sketch with the same dimensions.
+     * @return A TermSupportSketch object.
+     */
+    public final TermSupportSketch emptyCopy() {
+        return new TermSupportSketch(widthMask + 1);
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE53A87CDL;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+import com.left8.evs.utilities.dsretriever.Tweet;
+
+/**
+ * Tweets grouped by time bucket. <br>
+ * The store keeps the ordinals of the tweets (their indices in the tweet
+ * list), laid out bucket after bucket in a single array, so the tweets of
+ * any range of consecutive buckets are a contiguous slice of it. Ranges are
+ * returned as read-only views, without copying any tweet. Within a bucket,
+ * the tweets keep the order of the tweet list.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_1800
+ */
+public class TweetBuckets {
+
+    private final List<Tweet> tweets;
+    private final int[] bucketOffsets; //Bucket 'b' spans [bucketOffsets[b], bucketOffsets[b + 1]) of the ordinals
+    private final int[] ordinals;
+
+    /**
+     * Public constructor. The tweets are placed in their buckets with a
+     * counting sort, in two passes over the list.
+     * @param tweets The tweet list, which must not be modified afterwards.
+     * @param bucketOfTweet The bucket of every tweet of the list.
+     * @param numberOfBuckets The number of buckets.
+     */
+    public TweetBuckets(List<Tweet> tweets, int[] bucketOfTweet, int numberOfBuckets) {
+        this.tweets = tweets;
+        bucketOffsets = new int[numberOfBuckets + 1];
+        for(int bucket : bucketOfTweet) {
+            bucketOffsets[bucket + 1]++;
+        }
+        for(int bucket = 0; bucket < numberOfBuckets; bucket++) {
+            bucketOffsets[bucket + 1] += bucketOffsets[bucket];
+        }
+        int[] nextOrdinal = new int[numberOfBuckets];
+        System.arraycopy(bucketOffsets, 0, nextOrdinal, 0, numberOfBuckets);
+        ordinals = new int[bucketOfTweet.length];
+        for(int tweet = 0; tweet < bucketOfTweet.length; tweet++) {
+            ordinals[nextOrdinal[bucketOfTweet[tweet]]++] = tweet;
+        }
+    }
+
+    /**
+     * Returns the number of buckets.
+     * @return An integer with the number of buckets.
+     */
+    public final int getNumberOfBuckets() { return bucketOffsets.length - 1; }
+
+    /**
+     * Returns the number of tweets of a bucket.
+     * @param bucket The index of the bucket.
+     * @return An integer with the number of tweets.
+     */
+    public final int getNumberOfTweets(int bucket) {
+        return bucketOffsets[bucket + 1] - bucketOffsets[bucket];
+    }
+
+    /**
+     * Returns the tweets of the buckets [startBucket, endBucket) as a
+     * read-only view.
+     * @param startBucket The first bucket (inclusive).
+     * @param endBucket The last bucket (exclusive).
+     * @return A List of Tweet objects, ordered by bucket.
+     */
+    public final List<Tweet> getTweets(int startBucket, int endBucket) {
+        return new TweetRange(bucketOffsets[startBucket], bucketOffsets[endBucket]);
+    }
+
+    /**
+     * Returns the tweets of a single bucket as a read-only view.
+     * @param bucket The index of the bucket.
+     * @return A List of Tweet objects.
+     */
+    public final List<Tweet> getTweets(int bucket) { return getTweets(bucket, bucket + 1); }
+
+    /**
+     * Passes the ordinals of the tweets of the buckets [startBucket, endBucket)
+     * to a consumer, in the order of {@link #getTweets(int, int) getTweets()}.
+     * @param startBucket The first bucket (inclusive).
+     * @param endBucket The last bucket (exclusive).
+     * @param action The consumer of the ordinals.
+     */
+    public final void forEachOrdinal(int startBucket, int endBucket, IntConsumer action) {
+        for(int k = bucketOffsets[startBucket]; k < bucketOffsets[endBucket]; k++) {
+            action.accept(ordinals[k]);
+        }
+    }
+
+    /**
+     * Read-only view of a slice of the ordinals.
+     */
+    private class TweetRange extends AbstractList<Tweet> implements RandomAccess {
+
+        private final int from;
+        private final int to;
+
+        TweetRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Tweet get(int index) {
+            if(index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return tweets.get(ordinals[from + index]);
+        }
+
+        @Override
+        public int size() { return to - from; }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.function.IntConsumer;
+
+import com.left8.evs.preprocessingmodule.nlp.stemming.StemUtils;
+
+/**
+ * The stemmed terms of every tweet of a tweet list, as IDs of a
+ * TermDictionary. <br>
+ * The terms are kept in a single flat array: the terms of the tweet with
+ * ordinal 't' (its index in the tweet list) are termIds[offsets[t]] up to,
+ * but not including, termIds[offsets[t + 1]], in the order they appear in
+ * the text. The cache is built once, when a corpus is created, so later
+ * stages (e.g. the common terms of the events) never tokenize a tweet again.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ * @see CorpusShard#buildTweetTerms(java.util.List, com.left8.evs.utilities.Config, 
+ * com.left8.evs.edmodule.utils.StopWordsHandlers, int) CorpusShard.buildTweetTerms() method.
+ */
+public class TweetTerms {
+
+    private final TermDictionary dictionary;
+    private final StemUtils stemsHandler;
+    private final int[] offsets;
+    private final int[] termIds;
+
+    /**
+     * Public constructor.
+     * @param dictionary The dictionary of the term IDs.
+     * @param stemsHandler A StemUtils object with the original words of the stems.
+     * @param offsets The offsets of the terms of every tweet, plus one final
+     * offset with the total number of terms.
+     * @param termIds The term IDs of all tweets.
+     */
+    public TweetTerms(TermDictionary dictionary, StemUtils stemsHandler, int[] offsets,
+            int[] termIds) {
+        this.dictionary = dictionary;
+        this.stemsHandler = stemsHandler;
+        this.offsets = offsets;
+        this.termIds = termIds;
+    }
+
+    /**
+     * Returns the number of tweets of the cache.
+     * @return An integer with the number of tweets.
+     */
+    public final int getNumberOfTweets() { return offsets.length - 1; }
+
+    /**
+     * Returns the number of terms of a tweet, including repetitions.
+     * @param tweet The ordinal of the tweet.
+     * @return An integer with the number of terms.
+     */
+    public final int getNumberOfTerms(int tweet) { return offsets[tweet + 1] - offsets[tweet]; }
+
+    /**
+     * Passes every term ID of a tweet to a consumer, in the order the terms
+     * appear in the text.
+     * @param tweet The ordinal of the tweet.
+     * @param action The consumer of the term IDs.
+     */
+    public final void forEachTerm(int tweet, IntConsumer action) {
+        for(int k = offsets[tweet]; k < offsets[tweet + 1]; k++) {
+            action.accept(termIds[k]);
+        }
+    }
+
+    /**
+     * Returns the offsets of the terms of every tweet. The array must not be
+     * modified.
+     * @return An integer array with one offset per tweet, plus the total
+     * number of terms.
+     */
+    public final int[] getOffsets() { return offsets; }
+
+    /**
+     * Returns the term IDs of all tweets. The array must not be modified.
+     * @return An integer array with the term IDs.
+     */
+    public final int[] getTermIds() { return termIds; }
+
+    /**
+     * Returns the dictionary of the term IDs.
+     * @return A TermDictionary object.
+     */
+    public final TermDictionary getDictionary() { return dictionary; }
+
+    /**
+     * Returns the original words of the stems of the cache.
+     * @return A StemUtils object.
+     */
+    public final StemUtils getStemsHandler() { return stemsHandler; }
+}
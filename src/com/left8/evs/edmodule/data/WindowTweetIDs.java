@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The tweet IDs of a window [startSlice, endSlice) of an EDCoWCorpus. <br>
+ * Only the corpus and the bounds of the window are kept; the IDs are read
+ * from the corpus while iterating, so an event holds a few bytes instead
+ * of a String with every ID of its window. The space-separated String is
+ * built on demand by {@link #toString() toString()}, for exporting.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_1700
+ */
+public class WindowTweetIDs implements Iterable<String> {
+
+    private final EDCoWCorpus corpus;
+    private final int startSlice;
+    private final int endSlice;
+
+    /**
+     * Public constructor.
+     * @param corpus An EDCoWCorpus object.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     */
+    public WindowTweetIDs(EDCoWCorpus corpus, int startSlice, int endSlice) {
+        this.corpus = corpus;
+        this.startSlice = startSlice;
+        this.endSlice = endSlice;
+    }
+
+    /**
+     * Returns the first timeslice of the window.
+     * @return An integer with the timeslice (inclusive).
+     */
+    public final int getStartSlice() { return startSlice; }
+
+    /**
+     * Returns the last timeslice of the window.
+     * @return An integer with the timeslice (exclusive).
+     */
+    public final int getEndSlice() { return endSlice; }
+
+    /**
+     * Returns the number of tweets of the window.
+     * @return An integer with the number of tweet IDs.
+     */
+    public final int size() {
+        int size = 0;
+        for(int slice = startSlice; slice < endSlice; slice++) {
+            size += corpus.getNumberOfIDsOfSlice(slice);
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int slice = startSlice;
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                while(slice < endSlice && position == corpus.getNumberOfIDsOfSlice(slice)) {
+                    slice++;
+                    position = 0;
+                }
+                return slice < endSlice;
+            }
+
+            @Override
+            public String next() {
+                if(!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return corpus.getIDOfSlice(slice, position++);
+            }
+        };
+    }
+
+    /**
+     * Returns the tweet IDs separated by white spaces, as
+     * {@link EDCoWCorpus#getIDsOfWindowAsString(int, int) getIDsOfWindowAsString()}
+     * does.
+     * @return A String with the tweet IDs.
+     */
+    @Override
+    public String toString() {
+        StringBuilder ids = new StringBuilder();
+        for(String id : this) {
+            ids.append(id).append(" ");
+        }
+        return ids.toString();
+    }
+}
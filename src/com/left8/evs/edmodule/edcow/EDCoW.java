@@ -18,18 +18,26 @@ package com.left8.evs.edmodule.edcow;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
-import ch.epfl.lis.jmod.modularity.community.Community;
 
 import com.left8.evs.edmodule.edcow.event.EDCoWEvents;
 import com.left8.evs.edmodule.AbstractEDMethod;
 import com.left8.evs.edmodule.data.EDCoWCorpus;
 import com.left8.evs.edmodule.edcow.event.EDCoWEvent;
+import com.left8.evs.edmodule.data.TermDictionary;
+import com.left8.evs.edmodule.edcow.frequencies.TermFrequencyIndex;
 import com.left8.evs.utilities.PrintUtilities;
 
 
@@ -39,7 +47,7 @@ import com.left8.evs.utilities.PrintUtilities;
  * email    adrien.guille@univ-lyon2.fr
  * 
  * @author  Lefteris Paraskevas (configurations in EDCoW to omit missing components)
- * @version 2016.11.26_1241 (For EvS project version alignment) 
+ * @version 2026.10.19_0020 (For EvS project version alignment) 
  */
 public class EDCoW implements AbstractEDMethod {
     private final int delta; //6
@@ -47,7 +55,9 @@ public class EDCoW implements AbstractEDMethod {
     private final int gamma; //5
     private final double minTermSupport; //0.0001
     private final double maxTermSupport; //0.01
-    private HashMap<String, Integer[]> termDocMap;
+    private LinkedHashMap<Integer, int[]> termDocMap; //Frequencies of the supported terms, by term ID
+    private int[] termIds; //The keys of termDocMap, in order
+    private int[][] frequencies; //The values of termDocMap, in order
     private LinkedList<EDCoWEvent_> eventList;
     private final int timeSliceA;
     private final int timeSliceB;
@@ -55,6 +65,18 @@ public class EDCoW implements AbstractEDMethod {
     private final EDCoWCorpus corpus;
     public EDCoWEvents events;
     private long executionTime;
+    private ExecutorService executor; //Runs the windows concurrently, if set
+    private int signalThreads = 1;
+    private ForkJoinPool signalPool; //Computes the signals of a window, while apply() runs
+    private boolean useEJML = false; //Computes the correlations with EJML instead of tiles
+    private boolean useNormBounds = false; //Skips the correlations whose norm bound is below theta2
+    private int thresholdSketchCapacity = 0; //Approximates theta2 with a sketch, if positive
+    private boolean useLouvain = false; //Detects the communities with Louvain instead of jmod
+    private EDCoWSignalCache signalCache; //Reuses the signals of the windows across runs, if set
+    private EDCoWSimHash correlationCandidates; //Computes only the correlations of candidate pairs, if set
+    private boolean candidateReport = false; //Compares the candidate pairs with the exact path
+    private boolean useFloats = false; //Stores the signals and the correlations as floats
+    private boolean precisionReport = false; //Compares the float mode with the double path
     
     /**
      * Default constructor with minimum parameters. <br>
@@ -151,33 +173,71 @@ public class EDCoW implements AbstractEDMethod {
         double maxTermOccur = maxTermSupport * countCorpus; //Max support * Message count corpus
     
         int windows = (timeSliceB - timeSliceA) / delta2;
-        termDocMap = new HashMap<>();
+        termDocMap = new LinkedHashMap<>();
         eventList = new LinkedList<>();
         
         PrintUtilities.printInfoMessageln("Calculating term frequencies...");
-        List<String> terms = corpus.getTerms();
-        for(int i = 0; i < terms.size(); i++){
-            String term = terms.get(i);
-            if(term.length() > 1) { //Stopwords check removed as they are already ommitted when creating the dataset 
-                Integer[] frequency = corpus.getDocumentsTermFrequency(i);
-                int cf = 0;
-                for(int freq : frequency){
-                    cf += freq;
-                }
+        TermDictionary dictionary = corpus.getDictionary();
+        TermFrequencyIndex index = corpus.getTermFrequencyIndex();
+        int numberOfDocuments = index.getNumberOfDocuments();
+        //Single pass over the index; only the surviving terms are expanded
+        index.forEachRow((term, docIds, frequencies, from, to) -> {
+            if(dictionary.getTermLength(term) > 1) { //Stopwords check removed as they are already ommitted when creating the dataset 
+                int cf = index.getTermTotal(term);
                 if(cf > minTermOccur && cf < maxTermOccur){
+                    int[] frequency = new int[numberOfDocuments];
+                    for(int k = from; k < to; k++) {
+                        frequency[docIds[k]] = frequencies[k];
+                    }
                     termDocMap.put(term, frequency);
                 }
             }
+        });
+        termIds = new int[termDocMap.size()];
+        frequencies = new int[termDocMap.size()][];
+        int keyword = 0;
+        for(Map.Entry<Integer, int[]> entry : termDocMap.entrySet()) {
+            termIds[keyword] = entry.getKey();
+            frequencies[keyword++] = entry.getValue();
         }
+        signalPool = (signalThreads < 2) ? null : new ForkJoinPool(signalThreads);
         PrintUtilities.printInfoMessageln("Calculating windows...");
-        for(int i = 0; i < windows; i++) {
-            PrintUtilities.printInfoMessageln("Calculating window " + (i + 1) + "\n");
-            try {
-                processWindow(i);
-            } catch (Exception ex) {
-                Logger.getLogger(EDCoW.class.getName()).log(Level.SEVERE, null, ex);
+        if(executor == null) {
+            for(int i = 0; i < windows; i++) {
+                PrintUtilities.printInfoMessageln("Calculating window " + (i + 1) + "\n");
+                try {
+                    processWindow(i);
+                } catch (Exception ex) {
+                    Logger.getLogger(EDCoW.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+        } else {
+            //Windows only read the term frequencies, so they run concurrently
+            List<Future<LinkedList<EDCoWEvent_>>> windowEvents = new ArrayList<>(windows);
+            for(int i = 0; i < windows; i++) {
+                int window = i;
+                windowEvents.add(executor.submit(() -> {
+                    PrintUtilities.printInfoMessageln("Calculating window " + (window + 1) + "\n");
+                    return detectEvents(window);
+                }));
+            }
+            //Merge in window order, exactly as the sequential loop appends them
+            for(Future<LinkedList<EDCoWEvent_>> future : windowEvents) {
+                try {
+                    eventList.addAll(future.get());
+                } catch (ExecutionException ex) {
+                    Logger.getLogger(EDCoW.class.getName()).log(Level.SEVERE, null, ex.getCause());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    Logger.getLogger(EDCoW.class.getName()).log(Level.SEVERE, null, ex);
+                    break;
+                }
             }
         }
+        if(signalPool != null) {
+            signalPool.shutdown();
+            signalPool = null;
+        }
         Collections.sort(eventList);
         events = new EDCoWEvents();
         
@@ -188,9 +248,8 @@ public class EDCoW implements AbstractEDMethod {
                         corpus.getDateFromTimeSlice(
                                 (int)event.startSlice) + "," 
                                 + corpus.getDateFromTimeSlice((int)event.endSlice - 1), 
-                        corpus.getIDsOfWindowAsString(
-                                corpus.getDateFromTimeSlice((int)event.startSlice), 
-                                corpus.getDateFromTimeSlice((int)event.endSlice - 1))));
+                        corpus.getIDsOfWindow(
+                                (int)event.startSlice, (int)event.endSlice)));
         });
         
         events.setFullList();
@@ -208,7 +267,17 @@ public class EDCoW implements AbstractEDMethod {
      * @throws java.lang.Exception General Exception.
      */
     public void processWindow(int window) throws Exception {
-        LinkedList<EDCoWKeyword> keyWords = new LinkedList<>();
+        eventList.addAll(detectEvents(window));
+    }
+    
+    /**
+     * Detects the events of a specific window, without adding them to the
+     * event list. It is safe to call it concurrently for different windows.
+     * @param window The window index (0, 1, 2 etc).
+     * @return A LinkedList with the events of the window.
+     * @throws java.lang.Exception General Exception.
+     */
+    private LinkedList<EDCoWEvent_> detectEvents(int window) throws Exception {
         Integer[] distributioni = corpus.getNumberOfDocuments();
         double[] distributiond = new double[delta2];
         int startSlice = window * delta2;
@@ -216,55 +285,120 @@ public class EDCoW implements AbstractEDMethod {
         for(int i = startSlice; i < endSlice; i++){
             distributiond[i-startSlice] = (double) distributioni[i]; 
         }
-        termDocMap.entrySet().stream().forEach((entry) -> {
-            Integer frequencyf[] = entry.getValue();
-            double frequencyd[] = new double[delta2];
-            for(int i = startSlice; i < endSlice; i++){
-                frequencyd[i-startSlice] = (double) frequencyf[i];
-            }
-            keyWords.add(new EDCoWKeyword(entry.getKey(), frequencyd, delta, distributiond));
-        });
-        double[] autoCorrelationValues = new double[keyWords.size()];
-        for(int i = 0; i < keyWords.size(); i++){
-            autoCorrelationValues[i] = keyWords.get(i).getAutoCorrelation();
-        }
+        EDCoWSignalMatrix signals = (signalCache == null)
+                ? new EDCoWSignalMatrix(termIds, frequencies, distributiond,
+                        startSlice, endSlice, delta, signalPool, useFloats)
+                : signalCache.getSignals(termIds, frequencies, distributiond,
+                        startSlice, endSlice, delta, signalPool);
+        double[] autoCorrelationValues = signals.getAutoCorrelations();
         EDCoWThreshold th1 = new EDCoWThreshold();
         double theta1 = th1.theta1(autoCorrelationValues, gamma);
 
         // Removing trivial keywords based on theta1
-        LinkedList<EDCoWKeyword> keyWordsList1 = new LinkedList<>();
-        keyWords.stream().filter((k) -> (k.getAutoCorrelation() > theta1)).forEach((k) -> {
-            keyWordsList1.add(k);
-        });
-
-        keyWordsList1.stream().forEach((kw1) -> {
-            kw1.computeCrossCorrelation(keyWordsList1);
-        });
-
-        double[][] bigMatrix = new double[keyWordsList1.size()][keyWordsList1.size()];
-        for(int i=0; i < keyWordsList1.size(); i++){
-            bigMatrix[i] = keyWordsList1.get(i).getCrossCorrelation();
+        int[] keyWordsList1 = IntStream.range(0, signals.getNumberOfKeywords())
+                .filter((k) -> (autoCorrelationValues[k] > theta1)).toArray();
+        int[] termIdsList1 = new int[keyWordsList1.length];
+        for(int i = 0; i < keyWordsList1.length; i++) {
+            termIdsList1[i] = signals.getTermId(keyWordsList1[i]);
         }
 
-        //Compute theta2 using the BigMatrix
-        double theta2 = th1.theta2(bigMatrix, gamma);        
-        for(int i = 0; i < keyWordsList1.size(); i++){
-            for(int j = i+1; j < keyWordsList1.size(); j++){
-                bigMatrix[i][j] = (bigMatrix[i][j] < theta2) ? 0 : bigMatrix[i][j];
+        EDCoWCorrelationMatrix bigMatrix;
+        if(signalCache != null) {
+            bigMatrix = signalCache.getCorrelations(signals, keyWordsList1, startSlice,
+                    endSlice, delta, signalPool, useEJML, correlationCandidates);
+        } else if(useNormBounds && correlationCandidates == null) {
+            double[] autoCorrelationValues1 = new double[keyWordsList1.length];
+            for(int i = 0; i < keyWordsList1.length; i++) {
+                autoCorrelationValues1[i] = autoCorrelationValues[keyWordsList1[i]];
             }
+            bigMatrix = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keyWordsList1),
+                    autoCorrelationValues1, keyWordsList1.length, signals.getSignalLength(),
+                    signalPool);
+        } else if(correlationCandidates == null) {
+            bigMatrix = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keyWordsList1),
+                    keyWordsList1.length, signals.getSignalLength(), signalPool,
+                    useEJML, useFloats);
+        } else {
+            bigMatrix = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keyWordsList1),
+                    keyWordsList1.length, signals.getSignalLength(), signalPool,
+                    useEJML, correlationCandidates);
         }
+
+        //Compute theta2 using the correlations of the distinct pairs of keywords
+        double theta2 = th1.theta2(bigMatrix, gamma, thresholdSketchCapacity);
+        bigMatrix.filter(theta2);
         EDCoWModularityDetection modularity = new EDCoWModularityDetection(
-                keyWordsList1, bigMatrix, startSlice, endSlice);
+                termIdsList1, bigMatrix, startSlice, endSlice, corpus.getDictionary(),
+                useLouvain ? new EDCoWLouvain(signalPool) : null);
 
         double thresholdE = 0.1;
-        ArrayList<Community> finalArrCom = modularity.getCommunitiesFiltered(thresholdE);
-        finalArrCom.stream().map((c) -> {
-            System.out.println(c.getCommunitySize());
-            return c;
-            }).forEach((c) -> {
-                modularity.saveEventFromCommunity(c);
-            });
-        eventList.addAll(modularity.getEvents());
+        modularity.saveEvents(thresholdE);
+        if(candidateReport && correlationCandidates != null) {
+            PrintUtilities.printInfoMessageln("Window " + (window + 1) + " candidate pairs: "
+                    + compareWithExact(signals, keyWordsList1, termIdsList1, bigMatrix,
+                            modularity.getEvents(), startSlice, endSlice, thresholdE));
+        }
+        if(precisionReport && useFloats && signalCache == null) {
+            PrintUtilities.printInfoMessageln("Window " + (window + 1) + " float storage: "
+                    + compareWithDouble(signals, keyWordsList1, distributiond, startSlice, endSlice));
+        }
+        return modularity.getEvents();
+    }
+    
+    /**
+     * Runs the double path on the signals and the keywords of a window of
+     * the float mode, and compares their correlations, thresholds and edges.
+     * @return An EDCoWPrecisionReport object.
+     */
+    private EDCoWPrecisionReport compareWithDouble(EDCoWSignalMatrix signals, int[] keywords,
+            double[] distribution, int startSlice, int endSlice) {
+        EDCoWSignalMatrix exactSignals = new EDCoWSignalMatrix(termIds, frequencies, distribution,
+                startSlice, endSlice, delta, signalPool);
+        EDCoWThreshold threshold = new EDCoWThreshold();
+        double[] autoCorrelationValues = exactSignals.getAutoCorrelations();
+        double theta1 = threshold.theta1(autoCorrelationValues, gamma);
+        boolean[] passes = new boolean[autoCorrelationValues.length];
+        for(int keyword : keywords) {
+            passes[keyword] = true;
+        }
+        int differentKeywords = 0;
+        for(int k = 0; k < autoCorrelationValues.length; k++) {
+            differentKeywords += ((autoCorrelationValues[k] > theta1) != passes[k]) ? 1 : 0;
+        }
+        EDCoWCorrelationMatrix exact = new EDCoWCorrelationMatrix(exactSignals.getSW2Matrix(keywords),
+                keywords.length, signals.getSignalLength(), signalPool, useEJML);
+        EDCoWCorrelationMatrix approximate = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keywords),
+                keywords.length, signals.getSignalLength(), signalPool, useEJML, true);
+        return new EDCoWPrecisionReport(exact, approximate,
+                threshold.theta2(exact, gamma, thresholdSketchCapacity),
+                threshold.theta2(approximate, gamma, thresholdSketchCapacity), differentKeywords);
+    }
+    
+    /**
+     * Runs the exact path on the keywords of a window whose correlations were
+     * computed only for the candidate pairs, and compares their edges and
+     * communities.
+     * @return An EDCoWCandidateReport object.
+     */
+    private EDCoWCandidateReport compareWithExact(EDCoWSignalMatrix signals, int[] keywords,
+            int[] termIds, EDCoWCorrelationMatrix approximate, LinkedList<EDCoWEvent_> approximateEvents,
+            int startSlice, int endSlice, double thresholdE) throws Exception {
+        EDCoWCorrelationMatrix exact = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keywords),
+                keywords.length, signals.getSignalLength(), signalPool, useEJML);
+        exact.filter(new EDCoWThreshold().theta2(exact, gamma, thresholdSketchCapacity));
+        EDCoWModularityDetection modularity = new EDCoWModularityDetection(
+                termIds, exact, startSlice, endSlice, corpus.getDictionary(),
+                useLouvain ? new EDCoWLouvain(signalPool) : null);
+        modularity.saveEvents(thresholdE);
+        List<List<String>> exactKeywords = new ArrayList<>();
+        for(EDCoWEvent_ event : modularity.getEvents()) {
+            exactKeywords.add(event.keywords);
+        }
+        List<List<String>> approximateKeywords = new ArrayList<>();
+        for(EDCoWEvent_ event : approximateEvents) {
+            approximateKeywords.add(event.keywords);
+        }
+        return new EDCoWCandidateReport(exact, approximate, exactKeywords, approximateKeywords);
     }
     
     /**
@@ -273,4 +407,155 @@ public class EDCoW implements AbstractEDMethod {
      */
     @Override
     public final long getExecutionTime() { return executionTime; }
+    
+    /**
+     * Sets the executor that runs the windows of the algorithm concurrently.
+     * The events are merged in window order, so they are the same as those of
+     * a sequential run. The executor is not shut down by the algorithm.
+     * @param executor An ExecutorService object or null to run the windows
+     * sequentially, in the calling thread.
+     * @see #newWindowExecutor(int) newWindowExecutor() method.
+     */
+    public final void setExecutor(ExecutorService executor) { this.executor = executor; }
+    
+    /**
+     * Sets the number of threads that compute the signals of the keywords of
+     * every window. The signals are the same for any number of threads.
+     * @param threads The number of threads, e.g. {@link 
+     * com.left8.evs.utilities.Config#getSignalThreads() Config.getSignalThreads()}.
+     * Values lower than 2 compute the signals in the thread of the window.
+     */
+    public final void setSignalThreads(int threads) { this.signalThreads = threads; }
+    
+    /**
+     * Sets the engine that computes the cross correlations of the keywords of
+     * every window. The tiles of the upper triangle of the matrix are computed
+     * over the threads of {@link #setSignalThreads(int) setSignalThreads()},
+     * whereas EJML computes the full matrix in the thread of the window.
+     * @param useEJML True to use EJML, false to use the tiles (default), e.g.
+     * {@link com.left8.evs.utilities.Config#useEJMLCorrelations() 
+     * Config.useEJMLCorrelations()}.
+     */
+    public final void setUseEJML(boolean useEJML) { this.useEJML = useEJML; }
+    
+    /**
+     * Sets whether the cross correlations of every window skip the pairs of
+     * keywords whose bound, the product of the norms of their signals, shows
+     * that they cannot affect theta2 or pass it. The events are the same as
+     * those of the tiles. It has no effect with {@link 
+     * #setSignalCache(EDCoWSignalCache) setSignalCache()}, whose correlations
+     * are reused in full, or with {@link 
+     * #setCorrelationCandidates(EDCoWSimHash) setCorrelationCandidates()}.
+     * @param useNormBounds True to skip the pairs, false otherwise (default),
+     * e.g. {@link com.left8.evs.utilities.Config#useBoundedCorrelations() 
+     * Config.useBoundedCorrelations()}.
+     */
+    public final void setUseNormBounds(boolean useNormBounds) { this.useNormBounds = useNormBounds; }
+    
+    /**
+     * Sets how theta2 is computed over the cross correlations of every window.
+     * @param capacity The capacity of an {@link EDCoWQuantileSketch 
+     * EDCoWQuantileSketch} that approximates theta2 without copying the
+     * correlations, for huge windows, or 0 to compute it exactly (default),
+     * e.g. {@link com.left8.evs.utilities.Config#getThresholdSketchCapacity() 
+     * Config.getThresholdSketchCapacity()}.
+     */
+    public final void setThresholdSketchCapacity(int capacity) { this.thresholdSketchCapacity = capacity; }
+    
+    /**
+     * Sets the community detection of every window. Both run on the same
+     * keyword graph and their communities are filtered and saved as events in
+     * the same way, so their events can be compared side by side. Louvain
+     * moves the keywords over the threads of {@link #setSignalThreads(int) 
+     * setSignalThreads()}.
+     * @param useLouvain True to use {@link EDCoWLouvain EDCoWLouvain}, false
+     * to use jmod (default), e.g. {@link 
+     * com.left8.evs.utilities.Config#useLouvainCommunities() 
+     * Config.useLouvainCommunities()}.
+     */
+    public final void setUseLouvain(boolean useLouvain) { this.useLouvain = useLouvain; }
+    
+    /**
+     * Sets the cache of the signals and the cross correlations of the
+     * windows, which is shared by the runs of a sweep over the thresholds,
+     * e.g. over gamma, so that only the thresholds and the communities are
+     * computed again. The events are the same as those of a run without it.
+     * @param signalCache An {@link EDCoWSignalCache EDCoWSignalCache} object
+     * for the corpus of the algorithm or null to compute everything (default).
+     */
+    public final void setSignalCache(EDCoWSignalCache signalCache) { this.signalCache = signalCache; }
+    
+    /**
+     * Sets the approximate mode of the cross correlations of every window, in
+     * which only the candidate pairs of keywords that share a bucket of a
+     * SimHash band are computed; the other pairs get no edge.
+     * @param correlationCandidates An {@link EDCoWSimHash EDCoWSimHash}
+     * object, e.g. with {@link 
+     * com.left8.evs.utilities.Config#getCorrelationLSHBands() 
+     * Config.getCorrelationLSHBands()} bands, or null to compute all pairs
+     * (default).
+     */
+    public final void setCorrelationCandidates(EDCoWSimHash correlationCandidates) {
+        this.correlationCandidates = correlationCandidates;
+    }
+    
+    /**
+     * Sets whether every window of the approximate mode is also run on the
+     * exact correlations, printing an {@link EDCoWCandidateReport 
+     * EDCoWCandidateReport} of the edges and the communities of both. It
+     * doubles the cost of the correlations and the communities, so it is
+     * meant for tuning the candidate pairs.
+     * @param candidateReport True to print the reports, false otherwise
+     * (default), e.g. {@link 
+     * com.left8.evs.utilities.Config#reportCorrelationLSH() 
+     * Config.reportCorrelationLSH()}.
+     */
+    public final void setCandidateReport(boolean candidateReport) { this.candidateReport = candidateReport; }
+    
+    /**
+     * Sets whether the signals and the cross correlations of every window
+     * are stored as floats, which halves their memory, e.g. to fit windows
+     * with more keywords. They are still computed in double; the error
+     * bounds are those of {@link EDCoWPrecisionReport EDCoWPrecisionReport}.
+     * The signals of {@link #setSignalCache(EDCoWSignalCache) 
+     * setSignalCache()} and the correlations of {@link 
+     * #setUseNormBounds(boolean) setUseNormBounds()} and {@link 
+     * #setCorrelationCandidates(EDCoWSimHash) setCorrelationCandidates()}
+     * stay doubles.
+     * @param useFloats True to store floats, false to store doubles
+     * (default), e.g. {@link com.left8.evs.utilities.Config#useFloatStorage() 
+     * Config.useFloatStorage()}.
+     */
+    public final void setUseFloatStorage(boolean useFloats) { this.useFloats = useFloats; }
+    
+    /**
+     * Sets whether every window of the float mode is also run on the double
+     * path, printing an {@link EDCoWPrecisionReport EDCoWPrecisionReport} of
+     * the errors of its correlations, theta2 and edges. It doubles the cost
+     * of the signals and the correlations, so it is meant for verifying the
+     * float mode on a corpus.
+     * @param precisionReport True to print the reports, false otherwise
+     * (default), e.g. {@link 
+     * com.left8.evs.utilities.Config#reportStoragePrecision() 
+     * Config.reportStoragePrecision()}.
+     */
+    public final void setPrecisionReport(boolean precisionReport) { this.precisionReport = precisionReport; }
+    
+    /**
+     * Creates an executor for the windows of the algorithm.
+     * @param threads The number of threads, e.g. {@link 
+     * com.left8.evs.utilities.Config#getWindowThreads() Config.getWindowThreads()}.
+     * @return An ExecutorService object with daemon threads or null if the
+     * threads are less than 2.
+     */
+    public static ExecutorService newWindowExecutor(int threads) {
+        if(threads < 2) {
+            return null;
+        }
+        return Executors.newFixedThreadPool(threads, (task) -> {
+            Thread thread = new Thread(task, "EDCoW window");
+            thread.setDaemon(true); //An executor that is not shut down never blocks the exit
+            return thread;
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Comparison of the approximate (candidate pairs) and the exact cross
+ * correlations of the keywords of an EDCoW window, and of the communities
+ * that are detected on each of them. <br>
+ * The edge recall is the fraction of the keyword pairs that pass theta2 in
+ * the exact matrix that also pass it in the approximate one. Every exact
+ * community is matched to the approximate community with the highest
+ * Jaccard similarity of their keywords.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2340
+ */
+public class EDCoWCandidateReport {
+
+    private final int size;
+    private final long computedPairs;
+    private final long exactEdges;
+    private final long recalledEdges;
+    private final int exactCommunities;
+    private final int approximateCommunities;
+    private final int identicalCommunities;
+    private final double meanJaccard;
+
+    /**
+     * Public constructor.
+     * @param exact The exact correlations, filtered by their theta2.
+     * @param approximate The approximate correlations, filtered by their theta2.
+     * @param exactKeywords The keywords of every community of the exact
+     * correlations, e.g. of the events that were saved.
+     * @param approximateKeywords The keywords of every community of the
+     * approximate correlations.
+     */
+    public EDCoWCandidateReport(EDCoWCorrelationMatrix exact, EDCoWCorrelationMatrix approximate,
+            List<? extends Collection<String>> exactKeywords,
+            List<? extends Collection<String>> approximateKeywords) {
+        size = exact.size();
+        computedPairs = approximate.getNumberOfComputedPairs();
+        double[] exactTriangle = exact.getUpperTriangle();
+        double[] approximateTriangle = approximate.getUpperTriangle();
+        long edges = 0, recalled = 0;
+        for(int k = 0; k < exactTriangle.length; k++) {
+            if(exactTriangle[k] > 0) {
+                edges++;
+                recalled += (approximateTriangle[k] > 0) ? 1 : 0;
+            }
+        }
+        exactEdges = edges;
+        recalledEdges = recalled;
+        exactCommunities = exactKeywords.size();
+        approximateCommunities = approximateKeywords.size();
+        int identical = 0;
+        double jaccardSum = 0;
+        for(Collection<String> community : exactKeywords) {
+            Set<String> keywords = new HashSet<>(community);
+            double best = 0;
+            for(Collection<String> other : approximateKeywords) {
+                Set<String> otherKeywords = new HashSet<>(other);
+                int common = 0;
+                for(String keyword : otherKeywords) {
+                    common += keywords.contains(keyword) ? 1 : 0;
+                }
+                int union = keywords.size() + otherKeywords.size() - common;
+                best = Math.max(best, (union == 0) ? 1 : (double) common / union);
+            }
+            identical += (best == 1) ? 1 : 0;
+            jaccardSum += best;
+        }
+        identicalCommunities = identical;
+        meanJaccard = (exactCommunities == 0) ? 1 : jaccardSum / exactCommunities;
+    }
+
+    /**
+     * Returns the fraction of the pairs of keywords whose correlations were
+     * computed.
+     * @return A double in [0, 1].
+     */
+    public final double getComputedFraction() {
+        long pairs = (long) size * (size - 1) / 2;
+        return (pairs == 0) ? 1 : (double) computedPairs / pairs;
+    }
+
+    /**
+     * Returns the fraction of the exact edges that are kept by the
+     * approximate correlations.
+     * @return A double in [0, 1].
+     */
+    public final double getEdgeRecall() {
+        return (exactEdges == 0) ? 1 : (double) recalledEdges / exactEdges;
+    }
+
+    /**
+     * Returns the number of the exact communities that are also detected on
+     * the approximate correlations.
+     * @return An integer with the number of communities.
+     */
+    public final int getIdenticalCommunities() { return identicalCommunities; }
+
+    /**
+     * Returns the mean Jaccard similarity of every exact community with its
+     * best matching approximate community.
+     * @return A double in [0, 1], which is 1 if there are no exact communities.
+     */
+    public final double getMeanJaccard() { return meanJaccard; }
+
+    @Override
+    public String toString() {
+        return String.format("%d keywords, %d of %d pairs computed (%.1f%%), "
+                + "edge recall %.1f%% (%d of %d), communities %d exact / %d approximate, "
+                + "%d identical, mean best Jaccard %.3f", size, computedPairs,
+                (long) size * (size - 1) / 2, 100 * getComputedFraction(),
+                100 * getEdgeRecall(), recalledEdges, exactEdges, exactCommunities,
+                approximateCommunities, identicalCommunities, meanJaccard);
+    }
+}
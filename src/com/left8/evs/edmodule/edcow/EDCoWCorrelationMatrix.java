@@ -0,0 +1,641 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.ops.CommonOps;
+
+/**
+ * The cross correlations between the SW2 signals of the keywords of an EDCoW
+ * window. <br>
+ * The matrix is symmetric, so only its upper triangle (without the diagonal)
+ * is computed and stored, row after row: the correlations of keyword 'i'
+ * with the keywords i + 1, ..., size - 1 are contiguous. The triangle is
+ * split in square tiles of TILE_SIZE x TILE_SIZE keywords, so the signals of
+ * a tile stay in the cache while it is computed, and the tiles are
+ * processed over a fork/join pool. Alternatively, the Gram product of the
+ * signals can be delegated to EJML, which builds the full matrix in the
+ * calling thread. The values are the same as those of
+ * {@link EDCoWCrossCorrelationZeroTime#correlationZeroTime(double[], double[])
+ * EDCoWCrossCorrelationZeroTime.correlationZeroTime()}. In the approximate
+ * mode, only the candidate pairs of an {@link EDCoWSimHash EDCoWSimHash}
+ * are computed, row by row, and the correlations of the other pairs are 0.
+ * As the candidates are the most correlated pairs, theta2 is then computed
+ * over a uniform sample of pairs, instead of over the upper triangle. In the
+ * bounded mode, which is exact, the correlation of two keywords is not
+ * computed while the product of the norms of their signals, i.e. of the
+ * square roots of their auto correlations, is below a threshold: the
+ * keywords are sorted by norm, so every row stops at the first column whose
+ * bound is below it. The remaining pairs are computed on demand by {@link
+ * EDCoWThreshold#theta2(EDCoWCorrelationMatrix, double, int)
+ * EDCoWThreshold.theta2()}, only if the exact theta2 needs them. In the
+ * float mode, the tiles are still accumulated in double, but the triangle is
+ * stored as floats, which halves its memory. Every stored correlation is
+ * then within a relative error of 2^-24 of its double value.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class EDCoWCorrelationMatrix {
+
+    private static final int TILE_SIZE = 64; //Keywords per side of a tile
+    private static final int TILES_PER_TASK = 4;
+    private static final int ROWS_PER_TASK = 64; //Keywords per fork/join task of the approximate mode
+    private static final int SAMPLE_SIZE = 1 << 16; //Pairs of the theta2 sample of the approximate mode
+    private static final int BOUND_SAMPLE_SIZE = 1 << 12; //Pairs of the sample of the bounded mode
+    private static final double BOUND_SLACK = 1 + 1e-9; //Covers the rounding of the norms and the dot products
+
+    private final int size;
+    private final double[] correlations; //Null in the float mode
+    private final float[] floatCorrelations; //Null unless in the float mode
+    private long computedPairs;
+    private double[] thresholdSample; //Null in the exact mode
+    private Bounds bounds; //Null unless in the bounded mode
+
+    /**
+     * Public constructor. It computes the correlations between the rows of a
+     * signal matrix.
+     * @param signals The SW2 signals, row after row, e.g. from
+     * {@link EDCoWSignalMatrix#getSW2Matrix(int[]) EDCoWSignalMatrix.getSW2Matrix()}.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @param pool A ForkJoinPool object or null to compute the tiles in the
+     * calling thread.
+     * @param useEJML True to compute the Gram product with EJML, false to
+     * compute the tiles.
+     */
+    public EDCoWCorrelationMatrix(double[] signals, int size, int signalLength,
+            ForkJoinPool pool, boolean useEJML) {
+        this(signals, size, signalLength, pool, useEJML, null);
+    }
+
+    /**
+     * Public constructor, which can compute only the candidate pairs of
+     * keywords.
+     * @param signals The SW2 signals, row after row.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @param pool A ForkJoinPool object or null to compute the correlations
+     * in the calling thread.
+     * @param useEJML True to compute the Gram product with EJML, false to
+     * compute the tiles. It is ignored in the approximate mode.
+     * @param candidates An EDCoWSimHash object that selects the pairs to be
+     * computed or null to compute all pairs.
+     */
+    public EDCoWCorrelationMatrix(double[] signals, int size, int signalLength,
+            ForkJoinPool pool, boolean useEJML, EDCoWSimHash candidates) {
+        this(signals, size, signalLength, pool, useEJML, candidates, false);
+    }
+
+    /**
+     * Public constructor, which can store the correlations as floats.
+     * @param signals The SW2 signals, row after row.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @param pool A ForkJoinPool object or null to compute the tiles in the
+     * calling thread.
+     * @param useEJML True to compute the Gram product with EJML, false to
+     * compute the tiles.
+     * @param useFloats True to store the upper triangle as floats, false to
+     * store it as doubles.
+     */
+    public EDCoWCorrelationMatrix(double[] signals, int size, int signalLength,
+            ForkJoinPool pool, boolean useEJML, boolean useFloats) {
+        this(signals, size, signalLength, pool, useEJML, null, useFloats);
+    }
+
+    private EDCoWCorrelationMatrix(double[] signals, int size, int signalLength,
+            ForkJoinPool pool, boolean useEJML, EDCoWSimHash candidates, boolean useFloats) {
+        this.size = size;
+        int pairs = (int) ((long) size * (size - 1) / 2);
+        correlations = useFloats ? null : new double[pairs];
+        floatCorrelations = useFloats ? new float[pairs] : null;
+        computedPairs = pairs;
+        if(candidates != null) {
+            CandidateTask task = new CandidateTask(signals, signalLength,
+                    candidates.hash(signals, size, signalLength), 0, size);
+            computedPairs = (pool == null) ? task.compute() : pool.invoke(task);
+            thresholdSample = sample(signals, size, signalLength, SAMPLE_SIZE);
+        } else if(useEJML) {
+            DenseMatrix64F gram = new DenseMatrix64F(size, size);
+            CommonOps.multOuter(DenseMatrix64F.wrap(size, signalLength, signals), gram);
+            for(int i = 0, k = 0; i < size; i++) {
+                for(int j = i + 1; j < size; j++) {
+                    double sum = gram.data[i * size + j];
+                    store(k++, (sum < 0.00001) ? 0 : sum);
+                }
+            }
+        } else {
+            computeTiles(signals, signalLength, pool);
+        }
+    }
+
+    private void computeTiles(double[] signals, int signalLength, ForkJoinPool pool) {
+        int tiles = (size + TILE_SIZE - 1) / TILE_SIZE;
+        TileTask task = new TileTask(signals, signalLength, tiles, 0, tiles * (tiles + 1) / 2);
+        if(pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    /**
+     * Constructor that keeps the upper triangle of a full correlation matrix.
+     * @param matrix A square matrix.
+     */
+    public EDCoWCorrelationMatrix(double[][] matrix) {
+        size = matrix.length;
+        correlations = new double[(int) ((long) size * (size - 1) / 2)];
+        floatCorrelations = null;
+        for(int i = 0, k = 0; i < size; i++) {
+            for(int j = i + 1; j < size; j++) {
+                correlations[k++] = matrix[i][j];
+            }
+        }
+        computedPairs = correlations.length;
+    }
+
+    /**
+     * Public constructor of the bounded mode. It computes the correlations of
+     * the pairs of keywords whose norm bound is at least the median minus
+     * twice the MAD of a sample of pairs, which is below theta2 for any
+     * gamma, and leaves the other pairs to {@link 
+     * EDCoWThreshold#theta2(EDCoWCorrelationMatrix, double, int)
+     * EDCoWThreshold.theta2()}. Small matrices are computed in full.
+     * @param signals The SW2 signals, row after row.
+     * @param autoCorrelations The auto correlation of every signal, e.g. from
+     * {@link EDCoWSignalMatrix#getAutoCorrelations() 
+     * EDCoWSignalMatrix.getAutoCorrelations()}.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @param pool A ForkJoinPool object or null to compute the correlations
+     * in the calling thread.
+     */
+    public EDCoWCorrelationMatrix(double[] signals, double[] autoCorrelations, int size,
+            int signalLength, ForkJoinPool pool) {
+        this.size = size;
+        correlations = new double[(int) ((long) size * (size - 1) / 2)];
+        floatCorrelations = null;
+        computedPairs = correlations.length;
+        if(correlations.length <= BOUND_SAMPLE_SIZE) {
+            computeTiles(signals, signalLength, pool);
+            return;
+        }
+        double[] sample = sample(signals, size, signalLength, BOUND_SAMPLE_SIZE);
+        double medianValue = EDCoWThreshold.median(sample, 0, sample.length);
+        double deviation = EDCoWThreshold.mad(sample, 0, sample.length, medianValue);
+        bounds = new Bounds(signals, signalLength, autoCorrelations, pool);
+        bounds.computeAbove(medianValue - 2 * deviation);
+    }
+
+    /**
+     * Constructor of a matrix whose upper triangle is already computed, e.g.
+     * by an {@link EDCoWSignalCache EDCoWSignalCache}.
+     * @param size The number of keywords.
+     * @param correlations The upper triangle, row after row.
+     */
+    EDCoWCorrelationMatrix(int size, double[] correlations) {
+        this(size, correlations, null);
+    }
+
+    /**
+     * Constructor of an approximate matrix whose upper triangle is already
+     * computed, e.g. by an {@link EDCoWSignalCache EDCoWSignalCache}.
+     * @param size The number of keywords.
+     * @param correlations The upper triangle, row after row.
+     * @param thresholdSample The correlations of a sample of pairs, as
+     * returned by {@link #sample(double[], int, int) sample()}, or null for
+     * an exact matrix.
+     */
+    EDCoWCorrelationMatrix(int size, double[] correlations, double[] thresholdSample) {
+        this.size = size;
+        this.correlations = correlations;
+        this.floatCorrelations = null;
+        this.thresholdSample = thresholdSample;
+    }
+
+    /**
+     * Computes the correlations of a uniform sample of the pairs of keywords,
+     * or of all pairs if they are at most SAMPLE_SIZE. The sample is the same
+     * for the same signals.
+     * @param signals The SW2 signals, row after row.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @return A double array with the correlations.
+     */
+    static double[] sample(double[] signals, int size, int signalLength) {
+        return sample(signals, size, signalLength, SAMPLE_SIZE);
+    }
+
+    private static double[] sample(double[] signals, int size, int signalLength, int sampleSize) {
+        long pairs = (long) size * (size - 1) / 2;
+        double[] values = new double[(int) Math.min(pairs, sampleSize)];
+        Random random = new Random(size);
+        for(int s = 0, i = 0, j = 1; s < values.length; s++) {
+            if(pairs > sampleSize) {
+                i = random.nextInt(size);
+                j = random.nextInt(size - 1);
+                j += (j >= i) ? 1 : 0;
+            } else if(j == size) {
+                i++;
+                j = i + 1;
+            }
+            int a = i * signalLength;
+            int b = j * signalLength;
+            double sum = EDCoWSignalKernels.get().dot(signals, a, signals, b, signalLength);
+            values[s] = (sum < 0.00001) ? 0 : sum;
+            j++;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the index of the correlation between keywords i and j, i &lt; j,
+     * in the upper triangle.
+     */
+    private int index(int i, int j) {
+        return (int) ((long) i * (2 * size - i - 1) / 2) + (j - i - 1);
+    }
+
+    /**
+     * Returns the number of keywords.
+     * @return An integer with the number of rows of the matrix.
+     */
+    public final int size() { return size; }
+
+    /**
+     * Returns the correlation between two different keywords.
+     * @param i The index of the first keyword.
+     * @param j The index of the second keyword.
+     * @return A double with the correlation.
+     */
+    public final double get(int i, int j) {
+        return getPair((i < j) ? index(i, j) : index(j, i));
+    }
+
+    /**
+     * Returns a correlation of the upper triangle, in either storage mode.
+     * @param k The index of the pair in the upper triangle, row after row.
+     * @return A double with the correlation.
+     */
+    public final double getPair(int k) {
+        return (floatCorrelations == null) ? correlations[k] : floatCorrelations[k];
+    }
+
+    /**
+     * Stores a correlation of the upper triangle, rounding it to a float in
+     * the float mode.
+     */
+    private void store(int k, double value) {
+        if(floatCorrelations == null) {
+            correlations[k] = value;
+        } else {
+            floatCorrelations[k] = (float) value;
+        }
+    }
+
+    /**
+     * Returns the number of pairs of keywords whose correlations were
+     * computed.
+     * @return A long with size * (size - 1) / 2 pairs, the number of
+     * candidate pairs in the approximate mode, the number of pairs above the
+     * bound in the bounded mode or 0 if the correlations were copied, e.g.
+     * by an EDCoWSignalCache.
+     */
+    public final long getNumberOfComputedPairs() { return computedPairs; }
+
+    /**
+     * Returns the correlations over which theta2 is computed in the
+     * approximate mode. The array must not be modified.
+     * @return A double array with the correlations of a uniform sample of
+     * pairs or null in the exact mode, where theta2 is computed over the
+     * upper triangle.
+     */
+    public final double[] getThresholdSample() { return thresholdSample; }
+
+    /**
+     * Returns the number of pairs of keywords of the bounded mode whose
+     * correlations are not computed yet, apart from those whose norm bound
+     * shows that they are 0.
+     * @return A long with the number of pairs, which is 0 in the other modes.
+     */
+    public final long getUnknownPairs() { return (bounds == null) ? 0 : bounds.unknownPairs; }
+
+    /**
+     * Returns the bound below which the correlations of the bounded mode are
+     * not computed yet.
+     * @return A double with the threshold; every pair that is not computed
+     * has a lower correlation.
+     */
+    public final double getPruningThreshold() { return (bounds == null) ? 0 : bounds.threshold; }
+
+    /**
+     * Computes the pairs of keywords of the bounded mode whose norm bound is
+     * at least a threshold, if they are not computed yet.
+     * @param threshold The threshold, e.g. theta2, or 0 to compute all pairs.
+     */
+    public final void computeAbove(double threshold) {
+        if(bounds != null) {
+            bounds.computeAbove(threshold);
+        }
+    }
+
+    /**
+     * Returns the upper triangle of the matrix, row after row.
+     * @return A double array with size * (size - 1) / 2 values or null in
+     * the float mode.
+     * @see #getPair(int) getPair() method.
+     */
+    public final double[] getUpperTriangle() { return correlations; }
+
+    /**
+     * Returns the upper triangle of the matrix in the float mode, row after
+     * row. The array must not be modified.
+     * @return A float array with size * (size - 1) / 2 values or null in the
+     * other modes.
+     */
+    public final float[] getFloatUpperTriangle() { return floatCorrelations; }
+
+    /**
+     * Sets the correlations that are lower than a threshold to 0.
+     * @param threshold The threshold, e.g. theta2.
+     */
+    public final void filter(double threshold) {
+        if(floatCorrelations != null) {
+            for(int k = 0; k < floatCorrelations.length; k++) {
+                floatCorrelations[k] = (floatCorrelations[k] < threshold) ? 0 : floatCorrelations[k];
+            }
+            return;
+        }
+        for(int k = 0; k < correlations.length; k++) {
+            correlations[k] = (correlations[k] < threshold) ? 0 : correlations[k];
+        }
+    }
+
+    /**
+     * Fork/join task that computes a range of tiles of the upper triangle, by
+     * splitting it in halves. Tile 't' is the t-th tile of the triangle, row
+     * of tiles after row of tiles.
+     */
+    private class TileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] signals;
+        private final int signalLength;
+        private final int tiles;
+        private final int from;
+        private final int to;
+
+        TileTask(double[] signals, int signalLength, int tiles, int from, int to) {
+            this.signals = signals;
+            this.signalLength = signalLength;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= TILES_PER_TASK) {
+                int rowTile = 0;
+                int firstOfRow = 0; //The first tile of the row of tiles
+                while(firstOfRow + tiles - rowTile <= from) {
+                    firstOfRow += tiles - rowTile;
+                    rowTile++;
+                }
+                for(int t = from; t < to; t++) {
+                    if(t == firstOfRow + tiles - rowTile) {
+                        firstOfRow = t;
+                        rowTile++;
+                    }
+                    computeTile(rowTile, rowTile + t - firstOfRow);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(signals, signalLength, tiles, from, middle),
+                        new TileTask(signals, signalLength, tiles, middle, to));
+            }
+        }
+
+        /**
+         * Computes the correlations of the keywords of a row tile with those
+         * of a column tile.
+         */
+        private void computeTile(int rowTile, int columnTile) {
+            int rowEnd = Math.min(size, (rowTile + 1) * TILE_SIZE);
+            int columnEnd = Math.min(size, (columnTile + 1) * TILE_SIZE);
+            for(int i = rowTile * TILE_SIZE; i < rowEnd; i++) {
+                int columnStart = Math.max(i + 1, columnTile * TILE_SIZE);
+                int a = i * signalLength;
+                for(int j = columnStart, k = (columnStart < columnEnd) ? index(i, columnStart) : 0;
+                        j < columnEnd; j++, k++) {
+                    int b = j * signalLength;
+                    double sum = EDCoWSignalKernels.get().dot(signals, a, signals, b, signalLength);
+                    store(k, (sum < 0.00001) ? 0 : sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * The keywords of the bounded mode, sorted by the norms of their signals,
+     * and the columns of every sorted row that are computed.
+     */
+    private class Bounds {
+
+        private final double[] signals;
+        private final int signalLength;
+        private final ForkJoinPool pool;
+        private final int[] order; //Keywords by descending norm
+        private final double[] norms; //In the order of the keywords of order
+        private final int[] limits; //The first column of every row that is not computed
+        private final int[] zeroLimits; //The first column of every row whose bound shows a 0
+        private double threshold = Double.POSITIVE_INFINITY;
+        private long unknownPairs;
+
+        Bounds(double[] signals, int signalLength, double[] autoCorrelations, ForkJoinPool pool) {
+            this.signals = signals;
+            this.signalLength = signalLength;
+            this.pool = pool;
+            Integer[] sorted = new Integer[size];
+            double[] keywordNorms = new double[size];
+            for(int i = 0; i < size; i++) {
+                sorted[i] = i;
+                //Auto correlations below 0.00001 are reported as 0
+                keywordNorms[i] = Math.sqrt(Math.max(autoCorrelations[i], 0.00001));
+            }
+            Arrays.sort(sorted, (a, b) -> Double.compare(keywordNorms[b], keywordNorms[a]));
+            order = new int[size];
+            norms = new double[size];
+            limits = new int[size];
+            zeroLimits = new int[size];
+            for(int r = 0; r < size; r++) {
+                order[r] = sorted[r];
+                norms[r] = keywordNorms[sorted[r]];
+                limits[r] = r + 1;
+            }
+            for(int r = 0; r < size; r++) {
+                //Correlations below 0.00001 are set to 0, so they need not be computed
+                int low = r + 1, high = size;
+                while(low < high) {
+                    int middle = (low + high) >>> 1;
+                    if(covers(norms[r] * norms[middle], 0.00001)) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                zeroLimits[r] = low;
+            }
+        }
+
+        private boolean covers(double bound, double value) {
+            return bound * BOUND_SLACK >= value;
+        }
+
+        /**
+         * Computes the pairs whose bound is at least a threshold.
+         */
+        void computeAbove(double newThreshold) {
+            if(newThreshold >= threshold) {
+                return;
+            }
+            threshold = newThreshold;
+            BoundTask task = new BoundTask(this, 0, size);
+            if(pool == null) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+            long unknown = 0, computed = 0;
+            for(int r = 0; r < size; r++) {
+                unknown += zeroLimits[r] - limits[r];
+                computed += limits[r] - (r + 1);
+            }
+            unknownPairs = unknown;
+            computedPairs = computed;
+        }
+
+        /**
+         * Extends the computed columns of the rows [from, to).
+         */
+        void computeRows(int from, int to) {
+            for(int r = from; r < to; r++) {
+                int i = order[r];
+                int a = i * signalLength;
+                int c = limits[r];
+                //The norms decrease along the row, so it stops at the first bound below the threshold
+                for(; c < zeroLimits[r] && covers(norms[r] * norms[c], threshold); c++) {
+                    int j = order[c];
+                    int b = j * signalLength;
+                    double sum = EDCoWSignalKernels.get().dot(signals, a, signals, b, signalLength);
+                    correlations[(i < j) ? index(i, j) : index(j, i)] = (sum < 0.00001) ? 0 : sum;
+                }
+                limits[r] = c;
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that extends the computed columns of a range of rows of
+     * the bounded mode, by splitting it in halves.
+     */
+    private static class BoundTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Bounds bounds;
+        private final int from;
+        private final int to;
+
+        BoundTask(Bounds bounds, int from, int to) {
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= ROWS_PER_TASK) {
+                bounds.computeRows(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BoundTask(bounds, from, middle), new BoundTask(bounds, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that computes the correlations of a range of keywords
+     * with their candidates, by splitting it in halves.
+     */
+    private class CandidateTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final double[] signals;
+        private final int signalLength;
+        private final EDCoWSimHash.Buckets buckets;
+        private final int from;
+        private final int to;
+
+        CandidateTask(double[] signals, int signalLength, EDCoWSimHash.Buckets buckets,
+                int from, int to) {
+            this.signals = signals;
+            this.signalLength = signalLength;
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if(to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                CandidateTask right = new CandidateTask(signals, signalLength, buckets, middle, to);
+                right.fork();
+                long left = new CandidateTask(signals, signalLength, buckets, from, middle).compute();
+                return left + right.join();
+            }
+            int[] stamps = new int[size];
+            Arrays.fill(stamps, -1);
+            int[] candidates = new int[size];
+            long pairs = 0;
+            for(int i = from; i < to; i++) {
+                int count = buckets.candidates(i, stamps, candidates);
+                int a = i * signalLength;
+                int rowStart = index(i, i + 1) - (i + 1);
+                for(int c = 0; c < count; c++) {
+                    int j = candidates[c];
+                    int b = j * signalLength;
+                    double sum = EDCoWSignalKernels.get().dot(signals, a, signals, b, signalLength);
+                    correlations[rowStart + j] = (sum < 0.00001) ? 0 : sum;
+                }
+                pairs += count;
+            }
+            return pairs;
+        }
+    }
+}
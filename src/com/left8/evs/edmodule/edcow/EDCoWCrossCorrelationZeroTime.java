@@ -43,22 +43,32 @@ import com.left8.evs.utilities.PrintUtilities;
  *      @author siniwitt
  * 
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1250
+ * @version 2026.10.19_0010
  */
 public class EDCoWCrossCorrelationZeroTime {       	
 	
     public double autoCorrelationZeroTime(double[] sign){
-        double sum = 0.0;
-        for(double x:sign)sum += Math.pow(x, 2); 
+        double sum = EDCoWSignalKernels.get().sumOfSquares(sign, 0, sign.length);
+        return (sum<0.00001)?0:sum;
+    }
+
+    /**
+     * Auto correlation of the signal sign[from, to), e.g. of a row of an
+     * {@link EDCoWSignalMatrix EDCoWSignalMatrix}.
+     * @param sign The array of the signal.
+     * @param from The first value of the signal (inclusive).
+     * @param to The last value of the signal (exclusive).
+     * @return The auto correlation or 0 if it is negligible.
+     */
+    public double autoCorrelationZeroTime(double[] sign, int from, int to){
+        double sum = EDCoWSignalKernels.get().sumOfSquares(sign, from, to);
         return (sum<0.00001)?0:sum;
     }
 
     public double correlationZeroTime(double[] sign1, double[] sign2){
         double sum = 0.0;
         if(sign1.length == sign2.length) {
-            for(int i=0; i < sign1.length; i++) {
-                sum += (sign1[i] * sign2[i]);
-            }
+            sum = EDCoWSignalKernels.get().dot(sign1, 0, sign2, 0, sign1.length);
         }
         else {
             PrintUtilities.printWarningMessageln("The length of sign1 and sign2 is not the same.");
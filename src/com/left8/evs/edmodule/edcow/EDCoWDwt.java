@@ -53,6 +53,12 @@ public class EDCoWDwt {
 	WaveletInterface wI;
 	DiscreteWaveletTransform dwt;		
 	
+	// Taps of Haar02, as applied by a single step of DiscreteWaveletTransform.forward()
+	private static final double[] TAPS0 = new DiscreteWaveletTransform(new Haar02(), 1).forward(new double[] {1, 0});
+	private static final double[] TAPS1 = new DiscreteWaveletTransform(new Haar02(), 1).forward(new double[] {0, 1});
+	private static final double SCALE0 = TAPS0[0], COEFF0 = TAPS0[1];
+	private static final double SCALE1 = TAPS1[0], COEFF1 = TAPS1[1];
+	
 	EDCoWDwt(double[] signal1,int level1){    					
 		signal = signal1;
 		level = level1;
@@ -127,6 +133,123 @@ public class EDCoWDwt {
             hMeasure = shannonEntropy / swemax;
 	}
 	
+	/**
+	 * Allocation-free version of hMeasure(): the segment signal[from, from + length)
+	 * is transformed in caller-supplied buffers, instead of a new EDCoWDwt object.
+	 * @param signal The signal.
+	 * @param from The first value of the segment.
+	 * @param length The length of the segment.
+	 * @param level The level of the transformation.
+	 * @param buffer A buffer of at least length values; it holds the coefficients afterwards.
+	 * @param scratch A second buffer of at least length values.
+	 * @return The H-measure of the segment.
+	 */
+	public static double hMeasure(double[] signal, int from, int length, int level,
+			double[] buffer, double[] scratch) {
+		System.arraycopy(signal, from, buffer, 0, length);
+		forward(buffer, length, level, scratch);
+		return hMeasure(buffer, length, level);
+	}
+	
+	/**
+	 * Haar02 transformation of buffer[0, length) in place, as
+	 * DiscreteWaveletTransform.forward() computes it. Like jWave, the last
+	 * value of a step with an odd length is set to 0.
+	 * @param buffer The signal, which is replaced by its coefficients.
+	 * @param length The length of the signal.
+	 * @param level The level of the transformation.
+	 * @param scratch A buffer of at least length values.
+	 */
+	public static void forward(double[] buffer, int length, int level, double[] scratch) {
+		for(int h = length, l = 0; h >= 2 && l < level; h = h >> 1, l++) {
+			int half = h >> 1;
+			for(int i = 0; i < half; i++) {
+				double x0 = buffer[i << 1];
+				double x1 = buffer[(i << 1) + 1];
+				scratch[i] = x0 * SCALE0 + x1 * SCALE1;
+				scratch[i + half] = x0 * COEFF0 + x1 * COEFF1;
+			}
+			if((h & 1) == 1) {
+				scratch[h - 1] = 0;
+			}
+			System.arraycopy(scratch, 0, buffer, 0, h);
+		}
+	}
+	
+	/**
+	 * H-measure of the coefficients of a transformed signal, as probaVector(),
+	 * shannonEntropy() and hMeasure() compute it, without extracting the
+	 * coefficients of every level.
+	 * @param coefficients The coefficients, e.g. from forward().
+	 * @param length The length of the signal.
+	 * @param level The level of the transformation.
+	 * @return The H-measure.
+	 */
+	public static double hMeasure(double[] coefficients, int length, int level) {
+		return hMeasure(coefficients, length, level, null);
+	}
+	
+	/**
+	 * Same as hMeasure(coefficients, length, level), for the norms of the
+	 * levels, which may be known in advance.
+	 * @param coefficients The coefficients of the levels without a norm.
+	 * @param length The length of the signal.
+	 * @param level The level of the transformation.
+	 * @param norms The norm of every level (norms[0] for level 1) or
+	 * NaN for the levels whose norm is computed from the coefficients; null
+	 * if no norm is known.
+	 * @return The H-measure.
+	 */
+	public static double hMeasure(double[] coefficients, int length, int level, double[] norms) {
+		if(norms != null) {
+			for(int i = 0; i < level; i++) {
+				if(Double.isNaN(norms[i])) {
+					norms[i] = norm(coefficients, length, i + 1);
+				}
+			}
+		}
+		double sSquare = 0;
+		for(int i = 0; i < level; i++) {
+			sSquare = sSquare + Math.pow((norms == null) ? norm(coefficients, length, i + 1) : norms[i], 2);
+		}
+		double entropy = 0;
+		for(int i = 0; i < level; i++) {
+			double x = (sSquare == 0) ? 0 : Math.pow((norms == null) ? norm(coefficients, length, i + 1) : norms[i], 2) / sSquare;
+			entropy = entropy - (x * (Math.log(x) / Math.log(2)));
+		}
+		return entropy / (Math.log(level) / Math.log(2));
+	}
+	
+	/**
+	 * Norm of the coefficients of a level, rounded to float as EDCoWVector.getNorm() does.
+	 */
+	private static double norm(double[] coefficients, int length, int atLev) {
+		int rightPart = 0;
+		for (int i = 1; i <= atLev; i++) {
+			rightPart = rightPart + (length >> i);
+		}
+		int beginIndice = length - rightPart;
+		return (float) Math.sqrt(energy(coefficients, beginIndice, beginIndice + (length >> atLev), 0));
+	}
+	
+	/**
+	 * Sum of the squares of coefficients[from, to), rounded to float after
+	 * every addition as EDCoWVector.norm() does. Continuing from the sum of a
+	 * previous range gives the sum of both ranges.
+	 * @param coefficients The coefficients.
+	 * @param from The first coefficient (inclusive).
+	 * @param to The last coefficient (exclusive).
+	 * @param start The sum of the previous range or 0.
+	 * @return The sum; its square root is the norm of the coefficients.
+	 */
+	public static double energy(double[] coefficients, int from, int to, double start) {
+		double norm = start;
+		for(int i = from; i < to; i++) {
+			norm = (float) (norm + Math.pow(coefficients[i], 2));
+		}
+		return norm;
+	}
+	
 	public int getLevel() {
 		return level;
 	}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Random;
+
+import com.left8.evs.utilities.PrintUtilities;
+
+/**
+ * Benchmark of the scalar and the lane {@link EDCoWSignalKernels 
+ * EDCoWSignalKernels} over typical signal lengths. SW2 signals have
+ * delta2 / delta - 1 values, e.g. 1 to 64, and SW1 signals have delta2
+ * values, e.g. 16 to 1024. Every kernel is warmed up before it is timed and
+ * the relative difference of the sums of the two kernels is reported too.
+ * It can be run with
+ * java -cp EvS.jar com.left8.evs.edmodule.edcow.EDCoWKernelBenchmark [lengths...]
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0040
+ */
+public class EDCoWKernelBenchmark {
+
+    private static final int[] DEFAULT_LENGTHS = {4, 16, 64, 256, 1024};
+    private static final int VALUES = 1 << 15; //Fits in the L2 cache, so the kernels are timed, not the memory
+    private static final int REPEATS = 64; //Passes over the values per timed run
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        int[] lengths = DEFAULT_LENGTHS;
+        if(args.length != 0) {
+            lengths = new int[args.length];
+            for(int i = 0; i < args.length; i++) {
+                lengths[i] = Integer.parseInt(args[i]);
+            }
+        }
+        EDCoWSignalKernels scalar = EDCoWSignalKernels.forName("scalar");
+        EDCoWSignalKernels lanes = EDCoWSignalKernels.forName("lanes");
+        for(int length : lengths) {
+            int signals = Math.max(2, VALUES / length);
+            double[] values = new double[signals * length];
+            double[] nt = new double[signals * length];
+            Random random = new Random(length);
+            for(int i = 0; i < values.length; i++) {
+                values[i] = random.nextDouble();
+                nt[i] = random.nextInt(100);
+            }
+            for(EDCoWSignalKernels kernels : new EDCoWSignalKernels[] {scalar, lanes}) {
+                PrintUtilities.printInfoMessageln(String.format("%-6s length %5d: dot %6.2f ns, "
+                        + "sum of squares %6.2f ns, sw1 %6.2f ns per value", kernels.getName(), length,
+                        time(kernels, 0, values, nt, signals, length),
+                        time(kernels, 1, values, nt, signals, length),
+                        time(kernels, 2, values, nt, signals, length)));
+            }
+            double difference = 0;
+            for(int s = 0; s + 1 < signals; s++) {
+                double exact = scalar.dot(values, s * length, values, (s + 1) * length, length);
+                double approximate = lanes.dot(values, s * length, values, (s + 1) * length, length);
+                difference = Math.max(difference, Math.abs(approximate - exact) / exact);
+            }
+            PrintUtilities.printInfoMessageln(String.format("Max relative difference of the dot "
+                    + "products of length %d: %.3g", length, difference));
+        }
+    }
+
+    /**
+     * Returns the best time per value of a kernel over a few runs, after a
+     * warm up.
+     */
+    private static double time(EDCoWSignalKernels kernels, int kernel, double[] values,
+            double[] nt, int signals, int length) {
+        double[] nwt = new double[length];
+        double[] ntRow = new double[length];
+        System.arraycopy(values, 0, nwt, 0, length);
+        System.arraycopy(nt, 0, ntRow, 0, length);
+        double[] sw = new double[length];
+        double best = Double.POSITIVE_INFINITY;
+        double sink = 0;
+        for(int run = -RUNS; run < RUNS; run++) { //The first runs warm up the kernel
+            long start = System.nanoTime();
+            for(int repeat = 0; repeat < REPEATS; repeat++) {
+                for(int s = 0; s + 1 < signals; s++) {
+                    int a = s * length;
+                    if(kernel == 0) {
+                        sink += kernels.dot(values, a, values, a + length, length);
+                    } else if(kernel == 1) {
+                        sink += kernels.sumOfSquares(values, a, a + length);
+                    } else {
+                        kernels.sw1(nwt, ntRow, 1.5, sw, length);
+                        sink += sw[s % length];
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if(run >= 0) {
+                best = Math.min(best, (double) elapsed / ((long) REPEATS * (signals - 1) * length));
+            }
+        }
+        if(sink == 42) { //Keeps the results alive
+            PrintUtilities.printInfoMessageln("");
+        }
+        return best;
+    }
+}
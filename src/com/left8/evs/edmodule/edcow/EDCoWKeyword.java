@@ -46,15 +46,15 @@ public class EDCoWKeyword {
     double[] nwt;
     double[] SW1;
     double[] SW2;
-    String keyWord;
+    int termId; //ID of the keyword in the TermDictionary of the corpus
     double autoCorrelation;
     double[] crossCorrelation;
 
-    public EDCoWKeyword(String keyword_, double[] nwt_, int delta_, double[] distribution) {
+    public EDCoWKeyword(int termId_, double[] nwt_, int delta_, double[] distribution) {
         nwt = nwt_;
         delta = delta_;
         nt = distribution;
-        keyWord = keyword_;
+        termId = termId_;
         computations();
     }
 
@@ -102,12 +102,12 @@ public class EDCoWKeyword {
         SW2 = sW2;
     }
 
-    public String getKeyWord() {
-        return keyWord;
+    public int getTermId() {
+        return termId;
     }
 
-    public void setKeyWord(String keyWord) {
-        this.keyWord = keyWord;
+    public void setTermId(int termId) {
+        this.termId = termId;
     }
 
     public double getAutoCorrelation() {
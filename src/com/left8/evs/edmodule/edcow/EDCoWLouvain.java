@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Louvain community detection over a weighted, undirected graph in CSR form,
+ * as an alternative to jmod for the keyword graphs of EDCoW. <br>
+ * The neighbors of node 'v' are neighbors[offsets[v]] up to, but not
+ * including, neighbors[offsets[v + 1]], with the weights at the same
+ * positions; every edge is stored in both directions. The local moving phase
+ * processes the nodes in batches of a greedy coloring: the nodes of a batch
+ * are not adjacent, so their best communities are computed from the same
+ * state, over a fork/join pool if one is set, and the moves are applied
+ * after the whole batch. The result is the same for any number of threads.
+ * The communities of a level are then merged into the nodes of the next
+ * level, until no node moves.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2300
+ */
+public class EDCoWLouvain {
+
+    private static final int MAX_PASSES = 100; //Local moving passes per level
+    private static final double MIN_GAIN = 1e-12; //Modularity gains below it do not move a node
+    private static final int NODES_PER_TASK = 256;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Public constructor.
+     * @param pool A ForkJoinPool object for the local moving phase or null to
+     * move the nodes in the calling thread.
+     */
+    public EDCoWLouvain(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Detects the communities of a graph.
+     * @param offsets The offsets of the neighbors of every node, plus one
+     * final offset with the total number of neighbors.
+     * @param neighbors The neighbors of all nodes.
+     * @param weights The weights of the edges to the neighbors.
+     * @return A List with the nodes of every community in ascending order,
+     * ordered by their first node.
+     */
+    public List<int[]> detect(int[] offsets, int[] neighbors, double[] weights) {
+        int n = offsets.length - 1;
+        int[] membership = new int[n];
+        for(int v = 0; v < n; v++) {
+            membership[v] = v;
+        }
+        int[] levelOffsets = offsets;
+        int[] levelNeighbors = neighbors;
+        double[] levelWeights = weights;
+        while(true) {
+            int levelSize = levelOffsets.length - 1;
+            int[] community = moveNodes(levelOffsets, levelNeighbors, levelWeights);
+            int communities = renumber(community);
+            for(int v = 0; v < n; v++) {
+                membership[v] = community[membership[v]];
+            }
+            if(communities == levelSize) {
+                break;
+            }
+            //Aggregation: the communities become the nodes of the next level
+            int[] memberOffsets = new int[communities + 1];
+            for(int c : community) {
+                memberOffsets[c + 1]++;
+            }
+            for(int c = 0; c < communities; c++) {
+                memberOffsets[c + 1] += memberOffsets[c];
+            }
+            int[] members = new int[levelSize];
+            int[] next = Arrays.copyOf(memberOffsets, communities);
+            for(int v = 0; v < levelSize; v++) {
+                members[next[community[v]]++] = v;
+            }
+            double[] accumulator = new double[communities];
+            int[] touched = new int[communities];
+            boolean[] seen = new boolean[communities];
+            int[] newOffsets = new int[communities + 1];
+            int[] newNeighbors = new int[levelNeighbors.length];
+            double[] newWeights = new double[levelNeighbors.length];
+            int entries = 0;
+            for(int c = 0; c < communities; c++) {
+                int count = 0;
+                for(int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                    int v = members[m];
+                    for(int e = levelOffsets[v]; e < levelOffsets[v + 1]; e++) {
+                        int d = community[levelNeighbors[e]];
+                        if(!seen[d]) {
+                            seen[d] = true;
+                            touched[count++] = d;
+                        }
+                        accumulator[d] += levelWeights[e];
+                    }
+                }
+                for(int t = 0; t < count; t++) {
+                    int d = touched[t];
+                    newNeighbors[entries] = d;
+                    newWeights[entries++] = accumulator[d];
+                    accumulator[d] = 0;
+                    seen[d] = false;
+                }
+                newOffsets[c + 1] = entries;
+            }
+            levelOffsets = newOffsets;
+            levelNeighbors = Arrays.copyOf(newNeighbors, entries);
+            levelWeights = Arrays.copyOf(newWeights, entries);
+        }
+        renumber(membership);
+        List<int[]> result = new ArrayList<>();
+        int[] sizes = new int[n];
+        for(int c : membership) {
+            sizes[c]++;
+        }
+        int[][] communities = new int[n][];
+        for(int v = 0; v < n; v++) {
+            int c = membership[v];
+            if(communities[c] == null) {
+                communities[c] = new int[sizes[c]];
+                result.add(communities[c]);
+                sizes[c] = 0;
+            }
+            communities[c][sizes[c]++] = v;
+        }
+        return result;
+    }
+
+    /**
+     * Numbers the communities 0, 1, ... in the order of their first node.
+     * @return The number of communities.
+     */
+    private static int renumber(int[] community) {
+        int[] numbers = new int[community.length];
+        Arrays.fill(numbers, -1);
+        int count = 0;
+        for(int v = 0; v < community.length; v++) {
+            if(numbers[community[v]] == -1) {
+                numbers[community[v]] = count++;
+            }
+            community[v] = numbers[community[v]];
+        }
+        return count;
+    }
+
+    /**
+     * Local moving phase of a level.
+     * @return The community of every node of the level.
+     */
+    private int[] moveNodes(int[] offsets, int[] neighbors, double[] weights) {
+        int n = offsets.length - 1;
+        int[] community = new int[n];
+        double[] degrees = new double[n];
+        double totalDegree = 0;
+        for(int v = 0; v < n; v++) {
+            community[v] = v;
+            for(int e = offsets[v]; e < offsets[v + 1]; e++) {
+                degrees[v] += weights[e];
+            }
+            totalDegree += degrees[v];
+        }
+        if(totalDegree == 0) {
+            return community;
+        }
+        double[] totals = degrees.clone();
+        int[][] batches = colorBatches(offsets, neighbors);
+        int[] targets = new int[n];
+        MoveState state = new MoveState(offsets, neighbors, weights, community, degrees,
+                totals, totalDegree, targets);
+        for(int pass = 0; pass < MAX_PASSES; pass++) {
+            boolean moved = false;
+            for(int[] batch : batches) {
+                if(pool == null || batch.length <= NODES_PER_TASK) {
+                    state.findTargets(batch, 0, batch.length);
+                } else {
+                    pool.invoke(new MoveTask(state, batch, 0, batch.length));
+                }
+                for(int v : batch) {
+                    if(targets[v] != community[v]) {
+                        totals[community[v]] -= degrees[v];
+                        totals[targets[v]] += degrees[v];
+                        community[v] = targets[v];
+                        moved = true;
+                    }
+                }
+            }
+            if(!moved) {
+                break;
+            }
+        }
+        return community;
+    }
+
+    /**
+     * Greedy coloring of the nodes, in node order.
+     * @return The nodes of every color.
+     */
+    private static int[][] colorBatches(int[] offsets, int[] neighbors) {
+        int n = offsets.length - 1;
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] forbidden = new int[n + 1]; //forbidden[c] == v + 1 if color c is taken by a neighbor of v
+        int numberOfColors = 0;
+        for(int v = 0; v < n; v++) {
+            for(int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int u = neighbors[e];
+                if(u != v && colors[u] >= 0) {
+                    forbidden[colors[u]] = v + 1;
+                }
+            }
+            int color = 0;
+            while(forbidden[color] == v + 1) {
+                color++;
+            }
+            colors[v] = color;
+            numberOfColors = Math.max(numberOfColors, color + 1);
+        }
+        int[] sizes = new int[numberOfColors];
+        for(int color : colors) {
+            sizes[color]++;
+        }
+        int[][] batches = new int[numberOfColors][];
+        for(int color = 0; color < numberOfColors; color++) {
+            batches[color] = new int[sizes[color]];
+            sizes[color] = 0;
+        }
+        for(int v = 0; v < n; v++) {
+            batches[colors[v]][sizes[colors[v]]++] = v;
+        }
+        return batches;
+    }
+
+    /**
+     * The graph and the communities of a level, while its nodes are moved.
+     */
+    private static class MoveState {
+
+        final int[] offsets;
+        final int[] neighbors;
+        final double[] weights;
+        final int[] community;
+        final double[] degrees;
+        final double[] totals;
+        final double totalDegree;
+        final int[] targets;
+
+        MoveState(int[] offsets, int[] neighbors, double[] weights, int[] community,
+                double[] degrees, double[] totals, double totalDegree, int[] targets) {
+            this.offsets = offsets;
+            this.neighbors = neighbors;
+            this.weights = weights;
+            this.community = community;
+            this.degrees = degrees;
+            this.totals = totals;
+            this.totalDegree = totalDegree;
+            this.targets = targets;
+        }
+
+        /**
+         * Finds the community with the maximum modularity gain for the nodes
+         * batch[from, to), without moving them.
+         */
+        void findTargets(int[] batch, int from, int to) {
+            int n = community.length;
+            double[] links = new double[n]; //Weight from the node to every community
+            int[] touched = new int[n];
+            boolean[] seen = new boolean[n];
+            for(int b = from; b < to; b++) {
+                int v = batch[b];
+                int own = community[v];
+                int count = 0;
+                for(int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int u = neighbors[e];
+                    if(u == v) {
+                        continue;
+                    }
+                    int c = community[u];
+                    if(!seen[c]) {
+                        seen[c] = true;
+                        touched[count++] = c;
+                    }
+                    links[c] += weights[e];
+                }
+                double degree = degrees[v];
+                int best = own;
+                double bestGain = links[own] - (totals[own] - degree) * degree / totalDegree;
+                for(int t = 0; t < count; t++) {
+                    int c = touched[t];
+                    if(c != own) {
+                        double gain = links[c] - totals[c] * degree / totalDegree;
+                        if(gain > bestGain + MIN_GAIN || (best != own && gain == bestGain && c < best)) {
+                            best = c;
+                            bestGain = gain;
+                        }
+                    }
+                }
+                targets[v] = best;
+                for(int t = 0; t < count; t++) {
+                    links[touched[t]] = 0;
+                    seen[touched[t]] = false;
+                }
+                links[own] = 0;
+            }
+        }
+    }
+
+    /**
+     * Fork/join task that finds the targets of a range of a batch.
+     */
+    private static class MoveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MoveState state;
+        private final int[] batch;
+        private final int from;
+        private final int to;
+
+        MoveTask(MoveState state, int[] batch, int from, int to) {
+            this.state = state;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= NODES_PER_TASK) {
+                state.findTargets(batch, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new MoveTask(state, batch, from, middle),
+                        new MoveTask(state, batch, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+/**
+ * Comparison of the float mode of an EDCoW window, in which the signals and
+ * the cross correlations are stored as floats, with the double path over
+ * the same keywords. <br>
+ * A correlation is the dot product of two SW2 signals, which are not
+ * negative. With u = 2^-24 the unit roundoff of a float, the rounding of each
+ * of the two signals makes every product off by at most 2u + u^2, a sum of
+ * terms that are not negative keeps that relative error, and the rounding
+ * of the stored value adds u. The double accumulation adds at most
+ * (signalLength - 1) * 2^-53 on either side, so every correlation that is
+ * not 0 in both modes is within {@link #RELATIVE_ERROR_BOUND} (about 1.8e-7)
+ * of its double value. Correlations that are within that error of 0.00001
+ * may be reported as 0 on one side only. theta2 then moves by a relative
+ * error of the same order, so only the edges whose correlations are that
+ * close to theta2 or to the 0.1 of the communities may differ. <br>
+ * To check a corpus, set StoragePrecision to 'float' and
+ * StoragePrecisionReport to 'true' and run EDCoW or SentimentEDCoW without a
+ * signal cache. Every window is then also run on the double path and its
+ * report is printed, including whether its largest relative error is within
+ * the bound.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class EDCoWPrecisionReport {
+
+    /**
+     * The bound of the relative error of a correlation, 3u + 3u^2 + u^3 for
+     * the roundings to float plus 2^-32 for the double accumulation of
+     * signals of up to 2^20 values.
+     */
+    public static final double RELATIVE_ERROR_BOUND = 3 * 0x1p-24 + 3 * 0x1p-48 + 0x1p-72 + 0x1p-32;
+
+    private final int size;
+    private final int differentKeywords;
+    private final double maxAbsoluteError;
+    private final double maxRelativeError;
+    private final double exactTheta2;
+    private final double floatTheta2;
+    private final long exactEdges;
+    private final long missingEdges;
+    private final long extraEdges;
+
+    /**
+     * Public constructor.
+     * @param exact The correlations of the double path, before they are
+     * filtered.
+     * @param approximate The correlations of the float mode over the same
+     * keywords, before they are filtered.
+     * @param exactTheta2 The theta2 of the double path.
+     * @param floatTheta2 The theta2 of the float mode.
+     * @param differentKeywords The number of keywords that pass theta1 in
+     * only one of the two modes.
+     */
+    public EDCoWPrecisionReport(EDCoWCorrelationMatrix exact, EDCoWCorrelationMatrix approximate,
+            double exactTheta2, double floatTheta2, int differentKeywords) {
+        size = exact.size();
+        this.differentKeywords = differentKeywords;
+        this.exactTheta2 = exactTheta2;
+        this.floatTheta2 = floatTheta2;
+        double absolute = 0, relative = 0;
+        long edges = 0, missing = 0, extra = 0;
+        int pairs = (int) ((long) size * (size - 1) / 2);
+        for(int k = 0; k < pairs; k++) {
+            double e = exact.getPair(k);
+            double a = approximate.getPair(k);
+            double error = Math.abs(a - e);
+            absolute = Math.max(absolute, error);
+            if(e > 0 && a > 0) { //Otherwise one of them is below 0.00001
+                relative = Math.max(relative, error / e);
+            }
+            //An edge of the communities passes both theta2 and 0.1
+            boolean exactEdge = e >= exactTheta2 && e > 0.1;
+            boolean floatEdge = a >= floatTheta2 && a > 0.1;
+            edges += exactEdge ? 1 : 0;
+            missing += (exactEdge && !floatEdge) ? 1 : 0;
+            extra += (!exactEdge && floatEdge) ? 1 : 0;
+        }
+        maxAbsoluteError = absolute;
+        maxRelativeError = relative;
+        exactEdges = edges;
+        missingEdges = missing;
+        extraEdges = extra;
+    }
+
+    /**
+     * Returns the maximum absolute error of the correlations.
+     * @return A double with the error.
+     */
+    public final double getMaxAbsoluteError() { return maxAbsoluteError; }
+
+    /**
+     * Returns the maximum relative error of the correlations that are not 0
+     * in both modes.
+     * @return A double with the error.
+     */
+    public final double getMaxRelativeError() { return maxRelativeError; }
+
+    /**
+     * Returns whether the relative errors of the correlations are within
+     * {@link #RELATIVE_ERROR_BOUND}.
+     * @return True if they are, false otherwise.
+     */
+    public final boolean isWithinBound() { return maxRelativeError <= RELATIVE_ERROR_BOUND; }
+
+    /**
+     * Returns the relative error of theta2.
+     * @return A double with the error, which is 0 if both thresholds are 0.
+     */
+    public final double getTheta2Error() {
+        double error = Math.abs(floatTheta2 - exactTheta2);
+        return (error == 0) ? 0 : error / Math.abs(exactTheta2);
+    }
+
+    /**
+     * Returns the number of the edges of the double path that the float mode
+     * does not have.
+     * @return A long with the number of edges.
+     */
+    public final long getMissingEdges() { return missingEdges; }
+
+    /**
+     * Returns the number of the edges of the float mode that the double path
+     * does not have.
+     * @return A long with the number of edges.
+     */
+    public final long getExtraEdges() { return extraEdges; }
+
+    /**
+     * Returns the number of keywords that pass theta1 in only one mode.
+     * @return An integer with the number of keywords.
+     */
+    public final int getDifferentKeywords() { return differentKeywords; }
+
+    @Override
+    public String toString() {
+        return String.format("%d keywords (%d differ at theta1), max error %.3g (relative %.3g, "
+                + "%s bound %.3g), theta2 %.6g / %.6g (relative error %.3g), edges %d, "
+                + "%d missing, %d extra", size, differentKeywords, maxAbsoluteError,
+                maxRelativeError, isWithinBound() ? "within" : "ABOVE", RELATIVE_ERROR_BOUND,
+                exactTheta2, floatTheta2, getTheta2Error(), exactEdges, missingEdges, extraEdges);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile sketch with a bounded rank error, for the thresholds of
+ * windows whose correlations are too many to be selected exactly. <br>
+ * The values are kept in levels of 'capacity' values; a value of level 'h'
+ * stands for 2^h values of the stream. When a level is full, it is sorted
+ * and every other value of it is promoted to the next level. Every such
+ * compaction shifts the rank of any value by at most 2^h, so the rank error
+ * of a quantile is at most size() * (number of levels) / capacity, as
+ * returned by {@link #getRankErrorBound() getRankErrorBound()}. The sketch
+ * keeps O(capacity * log(size() / capacity)) values.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2200
+ */
+public class EDCoWQuantileSketch {
+
+    private final int capacity;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private long size = 0;
+    private boolean oddOffset = false; //Alternates the promoted half, so that the errors cancel out
+
+    /**
+     * Public constructor.
+     * @param capacity The number of values per level. It is rounded up to an
+     * even number; larger values reduce the error.
+     */
+    public EDCoWQuantileSketch(int capacity) {
+        this.capacity = Math.max(2, capacity + (capacity & 1));
+    }
+
+    /**
+     * Adds a value to the sketch.
+     * @param value The value.
+     */
+    public final void add(double value) {
+        insert(0, value);
+        size++;
+    }
+
+    private void insert(int level, double value) {
+        if(level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            levels[level] = new double[capacity];
+        }
+        levels[level][sizes[level]++] = value;
+        if(sizes[level] == capacity) {
+            double[] buffer = levels[level];
+            Arrays.sort(buffer);
+            sizes[level] = 0;
+            for(int i = oddOffset ? 1 : 0; i < capacity; i += 2) {
+                insert(level + 1, buffer[i]);
+            }
+            oddOffset = !oddOffset;
+        }
+    }
+
+    /**
+     * Returns the number of values that were added to the sketch.
+     * @return A long with the number of values.
+     */
+    public final long size() { return size; }
+
+    /**
+     * Returns the maximum difference between the rank of a returned quantile
+     * and its rank in the stream.
+     * @return A long with the number of values.
+     */
+    public final long getRankErrorBound() {
+        return (size * levels.length + capacity - 1) / capacity;
+    }
+
+    /**
+     * Returns an approximate quantile of the values.
+     * @param quantile The quantile, in [0, 1], e.g. 0.5 for the median.
+     * @return The smallest value of the sketch whose approximate rank is at
+     * least quantile * size() or NaN if the sketch is empty.
+     */
+    public final double getQuantile(double quantile) {
+        if(size == 0) {
+            return Double.NaN;
+        }
+        int count = 0;
+        for(int level : sizes) {
+            count += level;
+        }
+        double[] values = new double[count];
+        long[] weights = new long[count];
+        int k = 0;
+        for(int level = 0; level < levels.length; level++) {
+            for(int i = 0; i < sizes[level]; i++, k++) {
+                values[k] = levels[level][i];
+                weights[k] = 1L << level;
+            }
+        }
+        Integer[] indices = new Integer[count];
+        for(int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (a, b) -> Double.compare(values[a], values[b]));
+        double target = quantile * size; //Compactions keep the total weight equal to the size
+        long rank = 0;
+        for(Integer index : indices) {
+            rank += weights[index];
+            if(rank >= target) {
+                return values[index];
+            }
+        }
+        return values[indices[count - 1]];
+    }
+}
@@ -0,0 +1,602 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the signals and the cross correlations of the keywords of EDCoW
+ * windows, for parameter sweeps that only change the thresholds, e.g. gamma. <br>
+ * The SW2 signal and the auto correlation of a term depend only on its
+ * frequencies, the timeslices of the window (thus delta2) and delta, so they
+ * are cached per term under (first timeslice, last timeslice, delta); a
+ * lookup computes only the terms that are missing. The cross correlations of
+ * the last keywords that passed theta1 in a window are cached as well,
+ * before they are filtered by theta2: theta1 grows with gamma, so the
+ * keywords of a higher gamma are a subset of them and their correlations are
+ * copied instead of being computed. The same holds for the candidate pairs
+ * of an {@link EDCoWSimHash EDCoWSimHash}, as they are pairwise, so the
+ * approximate correlations are cached per EDCoWSimHash object. All values
+ * are kept in primitive arrays. If a memory budget is set, the least
+ * recently used windows are spilled to files of a directory and read back
+ * when they are needed, or dropped if no directory is set. <br>
+ * A cache serves a single corpus, as the frequencies are not part of the
+ * key; the number of documents per timeslice is, so a window whose buckets
+ * have changed is computed again. It is safe to use it concurrently for
+ * different windows.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2340
+ */
+public class EDCoWSignalCache {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long memoryBudget;
+    private final Path spillDirectory;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); //Least recently used first
+    private long memoryUsed = 0;
+
+    /**
+     * Constructor of a cache that keeps all windows in memory.
+     */
+    public EDCoWSignalCache() {
+        this(0, null);
+    }
+
+    /**
+     * Public constructor.
+     * @param memoryBudget The number of bytes of the cached arrays above which
+     * the least recently used windows leave the memory, or 0 for no limit.
+     * The window in use is always kept.
+     * @param spillDirectory The directory where the windows are spilled or
+     * null to drop them.
+     */
+    public EDCoWSignalCache(long memoryBudget, String spillDirectory) {
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = (spillDirectory == null) ? null : Paths.get(spillDirectory);
+    }
+
+    /**
+     * Returns the signals of the keywords of a window, computing only those
+     * that are not cached. The parameters are those of the constructor of
+     * {@link EDCoWSignalMatrix EDCoWSignalMatrix}.
+     * @param termIds The term IDs of the keywords.
+     * @param frequencies The frequency of every keyword per timeslice, for the
+     * whole corpus.
+     * @param distribution The number of documents per timeslice of the window.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @param delta Delta value.
+     * @param pool A ForkJoinPool object or null to compute the missing
+     * signals in the calling thread.
+     * @return An EDCoWSignalMatrix object with the keywords in the order of
+     * the term IDs.
+     */
+    public EDCoWSignalMatrix getSignals(int[] termIds, int[][] frequencies, double[] distribution,
+            int startSlice, int endSlice, int delta, ForkJoinPool pool) {
+        Key key = new Key(startSlice, endSlice, delta);
+        Signals cached;
+        synchronized(this) {
+            Entry entry = load(key, distribution);
+            cached = (entry == null) ? null : entry.signals;
+        }
+        int[] rows = new int[termIds.length];
+        int missing = 0;
+        for(int k = 0; k < termIds.length; k++) {
+            rows[k] = (cached == null) ? -1 : Arrays.binarySearch(cached.terms, termIds[k]);
+            missing += (rows[k] < 0) ? 1 : 0;
+        }
+        if(missing > 0 || cached == null) {
+            int[] missingIds = new int[missing];
+            int[][] missingFrequencies = new int[missing][];
+            for(int k = 0, m = 0; k < termIds.length; k++) {
+                if(rows[k] < 0) {
+                    missingIds[m] = termIds[k];
+                    missingFrequencies[m++] = frequencies[k];
+                }
+            }
+            EDCoWSignalMatrix computed = new EDCoWSignalMatrix(missingIds, missingFrequencies,
+                    distribution, startSlice, endSlice, delta, pool);
+            cached = merge(cached, computed);
+            synchronized(this) {
+                store(key, distribution, cached);
+            }
+            for(int k = 0; k < termIds.length; k++) {
+                rows[k] = Arrays.binarySearch(cached.terms, termIds[k]);
+            }
+        }
+        int signalLength = cached.signalLength;
+        double[] sw2 = new double[termIds.length * signalLength];
+        double[] autoCorrelations = new double[termIds.length];
+        for(int k = 0; k < termIds.length; k++) {
+            System.arraycopy(cached.sw2, rows[k] * signalLength, sw2, k * signalLength, signalLength);
+            autoCorrelations[k] = cached.autoCorrelations[rows[k]];
+        }
+        return new EDCoWSignalMatrix(termIds, signalLength, sw2, autoCorrelations);
+    }
+
+    /**
+     * Returns the cross correlations of some keywords of a window, copying
+     * them from the cached correlations if these include all keywords. The
+     * returned matrix can be filtered without affecting the cache.
+     * @param signals An EDCoWSignalMatrix object, as returned by {@link
+     * #getSignals(int[], int[][], double[], int, int, int, ForkJoinPool)
+     * getSignals()} for the same window.
+     * @param keywords The indices of the keywords, e.g. of those that pass theta1.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @param delta Delta value.
+     * @param pool A ForkJoinPool object or null to compute the correlations
+     * in the calling thread.
+     * @param useEJML True to compute the correlations with EJML, false to
+     * compute the tiles.
+     * @param candidates An EDCoWSimHash object that selects the pairs to be
+     * computed or null to compute all pairs.
+     * @return An EDCoWCorrelationMatrix object with the keywords in the given
+     * order.
+     */
+    public EDCoWCorrelationMatrix getCorrelations(EDCoWSignalMatrix signals, int[] keywords,
+            int startSlice, int endSlice, int delta, ForkJoinPool pool, boolean useEJML,
+            EDCoWSimHash candidates) {
+        Key key = new Key(startSlice, endSlice, delta);
+        int size = keywords.length;
+        int[] terms = new int[size];
+        for(int k = 0; k < size; k++) {
+            terms[k] = signals.getTermId(keywords[k]);
+        }
+        Correlations cached;
+        synchronized(this) {
+            Entry entry = entries.get(key);
+            cached = (entry == null || entry.candidates != candidates || !reload(key, entry))
+                    ? null : entry.correlations;
+        }
+        if(cached != null) {
+            int[] positions = new int[size];
+            boolean covered = true;
+            for(int k = 0; k < size && covered; k++) {
+                int p = Arrays.binarySearch(cached.sortedTerms, terms[k]);
+                covered = (p >= 0);
+                positions[k] = covered ? cached.rows[p] : -1;
+            }
+            if(covered) {
+                double[] correlations = new double[(int) ((long) size * (size - 1) / 2)];
+                for(int i = 0, k = 0; i < size; i++) {
+                    for(int j = i + 1; j < size; j++) {
+                        correlations[k++] = cached.get(positions[i], positions[j]);
+                    }
+                }
+                return new EDCoWCorrelationMatrix(size, correlations, (candidates == null) ? null
+                        : EDCoWCorrelationMatrix.sample(signals.getSW2Matrix(keywords), size,
+                                signals.getSignalLength()));
+            }
+        }
+        EDCoWCorrelationMatrix matrix = new EDCoWCorrelationMatrix(signals.getSW2Matrix(keywords),
+                size, signals.getSignalLength(), pool, useEJML, candidates);
+        Correlations computed = new Correlations(terms, matrix.getUpperTriangle().clone());
+        synchronized(this) {
+            Entry entry = entries.get(key);
+            if(entry != null && entry.spillFile == null) {
+                memoryUsed += computed.bytes() - ((entry.correlations == null) ? 0 : entry.correlations.bytes());
+                entry.correlations = computed;
+                entry.candidates = candidates;
+                trim(key);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Removes all windows from the cache and deletes their spill files.
+     */
+    public synchronized void clear() {
+        for(Entry entry : entries.values()) {
+            deleteSpillFile(entry);
+        }
+        entries.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Returns the number of bytes of the cached arrays that are in memory.
+     * @return A long with the number of bytes.
+     */
+    public synchronized long getMemoryUsed() { return memoryUsed; }
+
+    /**
+     * Returns the entry of a window in memory, or null if it is not cached or
+     * its number of documents per timeslice has changed.
+     */
+    private Entry load(Key key, double[] distribution) {
+        Entry entry = entries.get(key);
+        if(entry == null) {
+            return null;
+        }
+        if(!Arrays.equals(entry.distribution, distribution)) {
+            remove(key);
+            return null;
+        }
+        return reload(key, entry) ? entry : null;
+    }
+
+    /**
+     * Reads an entry back from its spill file, if it is spilled.
+     * @return False if the file cannot be read, in which case the entry is
+     * removed.
+     */
+    private boolean reload(Key key, Entry entry) {
+        if(entry.spillFile == null) {
+            return true;
+        }
+        try {
+            readSpillFile(entry);
+        } catch (IOException ex) {
+            Logger.getLogger(EDCoWSignalCache.class.getName()).log(Level.SEVERE, null, ex);
+            remove(key);
+            return false;
+        }
+        deleteSpillFile(entry);
+        memoryUsed += entry.bytes();
+        trim(key);
+        return true;
+    }
+
+    /**
+     * Sets the signals of a window. The correlations of the window are kept.
+     */
+    private void store(Key key, double[] distribution, Signals signals) {
+        Entry entry = entries.get(key);
+        if(entry == null || entry.spillFile != null || !Arrays.equals(entry.distribution, distribution)) {
+            remove(key);
+            entry = new Entry(distribution);
+            entries.put(key, entry);
+            memoryUsed += 8L * distribution.length;
+        }
+        memoryUsed += signals.bytes() - ((entry.signals == null) ? 0 : entry.signals.bytes());
+        entry.signals = signals;
+        trim(key);
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if(entry != null) {
+            if(entry.spillFile == null) {
+                memoryUsed -= entry.bytes();
+            }
+            deleteSpillFile(entry);
+        }
+    }
+
+    /**
+     * Spills or drops the least recently used windows, apart from the one in
+     * use, until the memory budget is met.
+     */
+    private void trim(Key inUse) {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while(memoryBudget > 0 && memoryUsed > memoryBudget && iterator.hasNext()) {
+            Map.Entry<Key, Entry> next = iterator.next();
+            Entry entry = next.getValue();
+            if(next.getKey().equals(inUse) || entry.spillFile != null) {
+                continue;
+            }
+            long bytes = entry.bytes();
+            if(spillDirectory != null) {
+                try {
+                    writeSpillFile(entry);
+                    memoryUsed -= bytes;
+                    continue;
+                } catch (IOException ex) {
+                    Logger.getLogger(EDCoWSignalCache.class.getName()).log(Level.SEVERE, null, ex);
+                    deleteSpillFile(entry);
+                }
+            }
+            iterator.remove();
+            memoryUsed -= bytes;
+        }
+    }
+
+    /**
+     * Writes the signals and the correlations of an entry to a new file and
+     * releases them. The number of documents per timeslice stays in memory.
+     */
+    private void writeSpillFile(Entry entry) throws IOException {
+        Path file = Files.createTempFile(spillDirectory, "edcow-signals-", ".bin");
+        entry.spillFile = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            Signals signals = entry.signals;
+            Correlations correlations = entry.correlations;
+            buffer.putInt(signals.signalLength);
+            writeInts(channel, buffer, signals.terms);
+            writeDoubles(channel, buffer, signals.sw2);
+            writeDoubles(channel, buffer, signals.autoCorrelations);
+            writeInts(channel, buffer, (correlations == null) ? null : correlations.terms);
+            if(correlations != null) {
+                writeDoubles(channel, buffer, correlations.upperTriangle);
+            }
+            flush(channel, buffer);
+        }
+        entry.signals = null;
+        entry.correlations = null;
+    }
+
+    private void readSpillFile(Entry entry) throws IOException {
+        try (FileChannel channel = FileChannel.open(entry.spillFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            int signalLength = ensure(channel, buffer, 4).getInt();
+            int[] terms = readInts(channel, buffer);
+            double[] sw2 = readDoubles(channel, buffer);
+            double[] autoCorrelations = readDoubles(channel, buffer);
+            int[] correlationTerms = readInts(channel, buffer);
+            entry.signals = new Signals(terms, signalLength, sw2, autoCorrelations);
+            entry.correlations = (correlationTerms == null) ? null
+                    : new Correlations(correlationTerms, readDoubles(channel, buffer));
+        }
+    }
+
+    private static void deleteSpillFile(Entry entry) {
+        if(entry.spillFile != null) {
+            try {
+                Files.deleteIfExists(entry.spillFile);
+            } catch (IOException ex) {
+                Logger.getLogger(EDCoWSignalCache.class.getName()).log(Level.WARNING, null, ex);
+            }
+            entry.spillFile = null;
+        }
+    }
+
+    /**
+     * Writes the length of an array, or -1 for null, and its values.
+     */
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        if(buffer.remaining() < 4) {
+            flush(channel, buffer);
+        }
+        buffer.putInt((values == null) ? -1 : values.length);
+        if(values != null) {
+            for(int value : values) {
+                if(buffer.remaining() < 4) {
+                    flush(channel, buffer);
+                }
+                buffer.putInt(value);
+            }
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer buffer, double[] values) throws IOException {
+        if(buffer.remaining() < 4) {
+            flush(channel, buffer);
+        }
+        buffer.putInt(values.length);
+        for(double value : values) {
+            if(buffer.remaining() < 8) {
+                flush(channel, buffer);
+            }
+            buffer.putDouble(value);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int[] readInts(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int length = ensure(channel, buffer, 4).getInt();
+        if(length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        for(int k = 0; k < length; k++) {
+            values[k] = ensure(channel, buffer, 4).getInt();
+        }
+        return values;
+    }
+
+    private static double[] readDoubles(FileChannel channel, ByteBuffer buffer) throws IOException {
+        double[] values = new double[ensure(channel, buffer, 4).getInt()];
+        for(int k = 0; k < values.length; k++) {
+            values[k] = ensure(channel, buffer, 8).getDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Refills a buffer that is being read, so that it has at least a number
+     * of bytes left.
+     */
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if(buffer.remaining() < bytes) {
+            buffer.compact();
+            while(buffer.position() < bytes) {
+                if(channel.read(buffer) < 0) {
+                    throw new IOException("Truncated EDCoW signal cache file");
+                }
+            }
+            buffer.flip();
+        }
+        return buffer;
+    }
+
+    /**
+     * Merges the cached signals of a window with newly computed ones.
+     * @return A Signals object with the terms in ascending order.
+     */
+    private static Signals merge(Signals cached, EDCoWSignalMatrix computed) {
+        int signalLength = computed.getSignalLength();
+        int added = computed.getNumberOfKeywords();
+        Integer[] order = new Integer[added];
+        for(int k = 0; k < added; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(computed.getTermId(a), computed.getTermId(b)));
+        int existing = (cached == null) ? 0 : cached.terms.length;
+        int size = existing + added;
+        int[] terms = new int[size];
+        double[] sw2 = new double[size * signalLength];
+        double[] autoCorrelations = new double[size];
+        double[] computedSW2 = computed.getSW2Matrix();
+        double[] computedAutoCorrelations = computed.getAutoCorrelations();
+        for(int r = 0, c = 0, n = 0; n < size; n++) {
+            if(c == added || (r < existing && cached.terms[r] < computed.getTermId(order[c]))) {
+                terms[n] = cached.terms[r];
+                System.arraycopy(cached.sw2, r * signalLength, sw2, n * signalLength, signalLength);
+                autoCorrelations[n] = cached.autoCorrelations[r++];
+            } else {
+                int k = order[c++];
+                terms[n] = computed.getTermId(k);
+                System.arraycopy(computedSW2, k * signalLength, sw2, n * signalLength, signalLength);
+                autoCorrelations[n] = computedAutoCorrelations[k];
+            }
+        }
+        return new Signals(terms, signalLength, sw2, autoCorrelations);
+    }
+
+    /**
+     * The window of a cache entry.
+     */
+    private static class Key {
+
+        private final int startSlice;
+        private final int endSlice;
+        private final int delta;
+
+        Key(int startSlice, int endSlice, int delta) {
+            this.startSlice = startSlice;
+            this.endSlice = endSlice;
+            this.delta = delta;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if(!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return startSlice == key.startSlice && endSlice == key.endSlice && delta == key.delta;
+        }
+
+        @Override
+        public int hashCode() {
+            return (startSlice * 31 + endSlice) * 31 + delta;
+        }
+    }
+
+    /**
+     * The cached values of a window. The signals and the correlations are
+     * null while the entry is spilled.
+     */
+    private static class Entry {
+
+        final double[] distribution;
+        Signals signals;
+        Correlations correlations;
+        EDCoWSimHash candidates; //The pruning of the correlations, kept while spilled
+        Path spillFile;
+
+        Entry(double[] distribution) {
+            this.distribution = distribution.clone();
+        }
+
+        long bytes() {
+            return 8L * distribution.length + ((signals == null) ? 0 : signals.bytes())
+                    + ((correlations == null) ? 0 : correlations.bytes());
+        }
+    }
+
+    /**
+     * The signals of the cached terms of a window, in ascending term ID order.
+     */
+    private static class Signals {
+
+        final int[] terms;
+        final int signalLength;
+        final double[] sw2;
+        final double[] autoCorrelations;
+
+        Signals(int[] terms, int signalLength, double[] sw2, double[] autoCorrelations) {
+            this.terms = terms;
+            this.signalLength = signalLength;
+            this.sw2 = sw2;
+            this.autoCorrelations = autoCorrelations;
+        }
+
+        long bytes() {
+            return 4L * terms.length + 8L * sw2.length + 8L * autoCorrelations.length;
+        }
+    }
+
+    /**
+     * The unfiltered cross correlations of some keywords of a window, as the
+     * upper triangle of EDCoWCorrelationMatrix.
+     */
+    private static class Correlations {
+
+        final int[] terms; //Term ID of every row
+        final int[] sortedTerms;
+        final int[] rows; //Row of every term of sortedTerms
+        final double[] upperTriangle;
+
+        Correlations(int[] terms, double[] upperTriangle) {
+            this.terms = terms;
+            this.upperTriangle = upperTriangle;
+            Integer[] order = new Integer[terms.length];
+            for(int k = 0; k < terms.length; k++) {
+                order[k] = k;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(terms[a], terms[b]));
+            sortedTerms = new int[terms.length];
+            rows = new int[terms.length];
+            for(int k = 0; k < terms.length; k++) {
+                rows[k] = order[k];
+                sortedTerms[k] = terms[order[k]];
+            }
+        }
+
+        double get(int i, int j) {
+            if(i > j) {
+                int swap = i;
+                i = j;
+                j = swap;
+            }
+            return upperTriangle[(int) ((long) i * (2 * terms.length - i - 1) / 2) + (j - i - 1)];
+        }
+
+        long bytes() {
+            return 12L * terms.length + 8L * upperTriangle.length;
+        }
+    }
+}
@@ -45,6 +45,12 @@ public class EDCoWSignalConstruction {
     double[] sw; //signal in the first step
     double[] sw2; // signal in the second step
     int delta; // size of sliding window
+    double[] segment; // scratch buffers of the transformations, reused across segments
+    double[] scratch;
+    boolean incremental; // reuse the transformation of every segment in consecutive steps
+    double[] partPrime, partNext; // transformations of Dt' and the next Dt', shared by Dt*
+    double[] energyPrime, energyNext; // energies of their levels
+    double[] norms;
 
     public void firstSignalConstruction(double[] nwt, double [] nt){
         this.nwt = nwt;
@@ -55,13 +61,7 @@ public class EDCoWSignalConstruction {
         EDCoWVector nwi = new EDCoWVector(nwt);
         double tempRatio = ni.getSum()/nwi.getSum();
 
-        for(int i=0; i<nwt.length ;i++){
-            if(nt[i]==0){ 
-                sw[i]=0;
-            } else {
-                sw[i] = (nwt[i] / nt[i]) * (Math.log(tempRatio) / Math.log(2));
-            } 
-        }		
+        EDCoWSignalKernels.get().sw1(nwt, nt, Math.log(tempRatio) / Math.log(2), sw, nwt.length);
     }
 
     public void secondSignalConstruction(double[] sw, int delta, int level){		
@@ -69,34 +69,125 @@ public class EDCoWSignalConstruction {
         this.delta = delta;
         int sizeSw2 = (sw.length / delta) - 1;
         sw2 = new double[sizeSw2];
+        secondSignalConstruction(sw, delta, level, sw2, 0);
+    }
 
-        for (int i = 0, k = 0; i < sw2.length * delta; i = i + delta, k++){
-            double[] signDtPrime = new double[delta];
-            double[] signDtStar = new double[delta*2];
+    /**
+     * Writes the second signal of sw into a row of a larger array, e.g. of an
+     * {@link EDCoWSignalMatrix EDCoWSignalMatrix}.
+     * @param sw The signal of the first step.
+     * @param delta The size of the sliding window.
+     * @param level The level of the wavelet transformations.
+     * @param target The array the signal is written into.
+     * @param offset The index of the first value of the signal in the target.
+     */
+    public void secondSignalConstruction(double[] sw, int delta, int level, double[] target, int offset){
+        int sizeSw2 = (sw.length / delta) - 1;
+        if (segment == null || segment.length < delta * 2) {
+            segment = new double[delta * 2];
+            scratch = new double[delta * 2];
+        }
+        if (incremental) {
+            secondSignalConstructionIncremental(sw, delta, level, target, offset);
+            return;
+        }
 
-            for (int j = 0; j < delta; j++) {
-                signDtPrime[j] = sw[i + j];				
-            }	
+        for (int i = 0, k = offset; i < sizeSw2 * delta; i = i + delta, k++){
+            // Dt' = sw[i, i + delta) and Dt* = sw[i, i + 2 * delta)
+            double htPrime  = EDCoWDwt.hMeasure(sw, i, delta, level, segment, scratch);
+            double htStar = EDCoWDwt.hMeasure(sw, i, delta * 2, level, segment, scratch);
 
-            for (int j = 0; j < delta * 2; j++){
-                signDtStar[j] = sw[i + j];				
-            }
+            if (htStar > htPrime)
+                target[k] = (htStar - htPrime) / htPrime;
+            else
+                target[k] = 0;
+        }
+    }
+
+    /**
+     * Incremental version of the above. Dt* of step k is Dt' of step k
+     * followed by Dt' of step k + 1, so as long as the pairs of the Haar
+     * steps do not cross the middle of Dt* (the first 'shared' steps, while
+     * the segment length is even), its coefficients and energies are those
+     * of the two Dt' segments. Every segment is transformed once for these
+     * steps and only the rest of the steps are computed per Dt' and Dt*.
+     * The values are the same as those of the non-incremental mode.
+     */
+    private void secondSignalConstructionIncremental(double[] sw, int delta, int level, double[] target, int offset){
+        int sizeSw2 = (sw.length / delta) - 1;
+        if (sizeSw2 <= 0) {
+            return;
+        }
+        int shared = Math.min(level, Integer.numberOfTrailingZeros(delta));
+        int approx = delta >> shared; // approximation coefficients of a segment after the shared steps
+        if (partPrime == null || partPrime.length < delta || norms.length < level) {
+            partPrime = new double[delta];
+            partNext = new double[delta];
+            energyPrime = new double[level + 1];
+            energyNext = new double[level + 1];
+            norms = new double[level];
+        }
+        transformSegment(sw, 0, delta, shared, partPrime, energyPrime);
+
+        for (int i = 0, k = offset; i < sizeSw2 * delta; i = i + delta, k++){
+            transformSegment(sw, i + delta, delta, shared, partNext, energyNext);
 
-            EDCoWDwt dwtDtPrime = new EDCoWDwt(signDtPrime,level);
-            EDCoWDwt dwtDtStar = new EDCoWDwt(signDtStar,level);
-            dwtDtPrime.hMeasure();
-            dwtDtStar.hMeasure();
+            // Dt' = sw[i, i + delta): the details of the shared steps are final
+            System.arraycopy(partPrime, 0, segment, 0, approx);
+            EDCoWDwt.forward(segment, approx, level - shared, scratch);
+            for (int l = 1; l <= level; l++) {
+                norms[l - 1] = (l <= shared) ? (float) Math.sqrt(energyPrime[l]) : Double.NaN;
+            }
+            double htPrime = EDCoWDwt.hMeasure(segment, delta, level, norms);
 
-            double htPrime  = dwtDtPrime.gethMeasure();
-            double htStar = dwtDtStar.gethMeasure();
+            // Dt* = sw[i, i + 2 * delta): every level of details is those of Dt' followed by those of the next Dt'
+            System.arraycopy(partPrime, 0, segment, 0, approx);
+            System.arraycopy(partNext, 0, segment, approx, approx);
+            EDCoWDwt.forward(segment, approx * 2, level - shared, scratch);
+            for (int l = 1; l <= level; l++) {
+                int count = delta >> l;
+                norms[l - 1] = (l <= shared) 
+                        ? (float) Math.sqrt(EDCoWDwt.energy(partNext, count, count * 2, energyPrime[l])) 
+                        : Double.NaN;
+            }
+            double htStar = EDCoWDwt.hMeasure(segment, delta * 2, level, norms);
 
             if (htStar > htPrime)
-                sw2[k] = (htStar - htPrime) / htPrime;
+                target[k] = (htStar - htPrime) / htPrime;
             else
-                sw2[k] = 0;
+                target[k] = 0;
+
+            double[] part = partPrime;
+            partPrime = partNext;
+            partNext = part;
+            double[] energy = energyPrime;
+            energyPrime = energyNext;
+            energyNext = energy;
         }
     }
 
+    /**
+     * Applies the shared steps to sw[from, from + delta) and computes the
+     * energies of their levels of details.
+     */
+    private void transformSegment(double[] sw, int from, int delta, int shared, double[] part, double[] energy) {
+        System.arraycopy(sw, from, part, 0, delta);
+        EDCoWDwt.forward(part, delta, shared, scratch);
+        for (int l = 1; l <= shared; l++) {
+            int count = delta >> l; // the details of level l are part[count, 2 * count)
+            energy[l] = EDCoWDwt.energy(part, count, count * 2, 0);
+        }
+    }
+
+    /**
+     * Enables the incremental mode of secondSignalConstruction(), which
+     * reuses the transformations of the overlapping segments.
+     * @param incremental True to enable the incremental mode.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     public double[] getSw() {
             return sw;
     }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+/**
+ * Kernels of the signal math of EDCoW: the dot products and the sums of
+ * squares of the cross and auto correlations, and the first signal (SW1) of
+ * a keyword. The kernels are selected once at startup, with {@link 
+ * #select(String) select()}. <br>
+ * The scalar kernels add the values in the order of the original loops, so
+ * their results are the same as before. The lane kernels keep four
+ * independent partial sums, where lane k sums the values at k mod 4, which
+ * is the order of a 4-lane vector reduction; the processor overlaps their
+ * additions instead of waiting for every addition of a single sum. Their
+ * sums may differ from the scalar ones in the last bits, so a correlation
+ * that is exactly at a threshold may fall on the other side of it. The lane
+ * SW1 kernel computes four timeslices per iteration; every value is still
+ * computed on its own, so it is the same for both.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0040
+ */
+public abstract class EDCoWSignalKernels {
+
+    private static final EDCoWSignalKernels SCALAR = new Scalar();
+    private static final EDCoWSignalKernels LANES = new Lanes();
+    private static EDCoWSignalKernels kernels = SCALAR;
+
+    /**
+     * Returns the kernels that are selected.
+     * @return An EDCoWSignalKernels object, the scalar one unless another
+     * one is selected.
+     */
+    public static EDCoWSignalKernels get() { return kernels; }
+
+    /**
+     * Selects the kernels of all EDCoW instances. It is meant to be called
+     * once, before any signals are computed.
+     * @param name 'lanes' for the lane kernels, anything else (or null) for
+     * the scalar ones, e.g. {@link 
+     * com.left8.evs.utilities.Config#getSignalKernels() 
+     * Config.getSignalKernels()}.
+     */
+    public static void select(String name) {
+        kernels = forName(name);
+    }
+
+    /**
+     * Returns the kernels of a name, without selecting them.
+     * @param name 'lanes' for the lane kernels, anything else (or null) for
+     * the scalar ones.
+     * @return An EDCoWSignalKernels object.
+     */
+    public static EDCoWSignalKernels forName(String name) {
+        return "lanes".equalsIgnoreCase(name) ? LANES : SCALAR;
+    }
+
+    /**
+     * Returns the name of the kernels.
+     * @return 'scalar' or 'lanes'.
+     */
+    public abstract String getName();
+
+    /**
+     * Dot product of a[aFrom, aFrom + length) and b[bFrom, bFrom + length).
+     * @param a The first array.
+     * @param aFrom The first value of a.
+     * @param b The second array.
+     * @param bFrom The first value of b.
+     * @param length The number of values.
+     * @return The dot product.
+     */
+    public abstract double dot(double[] a, int aFrom, double[] b, int bFrom, int length);
+
+    /**
+     * Sum of the squares of a[from, to).
+     * @param a The array.
+     * @param from The first value (inclusive).
+     * @param to The last value (exclusive).
+     * @return The sum of squares.
+     */
+    public abstract double sumOfSquares(double[] a, int from, int to);
+
+    /**
+     * Computes the first signal of a keyword, sw[i] = (nwt[i] / nt[i]) *
+     * ratio, or 0 where nt[i] is 0.
+     * @param nwt The number of tweets of every timeslice that contain the keyword.
+     * @param nt The number of tweets of every timeslice.
+     * @param ratio The log2 of the ratio of all tweets to those of the keyword.
+     * @param sw The array that receives the signal.
+     * @param length The number of timeslices.
+     */
+    public abstract void sw1(double[] nwt, double[] nt, double ratio, double[] sw, int length);
+
+    /**
+     * The kernels in the order of the original loops.
+     */
+    private static class Scalar extends EDCoWSignalKernels {
+
+        @Override
+        public String getName() { return "scalar"; }
+
+        @Override
+        public double dot(double[] a, int aFrom, double[] b, int bFrom, int length) {
+            double sum = 0.0;
+            for(int i = 0; i < length; i++) {
+                sum += a[aFrom + i] * b[bFrom + i];
+            }
+            return sum;
+        }
+
+        @Override
+        public double sumOfSquares(double[] a, int from, int to) {
+            double sum = 0.0;
+            for(int i = from; i < to; i++) {
+                sum += a[i] * a[i]; //The same value as Math.pow(a[i], 2)
+            }
+            return sum;
+        }
+
+        @Override
+        public void sw1(double[] nwt, double[] nt, double ratio, double[] sw, int length) {
+            for(int i = 0; i < length; i++) {
+                sw[i] = (nt[i] == 0) ? 0 : (nwt[i] / nt[i]) * ratio;
+            }
+        }
+    }
+
+    /**
+     * The kernels with four partial sums.
+     */
+    private static class Lanes extends EDCoWSignalKernels {
+
+        @Override
+        public String getName() { return "lanes"; }
+
+        @Override
+        public double dot(double[] a, int aFrom, double[] b, int bFrom, int length) {
+            double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+            int d = bFrom - aFrom; //A single induction variable keeps the bounds checks out of the loop
+            int end = aFrom + (length & ~3);
+            int x = aFrom;
+            for(; x < end; x += 4) {
+                sum0 += a[x] * b[x + d];
+                sum1 += a[x + 1] * b[x + 1 + d];
+                sum2 += a[x + 2] * b[x + 2 + d];
+                sum3 += a[x + 3] * b[x + 3 + d];
+            }
+            double sum = (sum0 + sum1) + (sum2 + sum3);
+            for(; x < aFrom + length; x++) {
+                sum += a[x] * b[x + d];
+            }
+            return sum;
+        }
+
+        @Override
+        public double sumOfSquares(double[] a, int from, int to) {
+            double sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+            int end = from + ((to - from) & ~3);
+            int i = from;
+            for(; i < end; i += 4) {
+                sum0 += a[i] * a[i];
+                sum1 += a[i + 1] * a[i + 1];
+                sum2 += a[i + 2] * a[i + 2];
+                sum3 += a[i + 3] * a[i + 3];
+            }
+            double sum = (sum0 + sum1) + (sum2 + sum3);
+            for(; i < to; i++) {
+                sum += a[i] * a[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void sw1(double[] nwt, double[] nt, double ratio, double[] sw, int length) {
+            int end = length & ~3;
+            int i = 0;
+            for(; i < end; i += 4) {
+                sw[i] = (nt[i] == 0) ? 0 : (nwt[i] / nt[i]) * ratio;
+                sw[i + 1] = (nt[i + 1] == 0) ? 0 : (nwt[i + 1] / nt[i + 1]) * ratio;
+                sw[i + 2] = (nt[i + 2] == 0) ? 0 : (nwt[i + 2] / nt[i + 2]) * ratio;
+                sw[i + 3] = (nt[i + 3] == 0) ? 0 : (nwt[i + 3] / nt[i + 3]) * ratio;
+            }
+            for(; i < length; i++) {
+                sw[i] = (nt[i] == 0) ? 0 : (nwt[i] / nt[i]) * ratio;
+            }
+        }
+    }
+}
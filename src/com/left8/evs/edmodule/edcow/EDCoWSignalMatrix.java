@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The SW2 signals and the auto correlations of all the candidate keywords of
+ * an EDCoW window. <br>
+ * The signals are kept in a single row-major array: the signal of the
+ * keyword with index 'r' is sw2[r * signalLength] up to, but not including,
+ * sw2[(r + 1) * signalLength]. The keywords are split in blocks, which are
+ * processed over a fork/join pool; every block reuses a single pair of
+ * scratch buffers, instead of creating an EDCoWKeyword object per term. The
+ * values are the same as those of {@link EDCoWKeyword#computations()
+ * EDCoWKeyword.computations()}. In the float mode, the signals are computed
+ * in double but stored as floats, and the auto correlations are those of
+ * the stored signals; the signals are returned as doubles in both modes.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0020
+ */
+public class EDCoWSignalMatrix {
+
+    private static final int BLOCK_SIZE = 64; //Keywords per fork/join task
+
+    private final int[] termIds;
+    private final int[][] frequencies;
+    private final double[] distribution;
+    private final int startSlice;
+    private final int endSlice;
+    private final int delta;
+    private final int level;
+    private final double distributionSum;
+    private final int signalLength;
+    private final double[] sw2; //Null in the float mode
+    private final float[] floatSW2; //Null unless in the float mode
+    private final double[] autoCorrelations;
+
+    /**
+     * Public constructor. It computes the signals of all keywords.
+     * @param termIds The term IDs of the keywords.
+     * @param frequencies The frequency of every keyword per timeslice, for the
+     * whole corpus.
+     * @param distribution The number of documents per timeslice of the window.
+     * Its length is the length of the window.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @param delta Delta value.
+     * @param pool A ForkJoinPool object or null to compute the signals in the
+     * calling thread.
+     */
+    public EDCoWSignalMatrix(int[] termIds, int[][] frequencies, double[] distribution,
+            int startSlice, int endSlice, int delta, ForkJoinPool pool) {
+        this(termIds, frequencies, distribution, startSlice, endSlice, delta, pool, false);
+    }
+
+    /**
+     * Public constructor, which can store the signals as floats.
+     * @param termIds The term IDs of the keywords.
+     * @param frequencies The frequency of every keyword per timeslice, for the
+     * whole corpus.
+     * @param distribution The number of documents per timeslice of the window.
+     * @param startSlice The first timeslice of the window (inclusive).
+     * @param endSlice The last timeslice of the window (exclusive).
+     * @param delta Delta value.
+     * @param pool A ForkJoinPool object or null to compute the signals in the
+     * calling thread.
+     * @param useFloats True to store the signals as floats, false to store
+     * them as doubles.
+     */
+    public EDCoWSignalMatrix(int[] termIds, int[][] frequencies, double[] distribution,
+            int startSlice, int endSlice, int delta, ForkJoinPool pool, boolean useFloats) {
+        this.termIds = termIds;
+        this.frequencies = frequencies;
+        this.distribution = distribution;
+        this.startSlice = startSlice;
+        this.endSlice = endSlice;
+        this.delta = delta;
+        level = (int) (Math.log(delta) / Math.log(2));
+        distributionSum = new EDCoWVector(distribution).getSum();
+        signalLength = (distribution.length / delta) - 1;
+        sw2 = useFloats ? null : new double[termIds.length * signalLength];
+        floatSW2 = useFloats ? new float[termIds.length * signalLength] : null;
+        autoCorrelations = new double[termIds.length];
+        if(pool == null) {
+            computeBlock(0, termIds.length);
+        } else {
+            pool.invoke(new SignalTask(0, termIds.length));
+        }
+    }
+
+    /**
+     * Constructor of a matrix whose signals are already computed, e.g. by an
+     * {@link EDCoWSignalCache EDCoWSignalCache}.
+     * @param termIds The term IDs of the keywords.
+     * @param signalLength The length of every signal.
+     * @param sw2 The SW2 signals, row after row.
+     * @param autoCorrelations The auto correlation of every signal.
+     */
+    EDCoWSignalMatrix(int[] termIds, int signalLength, double[] sw2, double[] autoCorrelations) {
+        this.termIds = termIds;
+        this.frequencies = null;
+        this.distribution = null;
+        this.startSlice = 0;
+        this.endSlice = 0;
+        this.delta = 0;
+        this.level = 0;
+        this.distributionSum = 0;
+        this.signalLength = signalLength;
+        this.sw2 = sw2;
+        this.floatSW2 = null;
+        this.autoCorrelations = autoCorrelations;
+    }
+
+    /**
+     * Computes the signals of the keywords [from, to).
+     * @param from The first keyword (inclusive).
+     * @param to The last keyword (exclusive).
+     */
+    private void computeBlock(int from, int to) {
+        double[] nwt = new double[distribution.length]; //Timeslices past the end of the window stay 0
+        double[] sw = new double[distribution.length];
+        EDCoWSignalConstruction signWavelet = new EDCoWSignalConstruction();
+        signWavelet.setIncremental(true);
+        EDCoWCrossCorrelationZeroTime cc = new EDCoWCrossCorrelationZeroTime();
+        EDCoWSignalKernels kernels = EDCoWSignalKernels.get();
+        double[] row = (floatSW2 == null) ? null : new double[Math.max(0, signalLength)];
+        for(int r = from; r < to; r++) {
+            int[] frequency = frequencies[r];
+            double termSum = 0;
+            for(int i = startSlice; i < endSlice; i++) {
+                nwt[i - startSlice] = (double) frequency[i];
+            }
+            for(double x : nwt) {
+                termSum = termSum + x;
+            }
+            double ratio = Math.log(distributionSum / termSum) / Math.log(2);
+            kernels.sw1(nwt, distribution, ratio, sw, nwt.length);
+            int offset = r * signalLength;
+            if(row == null) {
+                signWavelet.secondSignalConstruction(sw, delta, level, sw2, offset);
+                autoCorrelations[r] = cc.autoCorrelationZeroTime(sw2, offset, offset + signalLength);
+            } else {
+                signWavelet.secondSignalConstruction(sw, delta, level, row, 0);
+                for(int x = 0; x < signalLength; x++) {
+                    floatSW2[offset + x] = (float) row[x];
+                    row[x] = floatSW2[offset + x];
+                }
+                autoCorrelations[r] = cc.autoCorrelationZeroTime(row, 0, signalLength);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of keywords.
+     * @return An integer with the number of keywords.
+     */
+    public final int getNumberOfKeywords() { return termIds.length; }
+
+    /**
+     * Returns the length of the SW2 signal of every keyword.
+     * @return An integer with the number of values per signal.
+     */
+    public final int getSignalLength() { return signalLength; }
+
+    /**
+     * Returns the term ID of a keyword.
+     * @param keyword The index of the keyword.
+     * @return An integer with the term ID.
+     */
+    public final int getTermId(int keyword) { return termIds[keyword]; }
+
+    /**
+     * Returns a copy of the SW2 signal of a keyword.
+     * @param keyword The index of the keyword.
+     * @return A double array with the signal.
+     */
+    public final double[] getSW2(int keyword) {
+        return getSW2Matrix(new int[] {keyword});
+    }
+
+    /**
+     * Returns the SW2 signals of all keywords, row after row. The array must
+     * not be modified.
+     * @return A double array with the signals, which is a copy in the float
+     * mode.
+     */
+    public final double[] getSW2Matrix() {
+        if(floatSW2 == null) {
+            return sw2;
+        }
+        double[] rows = new double[floatSW2.length];
+        for(int x = 0; x < rows.length; x++) {
+            rows[x] = floatSW2[x];
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the SW2 signals of some keywords, row after row, e.g. of those
+     * that pass theta1.
+     * @param keywords The indices of the keywords.
+     * @return A double array with the signals, in the order of the keywords.
+     */
+    public final double[] getSW2Matrix(int[] keywords) {
+        double[] rows = new double[keywords.length * signalLength];
+        for(int r = 0; r < keywords.length; r++) {
+            if(floatSW2 == null) {
+                System.arraycopy(sw2, keywords[r] * signalLength, rows, r * signalLength, signalLength);
+            } else {
+                for(int x = 0, a = keywords[r] * signalLength; x < signalLength; x++) {
+                    rows[r * signalLength + x] = floatSW2[a + x];
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the auto correlation of the SW2 signal of every keyword. The
+     * array must not be modified.
+     * @return A double array with one value per keyword.
+     */
+    public final double[] getAutoCorrelations() { return autoCorrelations; }
+
+    /**
+     * Fork/join task that computes the signals of a range of keywords, by
+     * splitting it in halves until it fits in a block.
+     */
+    private class SignalTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        SignalTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= BLOCK_SIZE) {
+                computeBlock(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SignalTask(from, middle), new SignalTask(middle, to));
+            }
+        }
+    }
+}
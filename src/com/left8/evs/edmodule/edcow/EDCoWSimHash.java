@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Random-hyperplane (SimHash) locality sensitive hashing of the SW2 signals
+ * of the keywords of an EDCoW window, which selects the pairs of keywords
+ * whose cross correlations are computed. <br>
+ * Every signal gets 'bands' keys of 'bitsPerBand' bits; a bit is the side of
+ * a random hyperplane that the signal lies on, so two signals at an angle
+ * theta agree on a bit with probability 1 - theta / pi. Two keywords are a
+ * candidate pair if their keys are equal in at least one band. More bits per
+ * band prune more pairs, more bands recover more of the correlated ones. The
+ * hyperplanes only depend on the seed and the length of the signals, so
+ * whether a pair is a candidate does not depend on the other keywords.
+ * Signals that are all zero have no correlations and are never candidates.
+ * The hashing approximates the angle of the signals, not their dot product,
+ * so a pair of long signals at a wide angle may be missed although its
+ * correlation would pass theta2.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2340
+ */
+public class EDCoWSimHash {
+
+    private static final long SEED = 0x45445343L;
+
+    private final int bands;
+    private final int bitsPerBand;
+
+    /**
+     * Public constructor.
+     * @param bands The number of bands, at least 1.
+     * @param bitsPerBand The number of bits per band, from 1 to 30.
+     */
+    public EDCoWSimHash(int bands, int bitsPerBand) {
+        if(bands < 1 || bitsPerBand < 1 || bitsPerBand > 30) {
+            throw new IllegalArgumentException("Invalid LSH bands (" + bands
+                    + ") or bits per band (" + bitsPerBand + ")");
+        }
+        this.bands = bands;
+        this.bitsPerBand = bitsPerBand;
+    }
+
+    /**
+     * Returns the number of bands.
+     * @return An integer with the number of bands.
+     */
+    public final int getBands() { return bands; }
+
+    /**
+     * Returns the number of bits per band.
+     * @return An integer with the number of bits.
+     */
+    public final int getBitsPerBand() { return bitsPerBand; }
+
+    /**
+     * Hashes the signals of a window into the buckets of every band.
+     * @param signals The signals, row after row.
+     * @param size The number of signals.
+     * @param signalLength The length of every signal.
+     * @return A Buckets object.
+     */
+    Buckets hash(double[] signals, int size, int signalLength) {
+        int bits = bands * bitsPerBand;
+        double[] hyperplanes = new double[bits * signalLength];
+        Random random = new Random(SEED + signalLength);
+        for(int k = 0; k < hyperplanes.length; k++) {
+            hyperplanes[k] = random.nextGaussian();
+        }
+        int[] keys = new int[size * bands];
+        boolean[] zero = new boolean[size];
+        int nonZero = 0;
+        for(int i = 0; i < size; i++) {
+            int a = i * signalLength;
+            zero[i] = true;
+            for(int x = 0; x < signalLength && zero[i]; x++) {
+                zero[i] = (signals[a + x] == 0);
+            }
+            nonZero += zero[i] ? 0 : 1;
+            for(int band = 0, h = 0; band < bands; band++) {
+                int key = 0;
+                for(int bit = 0; bit < bitsPerBand; bit++, h += signalLength) {
+                    double projection = 0;
+                    for(int x = 0; x < signalLength; x++) {
+                        projection += signals[a + x] * hyperplanes[h + x];
+                    }
+                    key = (key << 1) | ((projection >= 0) ? 1 : 0);
+                }
+                keys[i * bands + band] = key;
+            }
+        }
+        //Sort the non-zero signals of every band by key, so a bucket is a range
+        int[] order = new int[bands * nonZero];
+        int[] positions = new int[bands * size];
+        int[] bucketStarts = new int[bands * nonZero];
+        int[] bucketEnds = new int[bands * nonZero];
+        long[] sorted = new long[nonZero];
+        for(int band = 0; band < bands; band++) {
+            int base = band * nonZero;
+            for(int i = 0, n = 0; i < size; i++) {
+                if(!zero[i]) {
+                    sorted[n++] = ((long) keys[i * bands + band] << 32) | i;
+                }
+            }
+            Arrays.sort(sorted);
+            for(int p = 0; p < nonZero; p++) {
+                int i = (int) sorted[p];
+                order[base + p] = i;
+                positions[band * size + i] = p;
+            }
+            for(int p = 0; p < nonZero; ) {
+                int end = p + 1;
+                while(end < nonZero && (sorted[end] >>> 32) == (sorted[p] >>> 32)) {
+                    end++;
+                }
+                for(int q = p; q < end; q++) {
+                    bucketStarts[base + q] = p;
+                    bucketEnds[base + q] = end;
+                }
+                p = end;
+            }
+        }
+        return new Buckets(size, nonZero, zero, order, positions, bucketStarts, bucketEnds);
+    }
+
+    /**
+     * The buckets of the signals of a window in every band.
+     */
+    class Buckets {
+
+        private final int size;
+        private final int nonZero;
+        private final boolean[] zero;
+        private final int[] order; //The signals of every band, by key
+        private final int[] positions; //The position of every signal in order, per band
+        private final int[] bucketStarts; //Per band and position
+        private final int[] bucketEnds;
+
+        Buckets(int size, int nonZero, boolean[] zero, int[] order, int[] positions,
+                int[] bucketStarts, int[] bucketEnds) {
+            this.size = size;
+            this.nonZero = nonZero;
+            this.zero = zero;
+            this.order = order;
+            this.positions = positions;
+            this.bucketStarts = bucketStarts;
+            this.bucketEnds = bucketEnds;
+        }
+
+        /**
+         * Collects the candidates j &gt; i of a signal, in ascending order.
+         * @param i The index of the signal.
+         * @param stamps Scratch array of 'size' values, owned by the caller
+         * and initially -1, which remembers the signals that are collected.
+         * @param candidates The array that receives the candidates.
+         * @return The number of candidates.
+         */
+        int candidates(int i, int[] stamps, int[] candidates) {
+            if(zero[i]) {
+                return 0;
+            }
+            int count = 0;
+            for(int band = 0; band < bands; band++) {
+                int base = band * nonZero;
+                int p = positions[band * size + i];
+                for(int q = bucketStarts[base + p]; q < bucketEnds[base + p]; q++) {
+                    int j = order[base + q];
+                    if(j > i && stamps[j] != i) {
+                        stamps[j] = i;
+                        candidates[count++] = j;
+                    }
+                }
+            }
+            Arrays.sort(candidates, 0, count);
+            return count;
+        }
+    }
+}
@@ -16,6 +16,8 @@
  */
 package com.left8.evs.edmodule.edcow;
 
+import java.util.Arrays;
+
 import org.apache.commons.math3.stat.descriptive.rank.Median;
 
 ////////////////////////////////////////////////////////////////////////////////
@@ -74,4 +76,280 @@ public class EDCoWThreshold {
         Median m = new Median();		
         return (m.evaluate(vecCrossCorrelation) + (gama * mad(vecCrossCorrelation)));		
     }	
+
+    /**
+     * Computes theta2 over the correlations of the distinct pairs of keywords,
+     * i.e. the upper triangle of the matrix without its diagonal, or over
+     * their sample if only the candidate pairs of the matrix are computed.
+     * The median and the MAD are selected in a single copy of the triangle,
+     * instead of sorting the flattened full matrix. If the correlations are
+     * in the bounded mode, theta2 is verified over the computed ones and the
+     * pairs that may pass it are computed, so it is exact as well. In the
+     * float mode, the median and the MAD are selected in a float copy of the
+     * triangle, with the same values as those of a double copy.
+     * @param correlations An EDCoWCorrelationMatrix object, which is not modified.
+     * @param gama Gamma value.
+     * @param sketchCapacity The capacity of an EDCoWQuantileSketch, which
+     * approximates the median and the MAD in two streaming passes without any
+     * copy, or 0 to select them exactly.
+     * @return The threshold.
+     */
+    public double theta2(EDCoWCorrelationMatrix correlations, double gama, int sketchCapacity){
+        if(correlations.getUnknownPairs() > 0) {
+            double theta2 = (sketchCapacity > 0) ? Double.NaN : boundedTheta2(correlations, gama);
+            if(Double.isNaN(theta2)) {
+                correlations.computeAbove(0); //Not verified, so all pairs are needed
+                return theta2(correlations, gama, sketchCapacity);
+            }
+            correlations.computeAbove(theta2); //The pairs that may pass theta2
+            return theta2;
+        }
+        float[] floatTriangle = (correlations.getThresholdSample() != null)
+                ? null : correlations.getFloatUpperTriangle();
+        if(floatTriangle != null) {
+            return floatTheta2(floatTriangle, gama, sketchCapacity);
+        }
+        double[] upperTriangle = (correlations.getThresholdSample() != null)
+                ? correlations.getThresholdSample() : correlations.getUpperTriangle();
+        if(sketchCapacity > 0) {
+            EDCoWQuantileSketch sketch = new EDCoWQuantileSketch(sketchCapacity);
+            for(double x : upperTriangle) {
+                sketch.add(x);
+            }
+            double medianValue = sketch.getQuantile(0.5);
+            EDCoWQuantileSketch deviations = new EDCoWQuantileSketch(sketchCapacity);
+            for(double x : upperTriangle) {
+                deviations.add(Math.abs(x - medianValue));
+            }
+            return (medianValue + (gama * deviations.getQuantile(0.5)));
+        }
+        double[] values = upperTriangle.clone();
+        double medianValue = median(values, 0, values.length);
+        return (medianValue + (gama * mad(values, 0, values.length, medianValue)));
+    }
+
+    private static double floatTheta2(float[] upperTriangle, double gama, int sketchCapacity){
+        if(sketchCapacity > 0) {
+            EDCoWQuantileSketch sketch = new EDCoWQuantileSketch(sketchCapacity);
+            for(float x : upperTriangle) {
+                sketch.add(x);
+            }
+            double medianValue = sketch.getQuantile(0.5);
+            EDCoWQuantileSketch deviations = new EDCoWQuantileSketch(sketchCapacity);
+            for(float x : upperTriangle) {
+                deviations.add(Math.abs(x - medianValue));
+            }
+            return (medianValue + (gama * deviations.getQuantile(0.5)));
+        }
+        float[] values = upperTriangle.clone();
+        double medianValue = median(values, 0, values.length, Double.NaN);
+        return (medianValue + (gama * median(values, 0, values.length, medianValue)));
+    }
+
+    /**
+     * Computes theta2 exactly over the correlations of the bounded mode, if
+     * the pairs that are not computed do not affect it. Those pairs are below
+     * the pruning threshold 't', so they are all lower than the median if at
+     * most half of the pairs are below 't', and their deviations from the
+     * median 'm' exceed m - t, so they are all greater than the MAD if more
+     * than half of the deviations of the computed pairs are at most m - t.
+     * The median and the MAD are interpolated as {@link #median(double[], 
+     * int, int) median()} does.
+     * @return The threshold or NaN if it cannot be verified.
+     */
+    private static double boundedTheta2(EDCoWCorrelationMatrix correlations, double gama){
+        double[] upperTriangle = correlations.getUpperTriangle();
+        double threshold = correlations.getPruningThreshold();
+        int n = upperTriangle.length;
+        int count = 0;
+        for(double x : upperTriangle) {
+            count += (x >= threshold) ? 1 : 0;
+        }
+        double[] above = new double[count]; //The pairs that are at least the threshold are all computed
+        for(int k = 0, a = 0; k < n; k++) {
+            if(upperTriangle[k] >= threshold) {
+                above[a++] = upperTriangle[k];
+            }
+        }
+        if(n < 2) {
+            return Double.NaN;
+        }
+        double pos = (n + 1) / 2.0;
+        int intPos = (int) Math.floor(pos);
+        double dif = pos - intPos;
+        int k = intPos - 1;
+        int below = n - count;
+        if(k < below) {
+            return Double.NaN;
+        }
+        Arrays.sort(above);
+        double lower = above[k - below];
+        double medianValue = lower + dif * (above[k + 1 - below] - lower);
+        double bound = medianValue - threshold;
+        int close = 0;
+        for(int a = 0; a < count; a++) {
+            double deviation = Math.abs(above[a] - medianValue);
+            if(deviation <= bound) {
+                above[close++] = deviation;
+            }
+        }
+        if(close < k + 2) {
+            return Double.NaN;
+        }
+        Arrays.sort(above, 0, close);
+        double mad = above[k] + dif * (above[k + 1] - above[k]);
+        return (medianValue + (gama * mad));
+    }
+
+    /**
+     * Median of values[from, to), as Median.evaluate() computes it, by
+     * quickselect. The values are reordered in place.
+     * @param values The values.
+     * @param from The first value (inclusive).
+     * @param to The last value (exclusive).
+     * @return The median or NaN if the range is empty.
+     */
+    public static double median(double[] values, int from, int to){
+        int n = to - from;
+        if(n == 0) {
+            return Double.NaN;
+        }
+        if(n == 1) {
+            return values[from];
+        }
+        double pos = (n + 1) / 2.0; //Percentile with the legacy estimation, as commons-math
+        int intPos = (int) Math.floor(pos);
+        double dif = pos - intPos;
+        int k = from + intPos - 1;
+        double lower = select(values, from, to, k);
+        double upper = values[k + 1];
+        for(int i = k + 2; i < to; i++) {
+            upper = (values[i] < upper) ? values[i] : upper;
+        }
+        return lower + dif * (upper - lower);
+    }
+
+    /**
+     * Median of the absolute deviations of values[from, to) from their median,
+     * the equation (13) in the paper. The values are replaced by the deviations.
+     * @param values The values.
+     * @param from The first value (inclusive).
+     * @param to The last value (exclusive).
+     * @param medianValue The median of the values.
+     * @return The MAD.
+     */
+    public static double mad(double[] values, int from, int to, double medianValue){
+        for(int i = from; i < to; i++) {
+            values[i] = Math.abs(values[i] - medianValue);
+        }
+        return median(values, from, to);
+    }
+
+    /**
+     * Median of values[from, to), or of their absolute deviations from a
+     * center, with the same value as {@link #median(double[], int, int) 
+     * median()} over their double copies. The deviations are computed in
+     * double when they are compared, so they are not rounded to floats. The
+     * values are reordered in place.
+     * @param values The values.
+     * @param from The first value (inclusive).
+     * @param to The last value (exclusive).
+     * @param center The median of the values for their MAD, or NaN for
+     * their median.
+     * @return The median or NaN if the range is empty.
+     */
+    public static double median(float[] values, int from, int to, double center){
+        int n = to - from;
+        if(n == 0) {
+            return Double.NaN;
+        }
+        if(n == 1) {
+            return key(values[from], center);
+        }
+        double pos = (n + 1) / 2.0;
+        int intPos = (int) Math.floor(pos);
+        double dif = pos - intPos;
+        int k = from + intPos - 1;
+        double lower = select(values, from, to, k, center);
+        double upper = key(values[k + 1], center);
+        for(int i = k + 2; i < to; i++) {
+            double x = key(values[i], center);
+            upper = (x < upper) ? x : upper;
+        }
+        return lower + dif * (upper - lower);
+    }
+
+    private static double key(float value, double center){
+        return Double.isNaN(center) ? value : Math.abs(value - center);
+    }
+
+    /**
+     * The float version of the select() below, which orders the values by
+     * their keys.
+     */
+    private static double select(float[] values, int from, int to, int k, double center){
+        int low = from;
+        int high = to - 1;
+        while(low < high) {
+            double a = key(values[low], center), b = key(values[(low + high) >>> 1], center), c = key(values[high], center);
+            double pivot = (a < b) ? ((b < c) ? b : ((a < c) ? c : a)) : ((a < c) ? a : ((b < c) ? c : b));
+            int lt = low, i = low, gt = high;
+            while(i <= gt) {
+                float value = values[i];
+                double x = key(value, center);
+                if(x < pivot) {
+                    values[i++] = values[lt];
+                    values[lt++] = value;
+                } else if(x > pivot) {
+                    values[i] = values[gt];
+                    values[gt--] = value;
+                } else {
+                    i++;
+                }
+            }
+            if(k < lt) {
+                high = lt - 1;
+            } else if(k > gt) {
+                low = gt + 1;
+            } else {
+                return key(values[k], center);
+            }
+        }
+        return key(values[k], center);
+    }
+
+    /**
+     * Moves the k-th smallest value of values[from, to) to index k, the lower
+     * values before it and the greater after it, with a three-way partition
+     * that stays linear on the many equal (zero) correlations.
+     */
+    private static double select(double[] values, int from, int to, int k){
+        int low = from;
+        int high = to - 1;
+        while(low < high) {
+            double a = values[low], b = values[(low + high) >>> 1], c = values[high];
+            double pivot = (a < b) ? ((b < c) ? b : ((a < c) ? c : a)) : ((a < c) ? a : ((b < c) ? c : b));
+            int lt = low, i = low, gt = high;
+            while(i <= gt) {
+                double x = values[i];
+                if(x < pivot) {
+                    values[i++] = values[lt];
+                    values[lt++] = x;
+                } else if(x > pivot) {
+                    values[i] = values[gt];
+                    values[gt--] = x;
+                } else {
+                    i++;
+                }
+            }
+            if(k < lt) {
+                high = lt - 1;
+            } else if(k > gt) {
+                low = gt + 1;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
 }
@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import com.left8.evs.edmodule.AbstractEDMethod;
+import com.left8.evs.edmodule.data.EDCoWCorpus;
+import com.left8.evs.edmodule.data.TermCounts;
+import com.left8.evs.edmodule.data.TermDictionary;
+import com.left8.evs.edmodule.edcow.event.EDCoWEvent;
+import com.left8.evs.edmodule.edcow.event.EDCoWEvents;
+import com.left8.evs.edmodule.edcow.frequencies.TermFrequencyIndex;
+import com.left8.evs.utilities.PrintUtilities;
+
+/**
+ * Streaming version of {@link EDCoW EDCoW}, which detects the events of every
+ * window as soon as its last time bucket closes. <br>
+ * The buckets are passed one by one to {@link #addBucket(TermCounts, int)
+ * addBucket()}. For every term of the active window, the detector keeps its
+ * SW1 signal over the last two segments of 'delta' buckets and its SW2
+ * signal so far: when a segment closes, the next SW2 value of every term is
+ * computed from the two segments and the older one is dropped. SW1 is
+ * nwt / nt, without the log ratio of EDCoW, which scales all values of a
+ * signal by the same factor and does not change its H-measures, apart
+ * from the rounding of their float norms. When
+ * 'delta2' buckets have accumulated, only the last SW2 value, the thresholds
+ * and the modularity detection of the window remain, and then the state is
+ * cleared, so memory is proportional to the terms of the active window. <br>
+ * The term support is computed over the window, since the size of the whole
+ * stream is unknown. As in EDCoW, the last bucket of every window is left
+ * out.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_2310
+ */
+public class OnlineEDCoW implements AbstractEDMethod {
+    private static final int ROWS_PER_TASK = 64; //Terms per fork/join task of a segment
+
+    private final int delta;
+    private final int delta2;
+    private final int gamma;
+    private final double minTermSupport;
+    private final double maxTermSupport;
+    private final TermDictionary dictionary;
+    private final int level;
+    private final int signalLength;
+    private final int firstBucket; //The stream index of the first bucket of the first window
+    private EDCoWCorpus corpus; //Replayed by apply(), if set
+    private int timeSliceA;
+    private int timeSliceB;
+    public EDCoWEvents events;
+    private long executionTime;
+    private ForkJoinPool signalPool;
+    private boolean useEJML = false;
+    private int thresholdSketchCapacity = 0;
+    private boolean useLouvain = false;
+
+    //State of the active window
+    private int window = 0;
+    private int bucket = 0; //Buckets of the active window that have been added
+    private double windowTweets = 0;
+    private TermCounts rowOfTerm = new TermCounts(); //Row + 1 of every term of the window
+    private int rows = 0;
+    private int[] rowTerms = new int[0];
+    private int[] termSums = new int[0];
+    private double[][] sw = new double[0][]; //SW1 of the previous and the current segment, per row
+    private double[][] sw2 = new double[0][];
+
+    /**
+     * Public constructor for a stream of buckets.
+     * @param delta Delta value (suggested 6).
+     * @param delta2 Delta2 value, namely the number of buckets per window.
+     * @param gamma Gamma value (suggested 5).
+     * @param minTermSupport Minimum term support value in a window (suggested
+     * 0.0001).
+     * @param maxTermSupport Maximum term support value in a window (suggested
+     * 0.01).
+     * @param firstBucket The index of the first bucket of the stream, e.g. 0.
+     * It only offsets the timeslices of the events.
+     * @param dictionary The TermDictionary object of the term IDs of the
+     * buckets.
+     */
+    public OnlineEDCoW(int delta, int delta2, int gamma, double minTermSupport,
+            double maxTermSupport, int firstBucket, TermDictionary dictionary) {
+        this.delta = delta;
+        this.delta2 = delta2;
+        this.gamma = gamma;
+        this.minTermSupport = minTermSupport;
+        this.maxTermSupport = maxTermSupport;
+        this.firstBucket = firstBucket;
+        this.dictionary = dictionary;
+        level = (int) (Math.log(delta) / Math.log(2));
+        signalLength = (delta2 / delta) - 1;
+    }
+
+    /**
+     * Constructor that replays the buckets [timeSliceA, timeSliceB) of a
+     * corpus, one by one, when {@link #apply() apply()} is called.
+     * @param delta Delta value (suggested 6).
+     * @param delta2 Delta2 value, namely the number of buckets per window.
+     * @param gamma Gamma value (suggested 5).
+     * @param minTermSupport Minimum term support value in a window (suggested
+     * 0.0001).
+     * @param maxTermSupport Maximum term support value in a window (suggested
+     * 0.01).
+     * @param timeSliceA Starting timeslice.
+     * @param timeSliceB Ending timeslice.
+     * @param corpus An EDCoWCorpus object.
+     */
+    public OnlineEDCoW(int delta, int delta2, int gamma, double minTermSupport,
+            double maxTermSupport, int timeSliceA, int timeSliceB, EDCoWCorpus corpus) {
+        this(delta, delta2, gamma, minTermSupport, maxTermSupport, timeSliceA,
+                corpus.getDictionary());
+        this.timeSliceA = timeSliceA;
+        this.timeSliceB = timeSliceB;
+        this.corpus = corpus;
+    }
+
+    @Override
+    public String getName() {
+        return "Online EDCoW";
+    }
+
+    @Override
+    public String getCitation() {
+        return "<li><b>EDCoW:</b> J. Weng and B. Lee (2011) Event Detection in Twitter, In Proceedings of the 2011 AAAI Conference on Weblogs and Social Media (ICWSM), pp. 401-408</li>";
+    }
+
+    @Override
+    public String getAuthors() {
+        return "J. Weng and B. Lee";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Streaming event detection with clustering of wavelet-based signals";
+    }
+
+    /**
+     * Replays the buckets of the corpus of the {@link #OnlineEDCoW(int, int,
+     * int, double, double, int, int, EDCoWCorpus) second constructor} and
+     * collects the events of all windows in {@link #events events}.
+     */
+    @Override
+    public void apply() {
+        long startTime = System.currentTimeMillis();
+        if(corpus == null) {
+            PrintUtilities.printErrorMessageln("Online EDCoW can only replay the buckets of a corpus.");
+            return;
+        }
+
+        //The index is term-major, so the buckets are built from a single pass over it
+        TermCounts[] buckets = new TermCounts[timeSliceB - timeSliceA];
+        for(int b = 0; b < buckets.length; b++) {
+            buckets[b] = new TermCounts();
+        }
+        TermFrequencyIndex index = corpus.getTermFrequencyIndex();
+        index.forEachRow((term, docIds, frequencies, from, to) -> {
+            for(int k = from; k < to; k++) {
+                if(docIds[k] >= timeSliceA && docIds[k] < timeSliceB) {
+                    buckets[docIds[k] - timeSliceA].add(term, frequencies[k]);
+                }
+            }
+        });
+        Integer[] distribution = corpus.getNumberOfDocuments();
+        LinkedList<EDCoWEvent_> eventList = new LinkedList<>();
+        for(int b = 0; b < buckets.length; b++) {
+            eventList.addAll(addBucket(buckets[b], distribution[timeSliceA + b]));
+            buckets[b] = null;
+        }
+        shutdown();
+        Collections.sort(eventList);
+        events = new EDCoWEvents();
+        eventList.stream().forEach((event) -> {
+            events.list.add(new EDCoWEvent(
+                    event.getKeywordsIDsAsString(),
+                    corpus.getDateFromTimeSlice(
+                            (int)event.startSlice) + ","
+                            + corpus.getDateFromTimeSlice((int)event.endSlice - 1),
+                    corpus.getIDsOfWindow(
+                            (int)event.startSlice, (int)event.endSlice)));
+        });
+        events.setFullList();
+
+        long endTime = System.currentTimeMillis();
+        executionTime = (endTime - startTime) / 1000;
+        PrintUtilities.printExecutionTime(startTime, endTime, OnlineEDCoW.class.getName(),
+                Thread.currentThread().getStackTrace()[1].getMethodName());
+    }
+
+    /**
+     * Adds the next bucket of the stream, once it has closed.
+     * @param terms The IDs of the terms of the bucket and their frequencies.
+     * @param numberOfTweets The number of tweets of the bucket.
+     * @return A LinkedList with the events of the window that closed with
+     * this bucket, empty if the window is still open.
+     */
+    public final LinkedList<EDCoWEvent_> addBucket(TermCounts terms, int numberOfTweets) {
+        int position = delta + bucket % delta;
+        if(bucket < delta2 - 1 && numberOfTweets > 0) { //The last bucket of a window is left out
+            double nt = numberOfTweets;
+            windowTweets += nt;
+            terms.forEach((term, count) -> {
+                int row = getRow(term);
+                sw[row][position] = count / nt;
+                termSums[row] += count;
+            });
+        }
+        bucket++;
+        if(bucket % delta == 0) {
+            closeSegment(bucket / delta);
+        }
+        if(bucket < delta2) {
+            return new LinkedList<>();
+        }
+        LinkedList<EDCoWEvent_> windowEvents;
+        try {
+            windowEvents = detectEvents();
+        } catch (Exception ex) {
+            Logger.getLogger(OnlineEDCoW.class.getName()).log(Level.SEVERE, null, ex);
+            windowEvents = new LinkedList<>();
+        }
+        window++;
+        bucket = 0;
+        windowTweets = 0;
+        rowOfTerm = new TermCounts();
+        rows = 0;
+        return windowEvents;
+    }
+
+    /**
+     * Returns the row of a term in the active window, creating it if the term
+     * has not occurred in the window yet.
+     */
+    private int getRow(int term) {
+        int row = rowOfTerm.get(term) - 1;
+        if(row >= 0) {
+            return row;
+        }
+        row = rows++;
+        rowOfTerm.add(term, row + 1);
+        if(row == rowTerms.length) {
+            int capacity = Math.max(64, row * 2);
+            rowTerms = Arrays.copyOf(rowTerms, capacity);
+            termSums = Arrays.copyOf(termSums, capacity);
+            sw = Arrays.copyOf(sw, capacity);
+            sw2 = Arrays.copyOf(sw2, capacity);
+        }
+        if(sw[row] == null) {
+            sw[row] = new double[delta * 2];
+            sw2[row] = new double[Math.max(0, signalLength)];
+        } else { //Reused from a previous window
+            Arrays.fill(sw[row], 0);
+            Arrays.fill(sw2[row], 0);
+        }
+        rowTerms[row] = term;
+        termSums[row] = 0;
+        return row;
+    }
+
+    /**
+     * Computes the SW2 value of every term that ends with a segment and moves
+     * the segment to the first half of the SW1 buffers.
+     * @param segment The number of segments of the window that have closed.
+     */
+    private void closeSegment(int segment) {
+        int step = (segment >= 2) ? segment - 2 : -1;
+        if(signalPool == null || rows <= ROWS_PER_TASK) {
+            computeSteps(0, rows, step);
+        } else {
+            signalPool.invoke(new StepTask(0, rows, step));
+        }
+    }
+
+    /**
+     * Computes an SW2 value of the rows [from, to).
+     * @param step The index of the SW2 value or -1 to only move the segment.
+     */
+    private void computeSteps(int from, int to, int step) {
+        EDCoWSignalConstruction signWavelet = new EDCoWSignalConstruction();
+        for(int row = from; row < to; row++) {
+            if(step >= 0) {
+                signWavelet.secondSignalConstruction(sw[row], delta, level, sw2[row], step);
+            }
+            System.arraycopy(sw[row], delta, sw[row], 0, delta);
+            Arrays.fill(sw[row], delta, delta * 2, 0);
+        }
+    }
+
+    /**
+     * Detects the events of the active window from the SW2 signals of its
+     * supported terms.
+     * @return A LinkedList with the events of the window.
+     * @throws java.lang.Exception General Exception.
+     */
+    private LinkedList<EDCoWEvent_> detectEvents() throws Exception {
+        double minTermOccur = minTermSupport * windowTweets;
+        double maxTermOccur = maxTermSupport * windowTweets;
+        int[] supported = IntStream.range(0, rows)
+                .filter((row) -> dictionary.getTermLength(rowTerms[row]) > 1)
+                .filter((row) -> termSums[row] > minTermOccur && termSums[row] < maxTermOccur)
+                .boxed()
+                .sorted((a, b) -> Integer.compare(rowTerms[a], rowTerms[b]))
+                .mapToInt(Integer::intValue).toArray();
+        if(signalLength <= 0 || supported.length == 0) {
+            return new LinkedList<>();
+        }
+        EDCoWCrossCorrelationZeroTime cc = new EDCoWCrossCorrelationZeroTime();
+        double[] autoCorrelationValues = new double[supported.length];
+        for(int k = 0; k < supported.length; k++) {
+            autoCorrelationValues[k] = cc.autoCorrelationZeroTime(sw2[supported[k]], 0, signalLength);
+        }
+        EDCoWThreshold th1 = new EDCoWThreshold();
+        double theta1 = th1.theta1(autoCorrelationValues, gamma);
+
+        // Removing trivial keywords based on theta1
+        int[] keyWordsList1 = IntStream.range(0, supported.length)
+                .filter((k) -> (autoCorrelationValues[k] > theta1)).toArray();
+        int[] termIdsList1 = new int[keyWordsList1.length];
+        double[] signals = new double[keyWordsList1.length * signalLength];
+        for(int i = 0; i < keyWordsList1.length; i++) {
+            int row = supported[keyWordsList1[i]];
+            termIdsList1[i] = rowTerms[row];
+            System.arraycopy(sw2[row], 0, signals, i * signalLength, signalLength);
+        }
+
+        EDCoWCorrelationMatrix bigMatrix = new EDCoWCorrelationMatrix(signals,
+                keyWordsList1.length, signalLength, signalPool, useEJML);
+        double theta2 = th1.theta2(bigMatrix, gamma, thresholdSketchCapacity);
+        bigMatrix.filter(theta2);
+        int startSlice = firstBucket + window * delta2;
+        int endSlice = startSlice + delta2 - 1;
+        EDCoWModularityDetection modularity = new EDCoWModularityDetection(
+                termIdsList1, bigMatrix, startSlice, endSlice, dictionary,
+                useLouvain ? new EDCoWLouvain(signalPool) : null);
+
+        double thresholdE = 0.1;
+        modularity.saveEvents(thresholdE);
+        return modularity.getEvents();
+    }
+
+    /**
+     * Returns the execution time of {@link #apply() apply()} in seconds.
+     * @return A long containing the running time of the algorithm.
+     */
+    @Override
+    public final long getExecutionTime() { return executionTime; }
+
+    /**
+     * Returns the number of terms of the active window.
+     * @return An integer with the number of terms whose signals are kept.
+     */
+    public final int getNumberOfActiveTerms() { return rows; }
+
+    /**
+     * Sets the number of threads that compute the signals, the correlations
+     * and the Louvain communities of every window.
+     * @param threads The number of threads, e.g. {@link
+     * com.left8.evs.utilities.Config#getSignalThreads() Config.getSignalThreads()}.
+     * Values lower than 2 compute them in the thread that adds the buckets.
+     */
+    public final void setSignalThreads(int threads) {
+        shutdown();
+        signalPool = (threads < 2) ? null : new ForkJoinPool(threads);
+    }
+
+    /**
+     * Releases the threads of {@link #setSignalThreads(int) setSignalThreads()}.
+     * The next windows are computed in the thread that adds the buckets.
+     */
+    public final void shutdown() {
+        if(signalPool != null) {
+            signalPool.shutdown();
+            signalPool = null;
+        }
+    }
+
+    /**
+     * Sets the engine that computes the cross correlations of the keywords.
+     * @param useEJML True to use EJML, false to use the tiles (default).
+     * @see EDCoW#setUseEJML(boolean) EDCoW.setUseEJML() method.
+     */
+    public final void setUseEJML(boolean useEJML) { this.useEJML = useEJML; }
+
+    /**
+     * Sets how theta2 is computed over the cross correlations of a window.
+     * @param capacity The capacity of an EDCoWQuantileSketch or 0 to compute
+     * theta2 exactly (default).
+     * @see EDCoW#setThresholdSketchCapacity(int) EDCoW.setThresholdSketchCapacity() method.
+     */
+    public final void setThresholdSketchCapacity(int capacity) { this.thresholdSketchCapacity = capacity; }
+
+    /**
+     * Sets the community detection of every window.
+     * @param useLouvain True to use EDCoWLouvain, false to use jmod (default).
+     * @see EDCoW#setUseLouvain(boolean) EDCoW.setUseLouvain() method.
+     */
+    public final void setUseLouvain(boolean useLouvain) { this.useLouvain = useLouvain; }
+
+    /**
+     * Fork/join task that computes an SW2 value of a range of rows, by
+     * splitting it in halves.
+     */
+    private class StepTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int step;
+
+        StepTask(int from, int to, int step) {
+            this.from = from;
+            this.to = to;
+            this.step = step;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= ROWS_PER_TASK) {
+                computeSteps(from, to, step);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StepTask(from, middle, step), new StepTask(middle, to, step));
+            }
+        }
+    }
+}
@@ -22,26 +22,28 @@ import javafx.beans.property.SimpleStringProperty;
 import java.io.IOException;
 import java.io.Serializable;
 
+import com.left8.evs.edmodule.data.WindowTweetIDs;
+
 /**
  *
  * @author  Adrien GUILLE, Laboratoire ERIC, Université Lumière Lyon 2
  * @author  Lefteris Paraskevas
- * @version 2016.03.27_2349
+ * @version 2026.10.18_1700
  */
 public class EDCoWEvent implements Serializable {
     private SimpleStringProperty textualDescription;
     private SimpleStringProperty temporalDescription;
-    private SimpleStringProperty physicalDescription;
+    private WindowTweetIDs tweetIDs; //Stringified only when the physical description is requested
     private SimpleDoubleProperty score;
 
-    public EDCoWEvent(String text, String temp, String physical) {
-        this(text, temp, physical, 0);
+    public EDCoWEvent(String text, String temp, WindowTweetIDs tweetIDs) {
+        this(text, temp, tweetIDs, 0);
     }
 
-    public EDCoWEvent(String text, String temp, String physical, double score) {
+    public EDCoWEvent(String text, String temp, WindowTweetIDs tweetIDs, double score) {
         textualDescription = new SimpleStringProperty(text);
         temporalDescription = new SimpleStringProperty(temp);
-        physicalDescription = new SimpleStringProperty(physical);
+        this.tweetIDs = tweetIDs;
         this.score = new SimpleDoubleProperty(score);
     }
 
@@ -54,7 +56,11 @@ public class EDCoWEvent implements Serializable {
     }
     
     public String getPhysicalDescription() {
-        return physicalDescription.get();
+        return tweetIDs.toString();
+    }
+    
+    public WindowTweetIDs getTweetIDs() {
+        return tweetIDs;
     }
     
     public String getTemporalDescriptionLowerBound() {
@@ -96,4 +102,4 @@ public class EDCoWEvent implements Serializable {
             throw new IOException(ignored);
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
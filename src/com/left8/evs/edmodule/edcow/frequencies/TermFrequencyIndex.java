@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.edcow.frequencies;
+
+import java.util.Arrays;
+
+/**
+ * Term-major (compressed sparse row) index of term frequencies. <br>
+ * Row 't' holds the documents (time slices) in which term 't' occurs, sorted
+ * by document ID, along with the corresponding frequencies. All rows share
+ * three primitive arrays, so a term's frequencies are read in O(row length)
+ * instead of scanning every document/term/frequency triplet of the corpus. <br>
+ * Documents can be appended after the last one, through
+ * {@link #append(int, int, int) append()}. The appended entries are kept in a
+ * tail and folded into the rows the next time the rows are read, so an append
+ * costs O(new entries) and the rows are rebuilt once per batch of appends.
+ * Reading while another thread appends is not safe.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class TermFrequencyIndex {
+
+    private int numberOfTerms;
+    private int numberOfDocuments;
+    private int[] rowOffsets; //Row 't' spans [rowOffsets[t], rowOffsets[t + 1])
+    private int[] docIds;
+    private int[] frequencies;
+    private int[] termTotals; //Total frequency of every term in the corpus
+    private int termCount; //Number of terms, the appended ones included
+    private int[] tailTerms = new int[0]; //Appended entries, not yet folded into the rows
+    private int[] tailDocIds = new int[0];
+    private int[] tailFrequencies = new int[0];
+    private int tailSize = 0;
+    private int firstAppendableDocument; //Documents before this one are closed
+
+    /**
+     * Visitor for the bulk iteration over all rows of the index.
+     * @see #forEachRow(RowVisitor) forEachRow() method.
+     */
+    public interface RowVisitor {
+
+        /**
+         * Visits a single row of the index. The row's entries are the
+         * elements [from, to) of the shared 'docIds' and 'frequencies' arrays,
+         * which must not be modified.
+         * @param term The ID of the term.
+         * @param docIds The document IDs of all rows.
+         * @param frequencies The frequencies of all rows.
+         * @param from The first entry of the row (inclusive).
+         * @param to The last entry of the row (exclusive).
+         */
+        public void visit(int term, int[] docIds, int[] frequencies, int from, int to);
+    }
+
+    /**
+     * Public constructor. The arrays are stored as given, without copying.
+     * @param numberOfDocuments The number of documents (time slices) of the corpus.
+     * @param rowOffsets An array of (number of terms + 1) offsets into the
+     * 'docIds' and 'frequencies' arrays.
+     * @param docIds The document IDs of every row, sorted within the row.
+     * @param frequencies The frequency of the term in the corresponding document.
+     */
+    public TermFrequencyIndex(int numberOfDocuments, int[] rowOffsets,
+            int[] docIds, int[] frequencies) {
+        this.numberOfTerms = rowOffsets.length - 1;
+        this.numberOfDocuments = numberOfDocuments;
+        this.rowOffsets = rowOffsets;
+        this.docIds = docIds;
+        this.frequencies = frequencies;
+        this.termTotals = new int[numberOfTerms];
+        this.termCount = numberOfTerms;
+        this.firstAppendableDocument = numberOfDocuments;
+        for(int term = 0; term < numberOfTerms; term++) {
+            int total = 0;
+            for(int k = rowOffsets[term]; k < rowOffsets[term + 1]; k++) {
+                total += frequencies[k];
+            }
+            termTotals[term] = total;
+        }
+    }
+
+    /**
+     * Returns the number of terms (rows) of the index.
+     * @return An integer with the number of terms.
+     */
+    public final int getNumberOfTerms() { return termCount; }
+
+    /**
+     * Returns the number of documents (columns) of the index.
+     * @return An integer with the number of documents.
+     */
+    public final int getNumberOfDocuments() { return numberOfDocuments; }
+
+    /**
+     * Returns the number of non-zero entries of the index.
+     * @return An integer with the number of stored document/term pairs.
+     */
+    public final int getNumberOfEntries() { return rowOffsets[numberOfTerms] + tailSize; }
+
+    /**
+     * Returns the total frequency of a term in all documents.
+     * @param term The ID of the term.
+     * @return An integer with the total frequency.
+     */
+    public final int getTermTotal(int term) {
+        return term < termCount ? termTotals[term] : 0;
+    }
+
+    /**
+     * Returns the document IDs in which a term occurs, as a new array.
+     * @param term The ID of the term.
+     * @return An integer array, sorted in ascending order, which is empty if
+     * the term is not in the index.
+     */
+    public final int[] getRowDocIds(int term) {
+        foldTail();
+        if(term >= numberOfTerms) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(docIds, rowOffsets[term], rowOffsets[term + 1]);
+    }
+
+    /**
+     * Returns the frequencies of a term in the documents returned by
+     * {@link #getRowDocIds(int) getRowDocIds()}, as a new array.
+     * @param term The ID of the term.
+     * @return An integer array, which is empty if the term is not in the index.
+     */
+    public final int[] getRowFrequencies(int term) {
+        foldTail();
+        if(term >= numberOfTerms) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(frequencies, rowOffsets[term], rowOffsets[term + 1]);
+    }
+
+    /**
+     * Returns the frequencies of a term in all documents, zeros included.
+     * @param term The ID of the term.
+     * @return An integer array of 'numberOfDocuments' length.
+     */
+    public final int[] getDenseRow(int term) {
+        int[] row = new int[numberOfDocuments];
+        fillDenseRow(term, row);
+        return row;
+    }
+
+    /**
+     * Writes the frequencies of a term in all documents into a caller-supplied
+     * array. Only the non-zero positions are written, so the array is expected
+     * to be zeroed.
+     * @param term The ID of the term.
+     * @param row An integer array of at least 'numberOfDocuments' length.
+     */
+    public final void fillDenseRow(int term, int[] row) {
+        foldTail();
+        if(term >= numberOfTerms) {
+            return;
+        }
+        for(int k = rowOffsets[term]; k < rowOffsets[term + 1]; k++) {
+            row[docIds[k]] = frequencies[k];
+        }
+    }
+
+    /**
+     * Iterates once over all rows of the index, in ascending term ID order.
+     * @param visitor A RowVisitor object.
+     */
+    public final void forEachRow(RowVisitor visitor) {
+        foldTail();
+        for(int term = 0; term < numberOfTerms; term++) {
+            visitor.visit(term, docIds, frequencies, rowOffsets[term], rowOffsets[term + 1]);
+        }
+    }
+    
+    /**
+     * Appends the frequency of a term in a new document. <br>
+     * The documents of the index are closed, except for the one that was last
+     * appended to, so appends must be made in ascending document order and
+     * with at most one entry per term and document. Terms with higher IDs
+     * than the existing ones are added to the index.
+     * @param term The ID of the term.
+     * @param document The ID of the document.
+     * @param frequency The frequency of the term in the document.
+     */
+    public final void append(int term, int document, int frequency) {
+        if(document < firstAppendableDocument) {
+            throw new IllegalArgumentException("Document " + document 
+                    + " is closed, the next appendable document is " + firstAppendableDocument);
+        }
+        firstAppendableDocument = document;
+        if(tailSize == tailTerms.length) {
+            int capacity = Math.max(16, tailSize * 2);
+            tailTerms = Arrays.copyOf(tailTerms, capacity);
+            tailDocIds = Arrays.copyOf(tailDocIds, capacity);
+            tailFrequencies = Arrays.copyOf(tailFrequencies, capacity);
+        }
+        tailTerms[tailSize] = term;
+        tailDocIds[tailSize] = document;
+        tailFrequencies[tailSize] = frequency;
+        tailSize++;
+        if(term >= termTotals.length) {
+            termTotals = Arrays.copyOf(termTotals, Math.max(term + 1, termTotals.length * 2));
+        }
+        termTotals[term] += frequency;
+        termCount = Math.max(termCount, term + 1);
+        numberOfDocuments = Math.max(numberOfDocuments, document + 1);
+    }
+    
+    /**
+     * Extends the index to a number of documents, e.g. when the last appended
+     * documents contain no terms at all, and closes all documents. The index
+     * is never shrunk.
+     * @param numberOfDocuments The new number of documents.
+     */
+    public final void setNumberOfDocuments(int numberOfDocuments) {
+        this.numberOfDocuments = Math.max(this.numberOfDocuments, numberOfDocuments);
+        firstAppendableDocument = this.numberOfDocuments;
+    }
+    
+    /**
+     * Folds the appended entries into the rows. Every existing row is copied
+     * once and the tail entries are placed right after it; since they belong
+     * to later documents, every row stays sorted.
+     */
+    private void foldTail() {
+        if(tailSize == 0) {
+            return;
+        }
+        int newNumberOfTerms = termCount;
+        int[] newOffsets = new int[newNumberOfTerms + 1];
+        for(int term = 0; term < numberOfTerms; term++) {
+            newOffsets[term + 1] = rowOffsets[term + 1] - rowOffsets[term];
+        }
+        for(int k = 0; k < tailSize; k++) {
+            newOffsets[tailTerms[k] + 1]++;
+        }
+        for(int term = 0; term < newNumberOfTerms; term++) {
+            newOffsets[term + 1] += newOffsets[term];
+        }
+        
+        int[] newDocIds = new int[newOffsets[newNumberOfTerms]];
+        int[] newFrequencies = new int[newOffsets[newNumberOfTerms]];
+        int[] nextEntry = new int[newNumberOfTerms];
+        for(int term = 0; term < newNumberOfTerms; term++) {
+            int length = term < numberOfTerms ? rowOffsets[term + 1] - rowOffsets[term] : 0;
+            if(length > 0) {
+                System.arraycopy(docIds, rowOffsets[term], newDocIds, newOffsets[term], length);
+                System.arraycopy(frequencies, rowOffsets[term], newFrequencies, newOffsets[term], length);
+            }
+            nextEntry[term] = newOffsets[term] + length;
+        }
+        for(int k = 0; k < tailSize; k++) { //The tail is in document order
+            int entry = nextEntry[tailTerms[k]]++;
+            newDocIds[entry] = tailDocIds[k];
+            newFrequencies[entry] = tailFrequencies[k];
+        }
+        
+        numberOfTerms = newNumberOfTerms;
+        rowOffsets = newOffsets;
+        docIds = newDocIds;
+        frequencies = newFrequencies;
+        tailTerms = new int[0];
+        tailDocIds = new int[0];
+        tailFrequencies = new int[0];
+        tailSize = 0;
+    }
+}
@@ -17,12 +17,10 @@
 package com.left8.evs.edmodule.peakfinding;
 
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 
-import com.left8.evs.edmodule.utils.StringDateUtils;
 import com.left8.evs.edmodule.utils.BinPair;
+import com.left8.evs.edmodule.utils.TimeBucketer;
 import com.left8.evs.edmodule.data.PeakFindingCorpus;
 import com.left8.evs.utilities.Config;
 import com.left8.evs.utilities.PrintUtilities;
@@ -30,7 +28,7 @@ import com.left8.evs.utilities.PrintUtilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1253
+ * @version 2026.10.18_1120
  */
 public class BinsCreator {
     
@@ -46,37 +44,19 @@ public class BinsCreator {
      * For half an hour interval --&gt; 30. <br>
      * For 5 hours interval --&gt; 300.
      * @return An List of BinPair objects containing the bins.
-     * @see StringDateUtils StringDateUtils class.
+     * @see TimeBucketer TimeBucketer class.
      * @see BinPair BinPair class.
      */
     public final static List<BinPair<String, Integer>> createBins(PeakFindingCorpus corpus, Config config, int refreshWindow) {
         long startTime = System.currentTimeMillis();
         
-        HashMap<String, Integer> binsHash = corpus.createCorpus(refreshWindow);
+        int[] binsCounts = corpus.createCorpus(refreshWindow);
+        TimeBucketer bucketer = corpus.getBucketer();
         
-        List<BinPair<String, Integer>> bins = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-        
-        //Get earliest and latest dates of corpus
-        String earliestKey = StringDateUtils.getDateKey(cal, corpus.getEarliestDateOfCorpus(), refreshWindow);
-        String latestKey = StringDateUtils.getDateKey(cal, corpus.getLatestDateOfCorpus(), refreshWindow);
-        int value;
-        
-        StringDateUtils.clearAndSetYearToMinute(cal, latestKey);
-        long endMillis = cal.getTimeInMillis();
-        StringDateUtils.clearAndSetYearToMinute(cal, earliestKey);
-        
-        //Iterate between the two dates and store all the corresponding 10-minute windows
-        for (; cal.getTimeInMillis() <= endMillis; cal.add(Calendar.MINUTE, 10)) {
-            
-            String currentKey = StringDateUtils.getDateKey(cal, cal.getTime(), refreshWindow);
-            if(binsHash.containsKey(currentKey)) {
-                value = binsHash.get(currentKey);
-            } else {
-                value = 0;
-            }
-            BinPair pair = new BinPair(currentKey, value);
-            bins.add(pair);
+        //Every bucket between the earliest and the latest date of corpus becomes a bin
+        List<BinPair<String, Integer>> bins = new ArrayList<>(binsCounts.length);
+        for(int bucket = 0; bucket < binsCounts.length; bucket++) {
+            bins.add(new BinPair<>(bucketer.getLabel(bucket), binsCounts[bucket]));
         }
         
         long endTime = System.currentTimeMillis();
@@ -17,16 +17,14 @@
 package com.left8.evs.edmodule.peakfinding.event;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
 
 import com.left8.evs.edmodule.data.PeakFindingCorpus;
+import com.left8.evs.edmodule.data.TermCounts;
+import com.left8.evs.edmodule.data.TermDictionary;
+import com.left8.evs.edmodule.data.TweetTerms;
 import com.left8.evs.edmodule.peakfinding.Window;
-import com.left8.evs.edmodule.utils.Stemmers;
-import com.left8.evs.preprocessingmodule.language.LangUtils;
-import com.left8.evs.preprocessingmodule.nlp.Tokenizer;
 import com.left8.evs.preprocessingmodule.nlp.stemming.StemUtils;
 import com.left8.evs.utilities.PrintUtilities;
 import com.left8.evs.utilities.dsretriever.Tweet;
@@ -34,7 +32,7 @@ import com.left8.evs.utilities.dsretriever.Tweet;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1255
+ * @version 2026.10.18_1800
  */
 public class PeakFindingEvent {
     
@@ -42,7 +40,7 @@ public class PeakFindingEvent {
     private final Window<Integer, Integer> window;
     private final List<Tweet> tweetsOfEvent;
     private final List<String> commonTerms = new ArrayList<>();
-    private HashSet<String> allTerms;
+    private int[] allTermIds; //IDs of all the terms of the event
     private final PeakFindingCorpus corpus;
     private final StemUtils stemsHandler;
     
@@ -58,9 +56,9 @@ public class PeakFindingEvent {
             PeakFindingCorpus corpus) {
         this.id = id;
         this.window = window;
-        this.tweetsOfEvent = new ArrayList<>(tweetsOfEvent);
+        this.tweetsOfEvent = tweetsOfEvent; //Read-only view of the buckets of the event
         this.corpus = corpus;
-        this.stemsHandler =  new StemUtils();
+        this.stemsHandler = corpus.getTweetTerms().getStemsHandler();
         generateCommonTerms();
     }
     
@@ -85,31 +83,29 @@ public class PeakFindingEvent {
     /**
      * Generates a List with the most common terms of the tweetsOfEvent that belong
      * to the specific event. <br>
-     * More formally, it parses every single tweet of the event, tokenizes it
-     * and stores the terms in a HashMap with their respective occurencies as
-     * values.
+     * More formally, it counts the cached terms of every single tweet of
+     * the event, so no tweet is tokenized again.
      */
     private void generateCommonTerms() {
-        HashMap<String, Integer> unsortedTokens = new HashMap<>();
+        TweetTerms tweetTerms = corpus.getTweetTerms();
+        TermCounts unsortedTokens = new TermCounts();
         
-        tweetsOfEvent.stream().forEach((tweet) -> {
-            String text = tweet.getText();
-            Tokenizer tokens = new Tokenizer(corpus.getConfigHandler(), text, 
-                    corpus.getStopWordsHandlers().getSWHandlerAccordingToLanguage
-                            (LangUtils.getLangISOFromString(tweet.getLanguage())));
-            stemsHandler.getStemsAsList(tokens.getCleanTokensAndHashtags(),
-                    Stemmers.getStemmer(LangUtils.getLangISOFromString(
-                            tweet.getLanguage())))
-                            .stream().forEach((token) -> {
-                                if(unsortedTokens.containsKey(token)) {
-                                    unsortedTokens.put(token, unsortedTokens.get(token) + 1); //Count it
-                                } else {
-                                    unsortedTokens.put(token, 1);
-                                }
-                            });
+        //The terms of the tweets were cached when the corpus was created
+        corpus.getTweetsByWindow().forEachOrdinal(window.getStart(), window.getEnd(), 
+                (tweet) -> {
+                    tweetTerms.forEachTerm(tweet, (term) -> {
+                        unsortedTokens.add(term, 1); //Count it
+                    });
+                });
+        allTermIds = new int[unsortedTokens.size()];
+        int[] counts = new int[unsortedTokens.size()];
+        int[] position = {0};
+        unsortedTokens.forEach((term, count) -> {
+            allTermIds[position[0]] = term;
+            counts[position[0]] = count;
+            position[0]++;
         });
-        allTerms = new HashSet<>(unsortedTokens.keySet());
-        sortMapByValue(unsortedTokens, stemsHandler);
+        selectCommonTerms(allTermIds, counts, stemsHandler);
     }
     
     /**
@@ -132,7 +128,26 @@ public class PeakFindingEvent {
      * Returns all extracted terms of the event.
      * @return A HashSet containing the terms of the event.
      */
-    public final HashSet<String> getAllTerms() { return allTerms; } 
+    public final HashSet<String> getAllTerms() {
+        HashSet<String> allTerms = new HashSet<>();
+        TermDictionary dictionary = corpus.getDictionary();
+        for(int term : allTermIds) {
+            allTerms.add(dictionary.getTerm(term));
+        }
+        return allTerms;
+    }
+    
+    /**
+     * Returns the IDs of all the terms of the event.
+     * @return An integer array with IDs of the corpus' TermDictionary.
+     */
+    public final int[] getAllTermIDs() { return allTermIds; }
+    
+    /**
+     * Returns the dictionary of the terms of the event.
+     * @return A TermDictionary object.
+     */
+    public final TermDictionary getDictionary() { return corpus.getDictionary(); }
     
     /**
      * Returns all extracted tweet IDs of the event.
@@ -166,31 +181,30 @@ public class PeakFindingEvent {
     }
     
     /**
-     * Auxiliary method to sort a Map by value.
-     * @param unsortedMap The Map to be sorted.
+     * Auxiliary method to select the five most common terms. Only the
+     * selected terms are converted into Strings. Ties are resolved in favour
+     * of the term that was seen first.
+     * @param terms The IDs of the terms.
+     * @param counts The frequencies of the terms.
      * @param stemHandler A StemUtils object.
      */
-    public final void sortMapByValue(HashMap<String, Integer> unsortedMap, StemUtils stemHandler) {
-        //Initialize variables
-        Entry<String,Integer> entry;
-        String currentKey;
-        int currentValue;
+    public final void selectCommonTerms(int[] terms, int[] counts, StemUtils stemHandler) {
+        TermDictionary dictionary = corpus.getDictionary();
+        boolean[] selected = new boolean[terms.length];
         
         //Get the 5 greatest tokens by value
-        //If the HashMap has less than 5 elements, just sort them
-        int size = (unsortedMap.keySet().size() < 5 ? unsortedMap.size() : 5);
+        //If there are less than 5 terms, just sort them
+        int size = (terms.length < 5 ? terms.length : 5);
         for(int i = 0; i < size; i++) {
-            entry = unsortedMap.entrySet().iterator().next();
-            currentKey = entry.getKey();
-            currentValue = entry.getValue();
-            for(String key : unsortedMap.keySet()) {
-                if(unsortedMap.get(key) > currentValue) {
-                    currentValue = unsortedMap.get(key);
-                    currentKey = key;
+            int current = -1;
+            for(int j = 0; j < terms.length; j++) {
+                if(!selected[j] && (current == -1 || counts[j] > counts[current]
+                        || (counts[j] == counts[current] && terms[j] < terms[current]))) {
+                    current = j;
                 }
             }
-            commonTerms.add(stemHandler.getOriginalWord(currentKey));
-            unsortedMap.remove(currentKey);
+            selected[current] = true;
+            commonTerms.add(stemHandler.getOriginalWord(dictionary.getTerm(terms[current])));
         }
     }
         
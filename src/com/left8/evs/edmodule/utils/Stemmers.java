@@ -30,7 +30,7 @@ import com.left8.evs.preprocessingmodule.nlp.stemming.Stemmer;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.02.19_1712
+ * @version 2026.10.18_1130
  */
 public class Stemmers {
     
@@ -83,4 +83,34 @@ public class Stemmers {
             return enStem; //Fall back for unknown languages and english tweets
         }
     }
+    
+    /**
+     * Returns a new Stemmer according to a given language. <br>
+     * The Stemmers are not thread safe, so every thread that stems text
+     * concurrently must use its own instances instead of the shared ones
+     * returned by {@link #getStemmer(LanguageCodes) getStemmer()}.
+     * @param isoCode A LanguageCodes enumeration containing the ISO code of the text's language.
+     * @return A new Stemmer
+     */
+    public static Stemmer newStemmer(LanguageCodes isoCode) {
+        if(isoCode.equals(LanguageCodes.ar)) {
+            return new ArabicStemming();
+        } else if(isoCode.equals(LanguageCodes.de)) {
+            return new GermanStemming();
+        } else if(isoCode.equals(LanguageCodes.en)) {
+            return new EnglishStemming();
+        } else if(isoCode.equals(LanguageCodes.es)) {
+            return new SpanishStemming();
+        } else if(isoCode.equals(LanguageCodes.fa)) {
+            return new PersianStemming();
+        } else if(isoCode.equals(LanguageCodes.fr)) {
+            return new FrenchStemming();
+        } else if(isoCode.equals(LanguageCodes.gr)) {
+            return new GreekStemming();
+        } else if(isoCode.equals(LanguageCodes.it)) {
+            return new ItalianStemming();
+        } else {
+            return new EnglishStemming(); //Fall back for unknown languages and english tweets
+        }
+    }
 }
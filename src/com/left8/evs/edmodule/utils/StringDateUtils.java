@@ -28,7 +28,7 @@ import java.util.logging.Logger;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.30_1827
+ * @version 2026.10.18_1120
  */
 public class StringDateUtils {
     
@@ -42,6 +42,7 @@ public class StringDateUtils {
      * @param date The date from which is key is going to be constructed.
      * @param window The refresh window.
      * @return A String with key in YYYYMMDD_HHMM form.
+     * @see TimeBucketer TimeBucketer class, for allocation-free integer windows.
      */
     public final static String getDateKey(Calendar cal, Date date, int window) {
         int year;
@@ -54,7 +55,7 @@ public class StringDateUtils {
         month = cal.get(Calendar.MONTH) + 1; //Zero-index based
         day = cal.get(Calendar.DAY_OF_MONTH); //Get the current day of month
         hour = cal.get(Calendar.HOUR_OF_DAY); //24h
-        minute = cal.get(Calendar.MINUTE) / window; //Nearest window, starting from 0
+        minute = (cal.get(Calendar.MINUTE) / window) * window; //Nearest window, starting from 0
 
         //Assemble the key in YYYYMMDD_HHMM form.
         String key = String.valueOf(year) 
@@ -62,7 +63,7 @@ public class StringDateUtils {
                 + (day < 10 ? "0" + String.valueOf(day) : String.valueOf(day))
                 + "_" //Separate actual date from hour information
                 + (hour < 10 ? "0" + String.valueOf(hour) : String.valueOf(hour))
-                + String.valueOf(minute) + "0";
+                + (minute < 10 ? "0" + String.valueOf(minute) : String.valueOf(minute));
         return key;
     }
     
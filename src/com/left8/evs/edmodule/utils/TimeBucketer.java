@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Maps epoch milliseconds to dense integer time buckets (windows). <br>
+ * Bucket 0 starts at the origin and every bucket spans 'width' milliseconds,
+ * so assigning a tweet to its window is a single subtraction and division,
+ * without any allocation. The String labels (YYYYMMDD_HHMM, in UTC) are
+ * only produced when a bucket needs to be presented or exported.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.18_1100
+ */
+public class TimeBucketer {
+
+    private static final DateTimeFormatter LABEL_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd_HHmm", Locale.ENGLISH);
+    private static final long MILLIS_PER_MINUTE = 60000L;
+
+    private final long origin; //Start of bucket 0 in epoch millis
+    private final long width; //Width of every bucket in millis
+
+    /**
+     * Public constructor.
+     * @param origin The start of the first bucket, in epoch milliseconds.
+     * @param widthInMinutes The width of every bucket in minutes.
+     */
+    public TimeBucketer(long origin, int widthInMinutes) {
+        if(widthInMinutes <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive, was " + widthInMinutes);
+        }
+        this.origin = origin;
+        this.width = widthInMinutes * MILLIS_PER_MINUTE;
+    }
+
+    /**
+     * Returns a TimeBucketer whose first bucket contains the given date. <br>
+     * The origin is aligned to a multiple of the width since the epoch, so
+     * e.g. 10-minute buckets always start at HH:00, HH:10, ... (UTC),
+     * regardless of the date of the earliest tweet.
+     * @param earliestDate The earliest date of the corpus.
+     * @param widthInMinutes The width of every bucket in minutes.
+     * @return A TimeBucketer object.
+     */
+    public static TimeBucketer alignedTo(Date earliestDate, int widthInMinutes) {
+        long widthInMillis = widthInMinutes * MILLIS_PER_MINUTE;
+        long origin = Math.floorDiv(earliestDate.getTime(), widthInMillis) * widthInMillis;
+        return new TimeBucketer(origin, widthInMinutes);
+    }
+
+    /**
+     * Returns the bucket of a given instant.
+     * @param millis The instant in epoch milliseconds.
+     * @return An integer with the index of the bucket. Instants before the
+     * origin are mapped to negative buckets.
+     */
+    public final int getBucket(long millis) {
+        return (int) Math.floorDiv(millis - origin, width);
+    }
+
+    /**
+     * Returns the bucket of a given date.
+     * @param date A Date object.
+     * @return An integer with the index of the bucket.
+     */
+    public final int getBucket(Date date) { return getBucket(date.getTime()); }
+
+    /**
+     * Returns the starting instant of a bucket.
+     * @param bucket The index of the bucket.
+     * @return The start of the bucket in epoch milliseconds.
+     */
+    public final long getBucketStart(int bucket) { return origin + bucket * width; }
+
+    /**
+     * Returns the label of a bucket, assembled in YYYYMMDD_HHMM fashion (UTC).
+     * @param bucket The index of the bucket.
+     * @return A String with the label of the bucket.
+     */
+    public final String getLabel(int bucket) {
+        return LABEL_FORMAT.format(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(getBucketStart(bucket)), ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns the bucket that a label refers to. It is the inverse of
+     * {@link #getLabel(int) getLabel()}.
+     * @param label A String assembled in YYYYMMDD_HHMM fashion (UTC).
+     * @return An integer with the index of the bucket.
+     */
+    public final int getBucketOfLabel(String label) {
+        long millis = LocalDateTime.parse(label, LABEL_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+        return getBucket(millis);
+    }
+
+    /**
+     * Returns the start of the first bucket.
+     * @return The origin in epoch milliseconds.
+     */
+    public final long getOrigin() { return origin; }
+
+    /**
+     * Returns the width of every bucket.
+     * @return The width in minutes.
+     */
+    public final int getWidthInMinutes() { return (int) (width / MILLIS_PER_MINUTE); }
+}
@@ -37,7 +37,7 @@ import com.left8.evs.utilities.PrintUtilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1257
+ * @version 2026.10.18_1700
  */
 public class EDCoWEvaluator implements AbstractEvaluator {
     private int delta;
@@ -133,7 +133,6 @@ public class EDCoWEvaluator implements AbstractEvaluator {
     @Override
     public void evaluate(boolean showInlineInfo) {
         List<String> calculatedKeywords;
-        List<String> ids;
         HashSet<String> groundTruthKeywords;
         int groundTruthKeywordSize;
         int matchedItems;
@@ -142,10 +141,8 @@ public class EDCoWEvaluator implements AbstractEvaluator {
         int eventKey;
         for(EDCoWEvent event : eventList) {
             matchedItems = 0;
-            ids = new ArrayList<>(Arrays.asList(
-                    event.getPhysicalDescription().split(" ")));
             eventKey = -1;
-            for(String id : ids) {
+            for(String id : event.getTweetIDs()) {
                 eventKey = findEventById(id);
                 if(eventKey != -1) {
                     break;
@@ -29,13 +29,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.left8.evs.edmodule.peakfinding.event.PeakFindingEvent;
+import com.left8.evs.edmodule.data.TermDictionary;
 import com.left8.evs.utilities.Config;
 import com.left8.evs.utilities.PrintUtilities;
 
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1258
+ * @version 2026.10.18_1200
  */
 public class PeakFindingEvaluator implements AbstractEvaluator {
     private final double alpha;
@@ -173,7 +174,7 @@ public class PeakFindingEvaluator implements AbstractEvaluator {
      */
     public void evaluateWithAllTerms(boolean showInlineInfo) {
         HashSet<String> groundTruthKeywords;
-        ArrayList<String> calculatedKeywords;
+        int[] calculatedTermIds;
         int groundTruthKeywordSize;
         double recall, precision;
         int eventKey = -1;
@@ -185,16 +186,19 @@ public class PeakFindingEvaluator implements AbstractEvaluator {
                     break;
                 }
             }
-            calculatedKeywords = new ArrayList<>(event.getAllTerms());
+            calculatedTermIds = event.getAllTermIDs();
             matchedGroundTruthEventIDs.put(event.getID(), eventKey);
             if(eventKey != -1) {
                 //Get the ground truth keywords and compare them 1 by 1
                 groundTruthKeywords = new HashSet<>(groundTruthTermsPerEvent.get(eventKey));
                 groundTruthKeywordSize = groundTruthKeywords.size();
-                for(String keyword : calculatedKeywords) {
+                TermDictionary dictionary = event.getDictionary();
+                for(int termId : calculatedTermIds) {
                     if(matchedItems != groundTruthKeywordSize) {
+                        //Only the compared terms are converted into Strings
+                        String keyword = event.getStemsHandler().getOriginalWord(dictionary.getTerm(termId)).toLowerCase();
                         for(String groundTruthKeyword : groundTruthKeywords) {
-                            if(event.getStemsHandler().getOriginalWord(keyword).toLowerCase().contains(groundTruthKeyword.toLowerCase())) {
+                            if(keyword.contains(groundTruthKeyword.toLowerCase())) {
                                 matchedItems++;
                             }
                         }
@@ -203,11 +207,11 @@ public class PeakFindingEvaluator implements AbstractEvaluator {
                     }
                 }
                 recall = (double) matchedItems / (double) groundTruthKeywordSize;
-                precision = (double) matchedItems / (double) calculatedKeywords.size();
+                precision = (double) matchedItems / (double) calculatedTermIds.length;
                 //Show inline info during execution if the user chose so
                 if(showInlineInfo) {
                     PrintUtilities.printInfoMessageln("Event found: " + eventKey);
-                    PrintUtilities.printInfoMessageln("Out of " + calculatedKeywords.size() + " items:");
+                    PrintUtilities.printInfoMessageln("Out of " + calculatedTermIds.length + " items:");
                     PrintUtilities.printInfoMessageln("Matched " + matchedItems + " out of " 
                             + groundTruthKeywordSize + " ground truth terms.");
                     PrintUtilities.printInfoMessageln("Recall: " + recall);
@@ -26,7 +26,9 @@ import org.apache.commons.cli.ParseException;
 
 import com.left8.evs.edmodule.EDMethodPicker;
 import com.left8.evs.edmodule.data.Dataset;
+import com.left8.evs.edmodule.data.EDCoWCorpus;
 import com.left8.evs.edmodule.data.PeakFindingCorpus;
+import com.left8.evs.edmodule.edcow.EDCoWSignalKernels;
 import com.left8.evs.edmodule.peakfinding.BinsCreator;
 import com.left8.evs.edmodule.utils.BinPair;
 import com.left8.evs.evs.data.PeakFindingSentimentCorpus;
@@ -40,7 +42,7 @@ import com.left8.evs.utilities.PrintUtilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1300
+ * @version 2026.10.19_0010
  */
 public class EvS {
     
@@ -86,6 +88,8 @@ public class EvS {
             choice = console.getChoiceValue();
         }
         
+        EDCoWSignalKernels.select(config.getSignalKernels());
+        
         if(!showMongoLogging) {
             //Stop reporting logging information
             Logger mongoLogger = Logger.getLogger("org.mongodb.driver");
@@ -116,7 +120,6 @@ public class EvS {
                 int pi = 5;
                 Dataset ds = new Dataset(config);
                 PeakFindingCorpus corpus = new PeakFindingCorpus(config, ds.getTweetList(), ds.getSWH());
-                corpus.createCorpus(window);
                 
                 List<BinPair<String, Integer>> bins = BinsCreator.createBins(corpus, config, window);
                 PeakFindingSentimentCorpus sCorpus = new PeakFindingSentimentCorpus(corpus);
@@ -143,12 +146,8 @@ public class EvS {
                 
                 break;
             } case 2: { //EDCoW
-                Dataset ds = new Dataset(config);
-                SentimentEDCoWCorpus corpus = new SentimentEDCoWCorpus(config, 
-                        ds.getTweetList(), ds.getSWH(), 10);
-                
-                corpus.getEDCoWCorpus().createCorpus();
-                corpus.getEDCoWCorpus().setDocTermFreqIdList();
+                SentimentEDCoWCorpus corpus = new SentimentEDCoWCorpus(
+                        EDCoWCorpus.createOrOpen(config, 10));
                 int delta = 5, delta2 = 11, gamma = 6;
                 double minTermSupport = 0.001, maxTermSupport = 0.01;
                 
@@ -156,13 +155,14 @@ public class EvS {
                         corpus, delta, delta2, gamma, minTermSupport, maxTermSupport, 
                         choice, choice, config);
                 
-                //Experiment with delta
+                //Experiment with delta; the other sources reuse the detections of the first
                 List<String> lines = exper.experimentUsingDelta(1, 20, 1, 0, showInlineInfo);
                 exper.exportToFile("stanford.txt", lines);
                 lines = exper.experimentUsingDelta(1, 20, 1, 1, showInlineInfo);
                 exper.exportToFile("naive_bayes.txt", lines);
                 lines = exper.experimentUsingDelta(1, 20, 1, 2, showInlineInfo);
                 exper.exportToFile("bayesian_net.txt", lines);
+                exper.clearDetections();
                 
                 //Experiment with gamma
                 lines = exper.experimentUsingGamma(6, 10, 1, 0, showInlineInfo);
@@ -171,6 +171,7 @@ public class EvS {
                 exper.exportToFile("naive_bayes.txt", lines);
                 lines = exper.experimentUsingGamma(6, 10, 1, 2, showInlineInfo);
                 exper.exportToFile("bayesian_net.txt", lines);
+                exper.clearDetections();
                 
                 break;
             } case 3: {
@@ -26,7 +26,7 @@ import com.left8.evs.utilities.Config;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.03.28_0003
+ * @version 2026.10.18_1400
  */
 public class SentimentEDCoWCorpus {
     private final EDCoWCorpus corpus;
@@ -35,5 +35,9 @@ public class SentimentEDCoWCorpus {
         this.corpus = new EDCoWCorpus(config, tweets, swH, refreshWindow);
     }
     
+    public SentimentEDCoWCorpus(EDCoWCorpus corpus) {
+        this.corpus = corpus;
+    }
+    
     public final EDCoWCorpus getEDCoWCorpus() { return corpus; }
 }
@@ -18,6 +18,7 @@ package com.left8.evs.evs.edcow;
 
 ////////////////////////////////////////////////////////////////////////////////
 
+import com.left8.evs.edmodule.edcow.EDCoWSignalKernels;
 import com.left8.evs.utilities.PrintUtilities;
 
 //  This file is part of SONDY.                                               //
@@ -43,22 +44,19 @@ import com.left8.evs.utilities.PrintUtilities;
  *      @author siniwitt
  * 
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1301
+ * @version 2026.10.19_0030
  */
 public class SentimentEDCoWCrossCorrelationZeroTime {       	
 	
     public double autoCorrelationZeroTime(double[] sign){
-        double sum = 0.0;
-        for(double x:sign)sum += Math.pow(x, 2); 
+        double sum = EDCoWSignalKernels.get().sumOfSquares(sign, 0, sign.length);
         return (sum<0.00001)?0:sum;
     }
 
     public double correlationZeroTime(double[] sign1, double[] sign2){
         double sum = 0.0;
         if(sign1.length == sign2.length) {
-            for(int i=0; i < sign1.length; i++) {
-                sum += (sign1[i] * sign2[i]);
-            }
+            sum = EDCoWSignalKernels.get().dot(sign1, 0, sign2, 0, sign1.length);
         }
         else {
             PrintUtilities.printWarningMessageln("The length of sign1 and sign2 is not the same.");
@@ -17,9 +17,11 @@
 package com.left8.evs.evs.edcow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import no.uib.cipr.matrix.DenseVector;
 import no.uib.cipr.matrix.VectorEntry;
@@ -34,6 +36,9 @@ import ch.epfl.lis.networks.NetworkException;
 import ch.epfl.lis.networks.Node;
 import ch.epfl.lis.networks.NodeFactory;
 import ch.epfl.lis.networks.Structure;
+import com.left8.evs.edmodule.data.TermDictionary;
+import com.left8.evs.edmodule.edcow.EDCoWCorrelationMatrix;
+import com.left8.evs.edmodule.edcow.EDCoWLouvain;
 import com.left8.evs.utilities.PrintUtilities;
 
 ////////////////////////////////////////////////////////////////////////////////
@@ -64,26 +69,55 @@ public class SentimentEDCoWModularityDetection {
     LinkedList<SentimentEDCoWEvent_> events;
     float startSlice;
     float endSlice;
+    // Louvain mode: node names, weight of the edges of every node as a source, communities
+    String[] nodeNames;
+    double[] sourceWeights;
+    List<int[]> louvainCommunities;
 
 
     // Add two arguments : start and end index of the frequency array
-    public SentimentEDCoWModularityDetection(LinkedList<SentimentEDCoWKeyword> keywords, double[][] correlations, float startDay, float endDay) throws NetworkException, Exception{
+    public SentimentEDCoWModularityDetection(LinkedList<SentimentEDCoWKeyword> keywords, double[][] correlations, float startDay, float endDay, TermDictionary dictionary) throws NetworkException, Exception{
+        this(keywords.stream().mapToInt(SentimentEDCoWKeyword::getTermId).toArray(), 
+                new EDCoWCorrelationMatrix(correlations), startDay, endDay, dictionary);
+    }
+
+    // Same as above, with the term IDs of the keywords and their upper triangle of correlations
+    public SentimentEDCoWModularityDetection(int[] termIds, EDCoWCorrelationMatrix correlations, float startDay, float endDay, TermDictionary dictionary) throws NetworkException, Exception{
+        this(termIds, correlations, startDay, endDay, dictionary, null);
+    }
+
+    // Same as above, with the communities detected by Louvain instead of jmod, if louvain is not null
+    public SentimentEDCoWModularityDetection(int[] termIds, EDCoWCorrelationMatrix correlations, float startDay, float endDay, TermDictionary dictionary, EDCoWLouvain louvain) throws NetworkException, Exception{
         this.startSlice = startDay;
         this.endSlice = endDay;
+        if(louvain != null){
+            detectLouvainCommunities(termIds, correlations, dictionary, louvain);
+            return;
+        }
 
         // instantiate structure
         NodeFactory<Node> nodeFactory = new NodeFactory<>(new Node());
         EdgeFactory<Edge<Node>> edgeFactory = new EdgeFactory<>(new Edge<Node>());
         structure = new Structure<>(nodeFactory, edgeFactory);
+        // Node names are the keywords themselves, created only for the connected keywords
+        String[] names = new String[termIds.length];
         // Adding weighted edges between keywords
-        for(int i = 0; i < keywords.size(); i++){
-            for(int j = i; j < keywords.size(); j++){
-                if(i != j && correlations[i][j] > 0.1){
-                    if(!structure.containsNode(keywords.get(i).getKeyWord()))
-                        structure.addNode(keywords.get(i).getKeyWord());
-                    if(!structure.containsNode(keywords.get(j).getKeyWord()))
-                        structure.addNode(keywords.get(j).getKeyWord());
-                    structure.addEdge(new Edge(structure.getNode(keywords.get(i).getKeyWord()),structure.getNode(keywords.get(j).getKeyWord()),correlations[i][j]));
+        for(int i = 0, k = 0; i < termIds.length; i++){
+            for(int j = i + 1; j < termIds.length; j++, k++){
+                double weight = correlations.getPair(k);
+                if(weight > 0.1){
+                    if(names[i] == null)
+                        names[i] = dictionary.getTerm(termIds[i]);
+                    if(names[j] == null)
+                        names[j] = dictionary.getTerm(termIds[j]);
+                    if(!structure.containsNode(names[i]))
+                        structure.addNode(names[i]);
+                    if(!structure.containsNode(names[j]))
+                        structure.addNode(names[j]);
+                    structure.addEdge(
+                            new Edge(structure.getNode(names[i]), 
+                                    structure.getNode(names[j]), 
+                                    weight));
                 }
             }
         }
@@ -93,20 +127,80 @@ public class SentimentEDCoWModularityDetection {
                 + " nodes and " + structure.getNumEdges() + " edges");
 
         if(structure.getNumEdges()>0){
-            // instantiate JmodNetwork
-            JmodNetwork network = new JmodNetwork(structure);
-            JmodSettings settings = JmodSettings.getInstance();
-            settings.setUseMovingVertex(true);
-            settings.setUseGlobalMovingVertex(true);
-            // run modularity detection
-            Jmod jmod = new Jmod();		 
-            jmod.runModularityDetection(network);	
+            // Jmod keeps its settings in a singleton, so windows that run
+            // concurrently detect their communities one at a time
+            synchronized(Jmod.class) {
+                // instantiate JmodNetwork
+                JmodNetwork network = new JmodNetwork(structure);
+                JmodSettings settings = JmodSettings.getInstance();
+                settings.setUseMovingVertex(true);
+                settings.setUseGlobalMovingVertex(true);
+                // run modularity detection
+                Jmod jmod = new Jmod();		 
+                jmod.runModularityDetection(network);	
+                RootCommunity rc = jmod.getRootCommunity();
+                arrayCommunities = rc.getIndivisibleCommunities();
+            }
             events = new LinkedList<>();
-            RootCommunity rc = jmod.getRootCommunity();
-            arrayCommunities = rc.getIndivisibleCommunities();
         }
     }
 
+    // Builds the keyword graph in CSR form, without the jmod structure, and runs Louvain on it
+    private void detectLouvainCommunities(int[] termIds, EDCoWCorrelationMatrix correlations, TermDictionary dictionary, EDCoWLouvain louvain){
+        int[] degrees = new int[termIds.length];
+        int numEdges = 0;
+        for(int i = 0, k = 0; i < termIds.length; i++){
+            for(int j = i + 1; j < termIds.length; j++, k++){
+                double weight = correlations.getPair(k);
+                if(weight > 0.1){
+                    degrees[i]++;
+                    degrees[j]++;
+                    numEdges++;
+                }
+            }
+        }
+        // Nodes are the connected keywords, ordered by name as in the jmod structure
+        List<Integer> keywords = new ArrayList<>();
+        for(int i = 0; i < termIds.length; i++){
+            if(degrees[i] > 0)
+                keywords.add(i);
+        }
+        String[] names = new String[termIds.length];
+        keywords.forEach((i) -> names[i] = dictionary.getTerm(termIds[i]));
+        keywords.sort((a, b) -> names[a].compareTo(names[b]));
+        nodeNames = new String[keywords.size()];
+        int[] nodeOfKeyword = new int[termIds.length];
+        int[] offsets = new int[nodeNames.length + 1];
+        for(int v = 0; v < nodeNames.length; v++){
+            int i = keywords.get(v);
+            nodeNames[v] = names[i];
+            nodeOfKeyword[i] = v;
+            offsets[v + 1] = offsets[v] + degrees[i];
+        }
+        int[] next = Arrays.copyOf(offsets, nodeNames.length);
+        int[] neighbors = new int[2 * numEdges];
+        double[] weights = new double[2 * numEdges];
+        sourceWeights = new double[nodeNames.length];
+        for(int i = 0, k = 0; i < termIds.length; i++){
+            for(int j = i + 1; j < termIds.length; j++, k++){
+                double weight = correlations.getPair(k);
+                if(weight > 0.1){
+                    int a = nodeOfKeyword[i], b = nodeOfKeyword[j];
+                    neighbors[next[a]] = b;
+                    weights[next[a]++] = weight;
+                    neighbors[next[b]] = a;
+                    weights[next[b]++] = weight;
+                    sourceWeights[a] += weight;
+                }
+            }
+        }
+        PrintUtilities.printInfoMessageln("Structure between slices " 
+                + startSlice + " and " + endSlice + ": " + nodeNames.length 
+                + " nodes and " + numEdges + " edges");
+        louvainCommunities = (numEdges > 0) ? louvain.detect(offsets, neighbors, weights) : new ArrayList<>();
+        events = new LinkedList<>();
+    }
+
     public double computeEdgesWeight(Community c, List<Node> nodeList){		
         double totalWeight =0;
         if(c.getChild1() == null){
@@ -142,6 +236,36 @@ public class SentimentEDCoWModularityDetection {
         }
     }
 
+    // Same as above, for a community of the Louvain mode
+    public void saveEventFromCommunity(int[] community){
+        if(community.length > 1){
+            SentimentEDCoWEvent_ event = new SentimentEDCoWEvent_();
+            for(int id : community){
+                event.keywords.add(nodeNames[id]);
+            }
+            event.setEpsylon(computeE(community));
+            event.setStartSlice(startSlice);
+            event.setEndSlice(endSlice);
+            events.add(event);
+        }
+    }
+
+    // Saves the events of the communities whose E is above thresholdE, in either mode
+    public void saveEvents(double thresholdE){
+        if(louvainCommunities == null){
+            getCommunitiesFiltered(thresholdE).stream().map((c) -> {
+                System.out.println(c.getCommunitySize());
+                return c;
+            }).forEach((c) -> {
+                saveEventFromCommunity(c);
+            });
+        }else{
+            getLouvainCommunitiesFiltered(thresholdE).forEach((c) -> {
+                saveEventFromCommunity(c);
+            });
+        }
+    }
+
     public void explore(Community c){
         if(c.getChild1() == null){
             DenseVector nodesC = c.getVertexIndexes();
@@ -169,6 +293,23 @@ public class SentimentEDCoWModularityDetection {
         return ComFiltered;
     }
 
+    // Same as above, for the communities of the Louvain mode
+    public List<int[]> getLouvainCommunitiesFiltered(double thresholdE) {
+        return louvainCommunities.stream()
+                .filter((c) -> computeE(c) > thresholdE)
+                .collect(Collectors.toList());
+    }
+
+    private double computeE(int[] community) {
+        int n = community.length;
+        double totalWeight = 0;
+        for(int id : community){
+            totalWeight += sourceWeights[id];
+        }
+        double e = totalWeight * (Math.exp(1.5*n)/2*n);
+        return e;
+    }
+
     private double computeE(Community c) {
         int n = c.getCommunitySize();
         double totalWeight =  computeEdgesWeight(c,nodeList);
@@ -180,10 +321,21 @@ public class SentimentEDCoWModularityDetection {
         return arrayCommunities;
     }
 
+    // Null in the jmod mode
+    public List<int[]> getLouvainCommunities(){
+        return louvainCommunities;
+    }
+
+    // Null in the Louvain mode, see getNodeNames()
     public List<Node> getNodeList() {
         return nodeList;
     }
 
+    // Null in the jmod mode
+    public String[] getNodeNames() {
+        return nodeNames;
+    }
+
     public LinkedList<SentimentEDCoWEvent_> getEvents(){
         return events;
     }
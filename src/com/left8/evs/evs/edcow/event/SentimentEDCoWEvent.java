@@ -26,41 +26,51 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import com.left8.evs.edmodule.data.WindowTweetIDs;
 import com.left8.evs.utilities.dsretriever.Tweet;
 
 /**
+ * An event of SentimentEDCoW. The sentiment statistics of all sources (0 for
+ * SST, 1 for Naive Bayes and 2 for Bayesian Network) are calculated in a
+ * single pass over the tweets of the event, so an event can be reported for
+ * every source without detecting it again. The getters without a source
+ * report the source of the constructor.
  *
  * @author  Adrien GUILLE, Laboratoire ERIC, Université Lumière Lyon 2
  * @author  Lefteris Paraskevas
- * @version 2016.03.28_0004
+ * @version 2026.10.19_0000
  */
 public class SentimentEDCoWEvent implements Serializable {
+    private static final int SOURCES = 3;
+    private static final int POSITIVE = 0;
+    private static final int NEGATIVE = 1;
+    private static final int NEUTRAL = 2;
+    private static final int IRRELEVANT = 3;
+    
     private SimpleStringProperty textualDescription;
     private SimpleStringProperty temporalDescription;
-    private SimpleStringProperty physicalDescription;
+    private WindowTweetIDs tweetIDs; //Stringified only when the physical description is requested
     private List<Tweet> tweetsOfEvent;
     private SimpleDoubleProperty score;
-    private int mainSentiment;
-    private double positiveSentimentPerc;
-    private double negativeSentimentPerc;
-    private double neutralSentimentPerc;
-    private double irrelevantSentimentPerc;
+    private int sentimentSource;
+    private int[] mainSentiment; //By source
+    private double[][] sentimentPerc; //By source and POSITIVE, NEGATIVE, NEUTRAL or IRRELEVANT
     private int uniqueUsers;
 
-    public SentimentEDCoWEvent(String text, String temp, String physical, List<Tweet> tweets, 
+    public SentimentEDCoWEvent(String text, String temp, WindowTweetIDs tweetIDs, List<Tweet> tweets, 
             int sentimentSource) {
-        this(text, temp, physical, tweets, sentimentSource, 0);
+        this(text, temp, tweetIDs, tweets, sentimentSource, 0);
     }
 
-    public SentimentEDCoWEvent(String text, String temp, String physical, 
+    public SentimentEDCoWEvent(String text, String temp, WindowTweetIDs tweetIDs, 
             List<Tweet> tweets, int sentimentSource, double score) {
         textualDescription = new SimpleStringProperty(text);
         temporalDescription = new SimpleStringProperty(temp);
-        physicalDescription = new SimpleStringProperty(physical);
+        this.tweetIDs = tweetIDs;
         this.tweetsOfEvent = tweets;
         this.score = new SimpleDoubleProperty(score);
-        calculateSentimentStatistics(sentimentSource);
-        calculateUniqueUsers();
+        this.sentimentSource = sentimentSource;
+        calculateStatistics();
     }
 
     public String getTextualDescription() {
@@ -72,7 +82,11 @@ public class SentimentEDCoWEvent implements Serializable {
     }
     
     public String getPhysicalDescription() {
-        return physicalDescription.get();
+        return tweetIDs.toString();
+    }
+    
+    public WindowTweetIDs getTweetIDs() {
+        return tweetIDs;
     }
     
     public String getTemporalDescriptionLowerBound() {
@@ -110,82 +124,98 @@ public class SentimentEDCoWEvent implements Serializable {
             textualDescription = new SimpleStringProperty((String)in.readObject());
             temporalDescription = new SimpleStringProperty((String)in.readObject());
             score = new SimpleDoubleProperty(in.readDouble());
+            mainSentiment = new int[SOURCES];
+            sentimentPerc = new double[SOURCES][IRRELEVANT + 1];
         } catch (ClassNotFoundException ignored) {
             throw new IOException(ignored);
         }
     }
     
-    private void calculateSentimentStatistics(int sentimentSource) {
-        int positiveCounter = 0;
-        int negativeCounter = 0;
-        int neutralCounter = 0;
-        int irrelevantCounter = 0;
-        int returnedSentiment;
-        
+    /**
+     * Calculates the sentiment statistics of all sources and the unique users
+     * in a single pass over the tweets of the event.
+     */
+    private void calculateStatistics() {
+        int[][] counters = new int[SOURCES][IRRELEVANT + 1];
+        Set<Long> users = new HashSet<>();
         for(Tweet tweet : tweetsOfEvent) {
-            if(sentimentSource == 0) { //Stanford
-                returnedSentiment = tweet.getStanfordSentiment();
-                if(returnedSentiment < 2) {
-                    negativeCounter++;
-                } else if(returnedSentiment > 2) {
-                    positiveCounter++;
-                } else { //2
-                    neutralCounter++;
-                }
-            } else { //Weka
-                if(sentimentSource == 1) {
-                    returnedSentiment = tweet.getNaiveBayesSentiment();
-                } else {
-                    returnedSentiment = tweet.getBayesianNetSentiment();
-                }
-                if(returnedSentiment == 0) {
-                    negativeCounter++;
-                } else if(returnedSentiment == 1) {
-                    neutralCounter++;
-                } else if(returnedSentiment == 2) {
-                    positiveCounter++;
-                } else { //-2
-                    irrelevantCounter++;
-                }
-            }   
+            counters[0][stanfordCategory(tweet.getStanfordSentiment())]++;
+            counters[1][wekaCategory(tweet.getNaiveBayesSentiment())]++;
+            counters[2][wekaCategory(tweet.getBayesianNetSentiment())]++;
+            users.add(tweet.getUserId());
         }
-        int max = Math.max(positiveCounter, 
-                Math.max(negativeCounter, 
-                    Math.max(neutralCounter, irrelevantCounter)
-                )
-            );
-        if(max == positiveCounter) {
-            mainSentiment = 0;
-        } else if(max == negativeCounter) {
-            mainSentiment = 2;
-        } else if(max == neutralCounter) {
-            mainSentiment = 1;
-        } else { //Irrelevant
-            mainSentiment = -2;
+        mainSentiment = new int[SOURCES];
+        sentimentPerc = new double[SOURCES][IRRELEVANT + 1];
+        for(int source = 0; source < SOURCES; source++) {
+            int[] counter = counters[source];
+            int max = Math.max(counter[POSITIVE], 
+                    Math.max(counter[NEGATIVE], 
+                        Math.max(counter[NEUTRAL], counter[IRRELEVANT])
+                    )
+                );
+            if(max == counter[POSITIVE]) {
+                mainSentiment[source] = 0;
+            } else if(max == counter[NEGATIVE]) {
+                mainSentiment[source] = 2;
+            } else if(max == counter[NEUTRAL]) {
+                mainSentiment[source] = 1;
+            } else { //Irrelevant
+                mainSentiment[source] = -2;
+            }
+            for(int category = POSITIVE; category <= IRRELEVANT; category++) {
+                sentimentPerc[source][category] = (double) counter[category] / (double) tweetsOfEvent.size();
+            }
         }
-        positiveSentimentPerc = (double) positiveCounter / (double) tweetsOfEvent.size();
-        negativeSentimentPerc = (double) negativeCounter / (double) tweetsOfEvent.size();
-        neutralSentimentPerc = (double) neutralCounter / (double) tweetsOfEvent.size();
-        irrelevantSentimentPerc = (double) irrelevantCounter / (double) tweetsOfEvent.size();
+        uniqueUsers = users.size();
     }
     
-    private void calculateUniqueUsers() {
-        Set<Long> users = new HashSet<>();
-        for(Tweet tweet : tweetsOfEvent) {
-            users.add(tweet.getUserId());
+    private static int stanfordCategory(int returnedSentiment) {
+        if(returnedSentiment < 2) {
+            return NEGATIVE;
+        } else if(returnedSentiment > 2) {
+            return POSITIVE;
+        } else { //2
+            return NEUTRAL;
         }
-        uniqueUsers = users.size();
     }
     
-    public int getMainSentimentOfEvent() { return mainSentiment; }
+    private static int wekaCategory(int returnedSentiment) {
+        if(returnedSentiment == 0) {
+            return NEGATIVE;
+        } else if(returnedSentiment == 1) {
+            return NEUTRAL;
+        } else if(returnedSentiment == 2) {
+            return POSITIVE;
+        } else { //-2
+            return IRRELEVANT;
+        }
+    }
+    
+    public int getMainSentimentOfEvent() { return mainSentiment[sentimentSource]; }
+    
+    public double getPositiveSentimentPercentage() { return sentimentPerc[sentimentSource][POSITIVE]; }
+    
+    public double getNegatineSentimentPercentage() { return sentimentPerc[sentimentSource][NEGATIVE]; }
+    
+    public double getNeutralSentimentPercentage() { return sentimentPerc[sentimentSource][NEUTRAL]; }
+    
+    public double getIrrelevantSentimentPercentage() { return sentimentPerc[sentimentSource][IRRELEVANT]; }
+    
+    /**
+     * Returns the main sentiment of the event for a sentiment source.
+     * @param sentimentSource The source of sentiment. 0 represents SST, 1
+     * Naive Bayes and 2 Bayesian Network.
+     * @return 0 for positive, 2 for negative, 1 for neutral or -2 for irrelevant.
+     */
+    public int getMainSentimentOfEvent(int sentimentSource) { return mainSentiment[sentimentSource]; }
     
-    public double getPositiveSentimentPercentage() { return positiveSentimentPerc; }
+    public double getPositiveSentimentPercentage(int sentimentSource) { return sentimentPerc[sentimentSource][POSITIVE]; }
     
-    public double getNegatineSentimentPercentage() { return negativeSentimentPerc; }
+    public double getNegatineSentimentPercentage(int sentimentSource) { return sentimentPerc[sentimentSource][NEGATIVE]; }
     
-    public double getNeutralSentimentPercentage() { return neutralSentimentPerc; }
+    public double getNeutralSentimentPercentage(int sentimentSource) { return sentimentPerc[sentimentSource][NEUTRAL]; }
     
-    public double getIrrelevantSentimentPercentage() { return irrelevantSentimentPerc; }
+    public double getIrrelevantSentimentPercentage(int sentimentSource) { return sentimentPerc[sentimentSource][IRRELEVANT]; }
     
     public int getUniqueUsers() { return uniqueUsers; }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -37,7 +37,7 @@ import com.left8.evs.utilities.PrintUtilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1304
+ * @version 2026.10.18_1700
  */
 public class SentimentEDCoWEvaluator implements AbstractSentimentEvaluator {
     private int delta;
@@ -136,7 +136,6 @@ public class SentimentEDCoWEvaluator implements AbstractSentimentEvaluator {
     @Override
     public void evaluate(boolean showInlineInfo) {
         List<String> calculatedKeywords;
-        List<String> ids;
         HashSet<String> groundTruthKeywords;
         int groundTruthKeywordSize;
         int matchedItems;
@@ -146,10 +145,8 @@ public class SentimentEDCoWEvaluator implements AbstractSentimentEvaluator {
         int eventCounter = 0;
         for(SentimentEDCoWEvent event : eventList) {
             matchedItems = 0;
-            ids = new ArrayList<>(Arrays.asList(
-                    event.getPhysicalDescription().split(" ")));
             eventKey = -1;
-            for(String id : ids) {
+            for(String id : event.getTweetIDs()) {
                 eventKey = findEventById(id);
                 if(eventKey != -1) {
                     break;
@@ -17,9 +17,9 @@
 package com.left8.evs.evs.peakfinding.event;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
+import com.left8.evs.edmodule.data.TweetBuckets;
 import com.left8.evs.edmodule.utils.BinPair;
 import com.left8.evs.edmodule.peakfinding.Window;
 import com.left8.evs.evs.data.PeakFindingSentimentCorpus;
@@ -29,33 +29,32 @@ import com.left8.evs.utilities.dsretriever.Tweet;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.30_1829
+ * @version 2026.10.18_1500
  */
 public class SentimentPeakFindingEvents {
     
-    private final HashMap<String, ArrayList<Tweet>> tweetsByWindow;
+    private final TweetBuckets tweetsByWindow;
     private final List<BinPair<String, Integer>> bins;
     private final List<Window<Integer, Integer>> eventWindows;
-    private final ArrayList<ArrayList<Tweet>> eventsTweets = new ArrayList<>();
     private final List<SentimentPeakFindingEvent> events = new ArrayList<>();
     private final PeakFindingSentimentCorpus corpus;
     
     /**
      * Public constructor.
-     * @param tweetsByWindow A HashMap containing all tweets in a specific
-     * window interval.
+     * @param tweetsByWindow A TweetBuckets object containing all tweets of
+     * every window interval, indexed like the bins.
      * @param bins A List of BinPair objects, containing all bins.
      * @param eventWindows A List of Window objects, containing the generated eventsTweets.
      * @param corpus A PeakFindingCorpus object.
      * @param stemsHandler A StemUtils object.
      * @param sentimentSouce The source of sentiment, internal or external.
      */
-    public SentimentPeakFindingEvents(HashMap<String, ArrayList<Tweet>> tweetsByWindow, 
+    public SentimentPeakFindingEvents(TweetBuckets tweetsByWindow, 
             List<BinPair<String, Integer>> bins, 
             List<Window<Integer, Integer>> eventWindows, 
             PeakFindingSentimentCorpus corpus, StemUtils stemsHandler,
             int sentimentSouce) {
-        this.tweetsByWindow = new HashMap<>(tweetsByWindow);
+        this.tweetsByWindow = tweetsByWindow;
         this.bins = new ArrayList<>(bins);
         this.eventWindows = new ArrayList<>(eventWindows);
         this.corpus = corpus;
@@ -64,25 +63,13 @@ public class SentimentPeakFindingEvents {
     
     /**
      * Returns the tweets that belong to a certain event. <br>
-     * More formally, it parses the auxiliary tweetsByWindow HashMap and appends
-     * the relevant tweets into a String list.
+     * More formally, it returns the contiguous range of the tweetsByWindow
+     * buckets that the event spans, without copying it.
      * @param window A Window object, the actual event.
-     * @return A List with the relevant tweets.
+     * @return A read-only List with the relevant tweets.
      */
-    public final ArrayList<Tweet> getTweetsOfEvent(Window<Integer, Integer> window) {
-        
-        int start = window.getStart();
-        int end = window.getEnd();
-        String key;
-        ArrayList<Tweet> tweetsOfEvent = new ArrayList<>();
-        
-        for(int i = start; i < end; i++) {
-            key = bins.get(i).getBin();
-            if(tweetsByWindow.containsKey(key)) {
-                tweetsOfEvent.addAll(tweetsByWindow.get(key));
-            }
-        }
-        return tweetsOfEvent;    
+    public final List<Tweet> getTweetsOfEvent(Window<Integer, Integer> window) {
+        return tweetsByWindow.getTweets(window.getStart(), window.getEnd()); //Bins and windows share the same index
     }
     
     /**
@@ -91,12 +78,9 @@ public class SentimentPeakFindingEvents {
      * @param sentimentSouce The source of sentiment, internal or external.
      */
     public final void generateEvents(int sentimentSouce) {
-        eventWindows.stream().map((window) -> new ArrayList<>(getTweetsOfEvent(window))).forEach((tweets) -> {
-            eventsTweets.add(tweets);
-        });
         int i = 0;
         for(Window<Integer, Integer> window : eventWindows) {
-            SentimentPeakFindingEvent event = new SentimentPeakFindingEvent(i, window, eventsTweets.get(i),
+            SentimentPeakFindingEvent event = new SentimentPeakFindingEvent(i, window, getTweetsOfEvent(window),
                     corpus, sentimentSouce);
             events.add(event);
             i++;
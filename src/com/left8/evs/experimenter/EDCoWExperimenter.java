@@ -18,9 +18,12 @@ package com.left8.evs.experimenter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import com.left8.evs.edmodule.data.EDCoWCorpus;
 import com.left8.evs.edmodule.edcow.EDCoW;
+import com.left8.evs.edmodule.edcow.EDCoWSignalCache;
+import com.left8.evs.edmodule.edcow.EDCoWSimHash;
 import com.left8.evs.edmodule.edcow.event.EDCoWEvent;
 import com.left8.evs.evaluator.EDCoWEvaluator;
 import com.left8.evs.utilities.Config;
@@ -29,7 +32,7 @@ import com.left8.evs.utilities.Utilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.09_2021
+ * @version 2026.10.19_0020
  */
 public class EDCoWExperimenter {
     private final EDCoWCorpus corpus;
@@ -70,10 +73,24 @@ public class EDCoWExperimenter {
         
         List<String> lines = new ArrayList<>();
         String line;
+        ExecutorService windowExecutor = EDCoW.newWindowExecutor(config.getWindowThreads());
+        EDCoWSimHash correlationCandidates = (config.getCorrelationLSHBands() > 0)
+                ? new EDCoWSimHash(config.getCorrelationLSHBands(), config.getCorrelationLSHBits())
+                : null;
         for(delta = start; delta < end; delta += step) {
             EDCoW edcow = new EDCoW(delta, delta2, gamma, minTermSupport, maxTermSupport, 
                     timeSliceA, timeSliceB, corpus);
 
+            edcow.setExecutor(windowExecutor);
+            edcow.setSignalThreads(config.getSignalThreads());
+            edcow.setUseEJML(config.useEJMLCorrelations());
+            edcow.setUseNormBounds(config.useBoundedCorrelations());
+            edcow.setThresholdSketchCapacity(config.getThresholdSketchCapacity());
+            edcow.setUseLouvain(config.useLouvainCommunities());
+            edcow.setCorrelationCandidates(correlationCandidates);
+            edcow.setCandidateReport(config.reportCorrelationLSH());
+            edcow.setUseFloatStorage(config.useFloatStorage());
+            edcow.setPrecisionReport(config.reportStoragePrecision());
             edcow.apply(); //Apply the algorithm
 
             EDCoWEvaluator eval;
@@ -105,6 +122,9 @@ public class EDCoWExperimenter {
             }
             lines.add(""); //Empty line
         }
+        if(windowExecutor != null) {
+            windowExecutor.shutdown();
+        }
         return lines;
     }
     
@@ -122,10 +142,28 @@ public class EDCoWExperimenter {
         
         List<String> lines = new ArrayList<>();
         String line;
+        ExecutorService windowExecutor = EDCoW.newWindowExecutor(config.getWindowThreads());
+        EDCoWSimHash correlationCandidates = (config.getCorrelationLSHBands() > 0)
+                ? new EDCoWSimHash(config.getCorrelationLSHBands(), config.getCorrelationLSHBits())
+                : null;
+        //Gamma only changes the thresholds, so the signals of all runs are shared
+        EDCoWSignalCache signalCache = new EDCoWSignalCache(config.getSignalCacheMemory(),
+                config.getSignalCacheSpillPath());
         for(gamma = start; gamma < end; gamma += step) {
             EDCoW edcow = new EDCoW(delta, delta2, gamma,
                     minTermSupport, maxTermSupport, timeSliceA, timeSliceB, corpus);
 
+            edcow.setExecutor(windowExecutor);
+            edcow.setSignalThreads(config.getSignalThreads());
+            edcow.setUseEJML(config.useEJMLCorrelations());
+            edcow.setUseNormBounds(config.useBoundedCorrelations());
+            edcow.setThresholdSketchCapacity(config.getThresholdSketchCapacity());
+            edcow.setUseLouvain(config.useLouvainCommunities());
+            edcow.setCorrelationCandidates(correlationCandidates);
+            edcow.setCandidateReport(config.reportCorrelationLSH());
+            edcow.setUseFloatStorage(config.useFloatStorage());
+            edcow.setPrecisionReport(config.reportStoragePrecision());
+            edcow.setSignalCache(signalCache);
             edcow.apply(); //Apply the algorithm
 
             EDCoWEvaluator eval;
@@ -157,6 +195,10 @@ public class EDCoWExperimenter {
             }
             lines.add(""); //Empty line
         }
+        signalCache.clear();
+        if(windowExecutor != null) {
+            windowExecutor.shutdown();
+        }
         return lines;
     }
     
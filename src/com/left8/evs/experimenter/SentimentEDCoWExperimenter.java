@@ -17,19 +17,29 @@
 package com.left8.evs.experimenter;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import com.left8.evs.edmodule.edcow.EDCoWSignalCache;
+import com.left8.evs.edmodule.edcow.EDCoWSimHash;
 import com.left8.evs.evs.data.SentimentEDCoWCorpus;
 import com.left8.evs.evs.edcow.SentimentEDCoW;
 import com.left8.evs.evs.edcow.event.SentimentEDCoWEvent;
+import com.left8.evs.evs.edcow.event.SentimentEDCoWEvents;
 import com.left8.evs.evs.evaluator.SentimentEDCoWEvaluator;
 import com.left8.evs.utilities.Config;
 import com.left8.evs.utilities.Utilities;
 
 /**
+ * Runs the parameter sweeps of SentimentEDCoW. Detection does not depend on
+ * the sentiment source, so the events and the evaluation of every parameter
+ * set are kept and the sweeps of the other sources only report them. The
+ * events are annotated with the statistics of all sources at once.
  *
  * @author  Lefteris Paraskevas
- * @version 2016.04.09_2052
+ * @version 2026.10.19_0020
  */
 public class SentimentEDCoWExperimenter {
     
@@ -42,6 +52,7 @@ public class SentimentEDCoWExperimenter {
     private final int timeSliceA;
     private final int timeSliceB;
     private final Config config;
+    private final Map<String, Detection> detections = new HashMap<>(); //By parameter set
     
     public SentimentEDCoWExperimenter(SentimentEDCoWCorpus sCorpus, int delta,
             int delta2, int gamma, double minTermSupport, double maxTermSupport,
@@ -72,49 +83,17 @@ public class SentimentEDCoWExperimenter {
             int sentimentSource, boolean showInlineInfo) {
         
         List<String> lines = new ArrayList<>();
-        String line;
+        ExecutorService windowExecutor = SentimentEDCoW.newWindowExecutor(config.getWindowThreads());
+        EDCoWSimHash correlationCandidates = (config.getCorrelationLSHBands() > 0)
+                ? new EDCoWSimHash(config.getCorrelationLSHBands(), config.getCorrelationLSHBits())
+                : null;
         for(delta = start; delta < end; delta += step) {
-            SentimentEDCoW sEdcow = new SentimentEDCoW(delta, delta2, gamma,
-                    minTermSupport, maxTermSupport, timeSliceA, timeSliceB, sCorpus, 
-                    sentimentSource);
-
-            sEdcow.apply(); //Apply the algorithm
-
-            SentimentEDCoWEvaluator eval;
-            if(sEdcow.events.list.isEmpty()) {
-                eval = new SentimentEDCoWEvaluator();
-            } else {
-                eval = new SentimentEDCoWEvaluator(
-                        delta, delta2, gamma, timeSliceA, timeSliceB, minTermSupport,
-                        maxTermSupport, sEdcow.events, config,
-                        sCorpus.getEDCoWCorpus().getStemsHandler());
-                eval.evaluate(showInlineInfo);
-            }
-
-            int i = 0;
-            line = (sEdcow.events.list.isEmpty() ? 0 : sEdcow.events.list.size()) 
-                    + "\t" + delta + "\t" + delta2 + "\t" + gamma 
-                    + "\t" + minTermSupport + "\t" + maxTermSupport 
-                    + "\t" + eval.getTotalRecall() + "\t" 
-                    + sEdcow.getExecutionTime();
-            lines.add(line); //Add first line
-            for(SentimentEDCoWEvent event : sEdcow.events.list) {
-                line = event.getTemporalDescriptionLowerBound()+ "\t" 
-                        + eval.getMatchedGroundTruthID(i) + "\t"
-                        + event.getTextualDescription() + "\t"
-                        + event.getMainSentimentOfEvent() + "\t"
-                        + event.getPositiveSentimentPercentage() + "\t"
-                        + event.getNegatineSentimentPercentage() + "\t"
-                        + event.getNeutralSentimentPercentage() + "\t"
-                        + event.getIrrelevantSentimentPercentage();
-                lines.add(line); //Add every event in a single line
-                i++;
-            }
-            if(lines.size() == 1) { //No events were created
-                line = "No events";
-                lines.add(line);
-            }
-            lines.add(""); //Empty line
+            Detection detection = detect(windowExecutor, correlationCandidates, null,
+                    sentimentSource, showInlineInfo);
+            addLines(lines, detection, sentimentSource);
+        }
+        if(windowExecutor != null) {
+            windowExecutor.shutdown();
         }
         return lines;
     }
@@ -134,53 +113,105 @@ public class SentimentEDCoWExperimenter {
             int sentimentSource, boolean showInlineInfo) {
         
         List<String> lines = new ArrayList<>();
-        String line;
+        ExecutorService windowExecutor = SentimentEDCoW.newWindowExecutor(config.getWindowThreads());
+        EDCoWSimHash correlationCandidates = (config.getCorrelationLSHBands() > 0)
+                ? new EDCoWSimHash(config.getCorrelationLSHBands(), config.getCorrelationLSHBits())
+                : null;
+        //Gamma only changes the thresholds, so the signals of all runs are shared
+        EDCoWSignalCache signalCache = new EDCoWSignalCache(config.getSignalCacheMemory(),
+                config.getSignalCacheSpillPath());
         for(gamma = start; gamma < end; gamma += step) {
-            SentimentEDCoW sEdcow = new SentimentEDCoW(delta, delta2, gamma,
-                    minTermSupport, maxTermSupport, timeSliceA, timeSliceB, sCorpus, 
-                    sentimentSource);
-
-            sEdcow.apply(); //Apply the algorithm
+            Detection detection = detect(windowExecutor, correlationCandidates, signalCache,
+                    sentimentSource, showInlineInfo);
+            addLines(lines, detection, sentimentSource);
+        }
+        signalCache.clear();
+        if(windowExecutor != null) {
+            windowExecutor.shutdown();
+        }
+        return lines;
+    }
+    
+    /**
+     * Returns the events and the evaluation of the current parameters,
+     * detecting them only if no sweep has detected them already.
+     */
+    private Detection detect(ExecutorService windowExecutor, EDCoWSimHash correlationCandidates,
+            EDCoWSignalCache signalCache, int sentimentSource, boolean showInlineInfo) {
+        String parameters = delta + "\t" + delta2 + "\t" + gamma 
+                + "\t" + minTermSupport + "\t" + maxTermSupport;
+        Detection detection = detections.get(parameters);
+        if(detection != null) {
+            return detection;
+        }
+        SentimentEDCoW sEdcow = new SentimentEDCoW(delta, delta2, gamma,
+                minTermSupport, maxTermSupport, timeSliceA, timeSliceB, sCorpus, 
+                sentimentSource);
 
-            SentimentEDCoWEvaluator eval;
-            if(sEdcow.events.list.isEmpty()) {
-                eval = new SentimentEDCoWEvaluator();
-            } else {
-                eval = new SentimentEDCoWEvaluator(
-                        delta, delta2, gamma, timeSliceA, timeSliceB, minTermSupport,
-                        maxTermSupport, sEdcow.events, config,
-                        sCorpus.getEDCoWCorpus().getStemsHandler());
-                eval.evaluate(showInlineInfo);
-            }
+        sEdcow.setExecutor(windowExecutor);
+        sEdcow.setSignalThreads(config.getSignalThreads());
+        sEdcow.setUseEJML(config.useEJMLCorrelations());
+        sEdcow.setUseNormBounds(config.useBoundedCorrelations());
+        sEdcow.setThresholdSketchCapacity(config.getThresholdSketchCapacity());
+        sEdcow.setUseLouvain(config.useLouvainCommunities());
+        sEdcow.setCorrelationCandidates(correlationCandidates);
+        sEdcow.setCandidateReport(config.reportCorrelationLSH());
+        sEdcow.setUseFloatStorage(config.useFloatStorage());
+        sEdcow.setPrecisionReport(config.reportStoragePrecision());
+        sEdcow.setSignalCache(signalCache);
+        sEdcow.apply(); //Apply the algorithm
 
-            int i = 0;
-            line = (sEdcow.events.list.isEmpty() ? 0 : sEdcow.events.list.size()) 
-                    + "\t" + delta + "\t" + delta2 + "\t" + gamma 
-                    + "\t" + minTermSupport + "\t" + maxTermSupport 
-                    + "\t" + eval.getTotalRecall() + "\t" 
-                    + sEdcow.getExecutionTime();
-            lines.add(line); //Add first line
-            for(SentimentEDCoWEvent event : sEdcow.events.list) {
-                line = event.getTemporalDescriptionLowerBound()+ "\t" 
-                        + eval.getMatchedGroundTruthID(i) + "\t"
-                        + event.getTextualDescription() + "\t"
-                        + event.getMainSentimentOfEvent() + "\t"
-                        + event.getPositiveSentimentPercentage() + "\t"
-                        + event.getNegatineSentimentPercentage() + "\t"
-                        + event.getNeutralSentimentPercentage() + "\t"
-                        + event.getIrrelevantSentimentPercentage();
-                lines.add(line); //Add every event in a single line
-                i++;
-            }
-            if(lines.size() == 1) { //No events were created
-                line = "No events";
-                lines.add(line);
-            }
-            lines.add(""); //Empty line
+        SentimentEDCoWEvaluator eval;
+        if(sEdcow.events.list.isEmpty()) {
+            eval = new SentimentEDCoWEvaluator();
+        } else {
+            eval = new SentimentEDCoWEvaluator(
+                    delta, delta2, gamma, timeSliceA, timeSliceB, minTermSupport,
+                    maxTermSupport, sEdcow.events, config,
+                    sCorpus.getEDCoWCorpus().getStemsHandler());
+            eval.evaluate(showInlineInfo);
         }
-        return lines;
+        detection = new Detection(sEdcow.events, eval, sEdcow.getExecutionTime());
+        detections.put(parameters, detection);
+        return detection;
+    }
+    
+    /**
+     * Adds the lines of a detection for a sentiment source.
+     */
+    private void addLines(List<String> lines, Detection detection, int sentimentSource) {
+        int i = 0;
+        String line = (detection.events.list.isEmpty() ? 0 : detection.events.list.size()) 
+                + "\t" + delta + "\t" + delta2 + "\t" + gamma 
+                + "\t" + minTermSupport + "\t" + maxTermSupport 
+                + "\t" + detection.eval.getTotalRecall() + "\t" 
+                + detection.executionTime;
+        lines.add(line); //Add first line
+        for(SentimentEDCoWEvent event : detection.events.list) {
+            line = event.getTemporalDescriptionLowerBound()+ "\t" 
+                    + detection.eval.getMatchedGroundTruthID(i) + "\t"
+                    + event.getTextualDescription() + "\t"
+                    + event.getMainSentimentOfEvent(sentimentSource) + "\t"
+                    + event.getPositiveSentimentPercentage(sentimentSource) + "\t"
+                    + event.getNegatineSentimentPercentage(sentimentSource) + "\t"
+                    + event.getNeutralSentimentPercentage(sentimentSource) + "\t"
+                    + event.getIrrelevantSentimentPercentage(sentimentSource);
+            lines.add(line); //Add every event in a single line
+            i++;
+        }
+        if(lines.size() == 1) { //No events were created
+            line = "No events";
+            lines.add(line);
+        }
+        lines.add(""); //Empty line
     }
     
+    /**
+     * Forgets the detections of the previous sweeps, e.g. to release their
+     * events once all sentiment sources are exported.
+     */
+    public final void clearDetections() { detections.clear(); }
+    
      /**
      * Exports a List of String lines into a file.
      * @param filename The name of the file.
@@ -192,4 +223,20 @@ public class SentimentEDCoWExperimenter {
             + config.getEdcowOutputPath()
             + filename, lines, true);
     }
+    
+    /**
+     * The events and the evaluation of a parameter set.
+     */
+    private static class Detection {
+        
+        private final SentimentEDCoWEvents events;
+        private final SentimentEDCoWEvaluator eval;
+        private final long executionTime;
+        
+        Detection(SentimentEDCoWEvents events, SentimentEDCoWEvaluator eval, long executionTime) {
+            this.events = events;
+            this.eval = eval;
+            this.executionTime = executionTime;
+        }
+    }
 }
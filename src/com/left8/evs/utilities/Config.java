@@ -27,7 +27,7 @@ import java.util.regex.Pattern;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1311
+ * @version 2026.10.19_0030
  */
 public class Config {
     private static String consumerKey;
@@ -90,6 +90,24 @@ public class Config {
     private static String edcow;
     private static String opf;
     private static String noSentiment;
+    
+    //Performance settings, all optional
+    private static int corpusBuildThreads;
+    private static String corpusSnapshotFile;
+    private static int windowThreads;
+    private static int signalThreads;
+    private static String correlationEngine;
+    private static int thresholdSketchCapacity;
+    private static String communityDetection;
+    private static double corpusMinTermSupport;
+    private static int signalCacheMemory;
+    private static String signalCacheSpillPath;
+    private static int correlationLSHBands;
+    private static int correlationLSHBits;
+    private static String correlationLSHReport;
+    private static String signalKernels;
+    private static String storagePrecision;
+    private static String storagePrecisionReport;
 
     public Config() throws IOException {
         
@@ -166,6 +184,25 @@ public class Config {
             opf = prop.getProperty("opf");
             noSentiment = prop.getProperty("noSentiment");
             
+            corpusBuildThreads = getIntProperty(prop, "CorpusBuildThreads", 
+                    Runtime.getRuntime().availableProcessors());
+            corpusSnapshotFile = getStringProperty(prop, "CorpusSnapshotFile");
+            windowThreads = getIntProperty(prop, "WindowThreads", 1);
+            signalThreads = getIntProperty(prop, "SignalThreads", 
+                    Runtime.getRuntime().availableProcessors());
+            correlationEngine = getStringProperty(prop, "CorrelationEngine");
+            thresholdSketchCapacity = getIntProperty(prop, "ThresholdSketchCapacity", 0);
+            communityDetection = getStringProperty(prop, "CommunityDetection");
+            corpusMinTermSupport = getDoubleProperty(prop, "CorpusMinTermSupport", 0);
+            signalCacheMemory = getIntProperty(prop, "SignalCacheMemory", 0);
+            signalCacheSpillPath = getStringProperty(prop, "SignalCacheSpillPath");
+            correlationLSHBands = getIntProperty(prop, "CorrelationLSHBands", 0);
+            correlationLSHBits = getIntProperty(prop, "CorrelationLSHBits", 4);
+            correlationLSHReport = getStringProperty(prop, "CorrelationLSHReport");
+            signalKernels = getStringProperty(prop, "SignalKernels");
+            storagePrecision = getStringProperty(prop, "StoragePrecision");
+            storagePrecisionReport = getStringProperty(prop, "StoragePrecisionReport");
+            
         } catch (IOException | NumberFormatException e) {
             if(inputStream != null) {
                 inputStream.close();
@@ -487,4 +524,191 @@ public class Config {
      * @return the argument name of NoSentiment flag.
      */
     public String getNoSentimentArgName() { return noSentiment; }
+    
+    /**
+     * Returns the number of threads that build the corpora.
+     * @return An integer with the number of threads. If the property is
+     * missing, it equals the number of the available processors.
+     */
+    public int getCorpusBuildThreads() { return corpusBuildThreads; }
+    
+    /**
+     * Returns the file in which the EDCoW corpus is stored, so that it can be
+     * reopened instead of being rebuilt.
+     * @return A String with the path of the snapshot file or null if corpus
+     * snapshots are disabled.
+     */
+    public String getCorpusSnapshotFile() { return corpusSnapshotFile; }
+    
+    /**
+     * Returns the number of threads that process the windows of EDCoW.
+     * @return An integer with the number of threads. If the property is
+     * missing, it equals 1 and the windows are processed sequentially.
+     */
+    public int getWindowThreads() { return windowThreads; }
+    
+    /**
+     * Returns the number of threads that compute the keyword signals of every
+     * EDCoW window.
+     * @return An integer with the number of threads. If the property is
+     * missing, it equals the number of the available processors.
+     */
+    public int getSignalThreads() { return signalThreads; }
+    
+    /**
+     * Returns whether the cross correlations of EDCoW are computed with EJML
+     * instead of the tiles of EDCoWCorrelationMatrix.
+     * @return True if the CorrelationEngine property is 'ejml', false if it
+     * is 'tiles', 'bounded' or missing.
+     */
+    public boolean useEJMLCorrelations() { return "ejml".equalsIgnoreCase(correlationEngine); }
+    
+    /**
+     * Returns whether the cross correlations of EDCoW skip the pairs of
+     * keywords whose norm bound is below theta2, instead of computing all
+     * tiles of EDCoWCorrelationMatrix.
+     * @return True if the CorrelationEngine property is 'bounded', false
+     * otherwise.
+     */
+    public boolean useBoundedCorrelations() { return "bounded".equalsIgnoreCase(correlationEngine); }
+    
+    /**
+     * Returns the capacity of the quantile sketch that approximates theta2 of
+     * EDCoW, instead of selecting it from a copy of the correlations.
+     * @return An integer with the number of values per level of the sketch.
+     * If the property is missing, it equals 0 and theta2 is exact.
+     */
+    public int getThresholdSketchCapacity() { return thresholdSketchCapacity; }
+    
+    /**
+     * Returns whether the communities of EDCoW are detected with Louvain
+     * instead of jmod.
+     * @return True if the CommunityDetection property is 'louvain', false if
+     * it is 'jmod' or missing.
+     */
+    public boolean useLouvainCommunities() { return "louvain".equalsIgnoreCase(communityDetection); }
+    
+    /**
+     * Returns the minimum term support of the pre-filter of the EDCoW corpus,
+     * below which the terms are not counted in the time buckets. The events
+     * of EDCoW stay the same as long as it does not exceed the minimum term
+     * support of EDCoW.
+     * @return A double with the support, e.g. the minimum term support of
+     * EDCoW. If the property is missing, it equals 0 and all terms are counted.
+     */
+    public double getCorpusMinTermSupport() { return corpusMinTermSupport; }
+    
+    /**
+     * Returns the memory of the signal cache of the EDCoW gamma sweeps, above
+     * which its least recently used windows are spilled or dropped.
+     * @return A long with the number of bytes of the SignalCacheMemory
+     * property, which is given in MB. If the property is missing, it equals
+     * 0 and the cache has no limit.
+     */
+    public long getSignalCacheMemory() { return signalCacheMemory * 1024L * 1024L; }
+    
+    /**
+     * Returns the directory where the signal cache of the EDCoW gamma sweeps
+     * spills its windows.
+     * @return A String with the path or null if the SignalCacheSpillPath
+     * property is missing, in which case the windows are dropped.
+     */
+    public String getSignalCacheSpillPath() { return signalCacheSpillPath; }
+    
+    /**
+     * Returns the number of SimHash bands that select the pairs of keywords
+     * whose cross correlations are computed by EDCoW. More bands recover more
+     * of the correlated pairs, at the cost of more pairs.
+     * @return An integer with the number of bands. If the property is
+     * missing, it equals 0 and all pairs are computed.
+     */
+    public int getCorrelationLSHBands() { return correlationLSHBands; }
+    
+    /**
+     * Returns the number of bits per SimHash band of the pairs of keywords of
+     * EDCoW. More bits prune more pairs, at the cost of missing some
+     * correlated ones.
+     * @return An integer with the number of bits. If the property is
+     * missing, it equals 4.
+     */
+    public int getCorrelationLSHBits() { return correlationLSHBits; }
+    
+    /**
+     * Returns whether the windows of EDCoW whose correlations are computed
+     * for the SimHash candidate pairs are also run on the exact correlations,
+     * to report the differences of their edges and communities.
+     * @return True if the CorrelationLSHReport property is 'true', false
+     * otherwise.
+     */
+    public boolean reportCorrelationLSH() { return "true".equalsIgnoreCase(correlationLSHReport); }
+    
+    /**
+     * Returns the kernels of the dot products, the sums of squares and the
+     * first signals of EDCoW.
+     * @return The SignalKernels property, 'scalar' or 'lanes', or null if it
+     * is missing, which selects the scalar kernels.
+     */
+    public String getSignalKernels() { return signalKernels; }
+    
+    /**
+     * Returns whether the signals and the cross correlations of the windows
+     * of EDCoW are stored as floats instead of doubles.
+     * @return True if the StoragePrecision property is 'float', false if it
+     * is 'double' or missing.
+     */
+    public boolean useFloatStorage() { return "float".equalsIgnoreCase(storagePrecision); }
+    
+    /**
+     * Returns whether the windows of EDCoW whose signals and correlations are
+     * stored as floats are also run on the double path, to report the errors
+     * of the float storage.
+     * @return True if the StoragePrecisionReport property is 'true', false
+     * otherwise.
+     */
+    public boolean reportStoragePrecision() { return "true".equalsIgnoreCase(storagePrecisionReport); }
+    
+    /**
+     * Reads an optional integer property.
+     * @param prop A Properties object.
+     * @param name The name of the property.
+     * @param defaultValue The value to be returned if the property is missing or empty.
+     * @return An integer with the value of the property.
+     */
+    private static int getIntProperty(Properties prop, String name, int defaultValue) {
+        String value = prop.getProperty(name);
+        if(value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+    
+    /**
+     * Reads an optional double property.
+     * @param prop A Properties object.
+     * @param name The name of the property.
+     * @param defaultValue The value to be returned if the property is missing or empty.
+     * @return A double with the value of the property.
+     */
+    private static double getDoubleProperty(Properties prop, String name, double defaultValue) {
+        String value = prop.getProperty(name);
+        if(value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Double.parseDouble(value.trim());
+    }
+    
+    /**
+     * Reads an optional String property.
+     * @param prop A Properties object.
+     * @param name The name of the property.
+     * @return A String with the trimmed value of the property or null if it
+     * is missing or empty.
+     */
+    private static String getStringProperty(Properties prop, String name) {
+        String value = prop.getProperty(name);
+        if(value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
 }
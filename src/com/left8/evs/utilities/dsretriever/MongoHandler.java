@@ -39,7 +39,7 @@ import com.left8.evs.utilities.Utilities;
 /**
  *
  * @author  Lefteris Paraskevas
- * @version 2016.11.26_1312
+ * @version 2026.10.19_0030
  */
 public class MongoHandler {
     
@@ -264,9 +264,42 @@ public class MongoHandler {
     /**
      * Retrieves all stored retrievedTweets in MongoDB Store.
      * @return A List containing all retrieved retrievedTweets
+     * @see #retrieveAllTweetsAsTable() retrieveAllTweetsAsTable() for a compact
+     * columnar alternative.
      */
     public final List<Tweet> retrieveAllTweetsFiltered() {
-        List<Tweet> retrievedTweets = new ArrayList<>();
+        TweetTable table = retrieveAllTweetsAsTable();
+        return table == null ? null : new ArrayList<>(table.asList());
+    }
+    
+    /**
+     * Counts the stored tweets in MongoDB Store, after the language filter.
+     * @return A long with the number of tweets or -1 if they could not be counted.
+     */
+    public final long countTweets() {
+        try {
+            MongoCollection<Document> collection = db.getCollection(
+                    config.getRawTweetsCollectionName());
+            if(langFilter.equals("no_filter")) {
+                return collection.count();
+            }
+            return collection.count(new Document(config.getLanguageFieldName(), langFilter));
+        } catch(MongoException e) {
+            PrintUtilities.printErrorMessageln("Cannot count the tweets of collection '" 
+                    + config.getRawTweetsCollectionName() + "'");
+            Logger.getLogger(MongoHandler.class.getName()).log(Level.SEVERE, null, e);
+            return -1;
+        }
+    }
+    
+    /**
+     * Retrieves all stored tweets in MongoDB Store, straight into the columns
+     * of a TweetTable. No Tweet object is created per document.
+     * @return A TweetTable containing all retrieved tweets or null if the
+     * documents could not be read.
+     */
+    public final TweetTable retrieveAllTweetsAsTable() {
+        TweetTable retrievedTweets = new TweetTable();
         if(langFilter.equals("no_filter")) {
             PrintUtilities.printWarningMessageln("No language filter was applied. Retrieving "
                     + "all tweets, unfiltered.");
@@ -373,13 +406,11 @@ public class MongoHandler {
                             negEmot = 0;
                         }
                         
-                        Tweet tweet = new Tweet(id, username, userId, text, date, latitude, 
+                        retrievedTweets.add(id, username, userId, text, date, latitude, 
                                 longitude, numberOfRetweets, numberOfFavorites,
                                 isRetweet, isFavorited, isRetweeted, language,
                                 retweetId, stanfordSentiment, posEmot, negEmot,
                                 naiveBayesSentiment, bayesianNetSentiment);
-                        
-                        retrievedTweets.add(tweet);
                     }
                 }
             });
@@ -496,7 +527,7 @@ public class MongoHandler {
                 posEmot = 0;
                 negEmot = 0;
             }
-            Tweet tweet = new Tweet(id_, username, userId, text, date, latitude, 
+            Tweet tweet = new TweetRecord(id_, username, userId, text, date, latitude, 
                     longitude, numberOfRetweets, numberOfFavorites, isRetweet,
                     isFavorited, isRetweeted, language, retweetId, stanfordSentiment,
                     posEmot, negEmot, naiveBayesSentiment, bayesianNetSentiment);
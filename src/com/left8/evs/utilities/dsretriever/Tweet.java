@@ -19,143 +19,105 @@ package com.left8.evs.utilities.dsretriever;
 import java.util.Date;
 
 /**
+ * A tweet along with its sentiment annotations. <br>
+ * The class keeps no data of its own: {@link TweetRecord TweetRecord} holds
+ * the fields of a single tweet, while {@link TweetTable.TweetView TweetView}
+ * reads a row of a {@link TweetTable TweetTable}.
  *
  * @author  Lefteris Paraskevas
- * @version 2016.03.27_2333
+ * @version 2026.10.19_0030
  */
-public class Tweet {
-    
-    private final long id;
-    private final String username;
-    private final long userId;
-    private final String text;
-    private final Date date;
-    private final double latitude;
-    private final double longitude;
-    private final int numberOfRetweets;
-    private final int numberOfFavorites;
-    private final boolean retweet;
-    private final boolean favorited;
-    private final boolean retweeted;
-    private final String language;
-    private final long retweetId;
-    private final int stanfordSentiment;
-    private final int positiveEmoticonFlag;
-    private final int negativeEmoticonFlag;
-    private final int naiveBayesSentiment;
-    private final int bayesianNetSentiment;
-    
-    public Tweet(long id, String username, long userId, String text, Date date, 
-            double latitude, double longitude, int numberOfRetweets, 
-            int numberOfFavorites, boolean retweet, boolean favorited, 
-            boolean retweeted, String language, long retweetId, int stanfordSentiment,
-            int positiveEmoticonFlag, int negativeEmoticonFlag, int naiveBayesSentiment,
-            int bayesianNetSentiment) {
-        
-        this.id = id;
-        this.username = username;
-        this.userId = userId;
-        this.text = text;
-        this.date = date;
-        this.latitude = latitude;
-        this.longitude = longitude;
-        this.numberOfRetweets = numberOfRetweets;
-        this.numberOfFavorites = numberOfFavorites;
-        this.retweet = retweet;
-        this.favorited = favorited;
-        this.retweeted = retweeted;
-        this.language = language;
-        this.retweetId = retweetId;
-        this.stanfordSentiment = stanfordSentiment;
-        this.positiveEmoticonFlag = positiveEmoticonFlag;
-        this.negativeEmoticonFlag = negativeEmoticonFlag;
-        this.naiveBayesSentiment = naiveBayesSentiment;
-        this.bayesianNetSentiment = bayesianNetSentiment;
-    }
+public abstract class Tweet {
     
     /**
      * Returns the ID of the tweet.
      * @return A String containing the ID
      */
-    public long getID() { return id; }
+    public abstract long getID();
     
     /**
      * Returns the username of the creator of the tweet.
      * @return A String containing the username.
      */
-    public String getUsername() { return username; }
+    public abstract String getUsername();
     
     /**
      * Returns the ID of the user who published the tweet.
      * @return A long representing the ID of the publisher of the tweet.
      */
-    public long getUserId() { return userId; }
+    public abstract long getUserId();
     
     /**
      * Returns the actual text of the tweet.
      * @return A String containing the text of the tweet
      */
-    public String getText() { return text; }
+    public abstract String getText();
     
     /**
      * Returns the date the tweet was created at.
      * @return A date object
      */
-    public Date getDate() { return date; }
+    public abstract Date getDate();
+    
+    /**
+     * Returns the date the tweet was created at, without creating a Date.
+     * @return A long with the date in epoch milliseconds.
+     */
+    public abstract long getDateMillis();
     
     /**
      * Returns the latitude of the location where the tweet was created.
      * @return A String containing the tweet's latitude or '-1' in case there's no location information
      */
-    public double getLatitude() { return latitude; }
+    public abstract double getLatitude();
             
     /**
      * Returns the longitude of the location where the tweet was created.
      * @return A long containing the tweet's longitude or '-1' in case there's no location information
      */
-    public double getLongitude() { return longitude; }
+    public abstract double getLongitude();
     
     /**
      * Returns the number of times the tweet was retweeted.
      * @return An integer containing the number of the tweet's retweets.
      */
-    public int getNumberOfRetweets() { return numberOfRetweets; }
+    public abstract int getNumberOfRetweets();
     
     /**
      * Returns the number of times the tweet was favorited.
      * @return An integer containing the number of the tweet's favorites.
      */
-    public int getNumberOfFavorites() { return numberOfFavorites; }
+    public abstract int getNumberOfFavorites();
     
     /**
      * Informs whether the tweet was actually a retweet itself.
      * @return True if the tweet is a retweet, false otherwise.
      */
-    public boolean isRetweet() { return retweet; }
+    public abstract boolean isRetweet();
     
     /**
      * Informs whether the tweet was favorited at all.
      * @return True if the tweet is favorited at least once, false otherwise.
      */
-    public boolean isFavorited() { return favorited; }
+    public abstract boolean isFavorited();
     
     /**
      * Informs whether the tweet was retweeted at all.
      * @return True if the tweet is retweeted at least once, false otherwise.
      */
-    public boolean isRetweeted() { return retweeted; }
+    public abstract boolean isRetweeted();
     
     /**
      * Returns the language the tweet was written in.
      * @return A String containing the abbreviation of the tweet's language.
      */
-    public String getLanguage() { return language; }
+    public abstract String getLanguage();
     
     /**
      * Returns the original ID of the retweet or -1 if there isn't any.
      * @return An integer with the original ID of the retweet or -1.
      */
-    public long getOriginalIDOfRetweet() { return retweetId; }
+    public abstract long getOriginalIDOfRetweet();
     
     /**
      * Returns the stanfordSentiment of a tweet which was predicted by the Stanford 
@@ -163,7 +125,7 @@ public class Tweet {
      * @return An integer in the range of 0 to 5. The more the return value 
      * approach zero, the more negative the stanfordSentiment.
      */
-    public int getStanfordSentiment() { return stanfordSentiment; }
+    public abstract int getStanfordSentiment();
     
     /**
      * Returns the naiveBayesSentiment of a tweet, which was predicted by the 
@@ -172,7 +134,7 @@ public class Tweet {
      * indicates a negative sentiment, 1 a neutral, 2 a positive one while -1 
      * indicates an irrelevant stanfordSentiment polarity.
      */
-    public int getNaiveBayesSentiment() { return naiveBayesSentiment; }
+    public abstract int getNaiveBayesSentiment();
     
     /**
      * Returns the bayesianNetSentiment of a tweet, which was predicted by the 
@@ -181,19 +143,19 @@ public class Tweet {
      * indicates a negative sentiment, 1 a neutral, 2 a positive one while -1 
      * indicates an irrelevant stanfordSentiment polarity.
      */
-    public int getBayesianNetSentiment() { return bayesianNetSentiment; }
+    public abstract int getBayesianNetSentiment();
     
     /**
      * Returns a flag that indicates whether a tweet contains a positive emoticon.
      * @return 0 when the tweet does not contain a positive emoticon, 1 otherwise.
      */
-    public int getPositiveEmoticonFlag() { return positiveEmoticonFlag; }
+    public abstract int getPositiveEmoticonFlag();
 
     /**
      * Returns a flag that indicates whether a tweet contains a negative emoticon.
      * @return 0 when the tweet does not contain a negative emoticon, 1 otherwise.
      */
-    public int getNegativeEmoticonFlag() { return negativeEmoticonFlag; }
+    public abstract int getNegativeEmoticonFlag();
     
     /**
      * Method to return a 64-bit hash code for the tweet, based on its text.
@@ -202,7 +164,7 @@ public class Tweet {
     public long _64bitHashCode() {
         long hash = 0;
         long h = hash;
-        char[] value = text.toCharArray();
+        char[] value = getText().toCharArray();
         if (h == 0 && value.length > 0) {
             char val[] = value;
 
@@ -221,7 +183,7 @@ public class Tweet {
         System.out.println("Tweet with ID '" + getID() + "'");
         System.out.println("--------------------------------------------");
         System.out.println("@" + getUsername());
-        System.out.println("User ID: " + userId);
+        System.out.println("User ID: " + getUserId());
         System.out.println(getText());
         System.out.println("Created at: " + getDate().toString());
         System.out.println("Location");
@@ -238,17 +200,17 @@ public class Tweet {
             System.out.println("Favorited " + (getNumberOfFavorites() == 1 ? "1 time." : getNumberOfFavorites() + " times."));
         }
         System.out.println("Language: " + getLanguage());
-        System.out.println(positiveEmoticonFlag == 1 ? 
+        System.out.println(getPositiveEmoticonFlag() == 1 ? 
                 "It contains at least one positive emoticon." 
                 : 
                 "It does not contain a positive emoticon.");
-        System.out.println(negativeEmoticonFlag == 1 ? 
+        System.out.println(getNegativeEmoticonFlag() == 1 ? 
                 "It contains at least one positive emoticon." 
                 : 
                 "It does not contain a positive emoticon.");
-        System.out.println("Naive Bayes Sentiment: " + naiveBayesSentiment);
-        System.out.println("Bayesian Net Sentiment: " + bayesianNetSentiment);
-        System.out.println("Stanford Sentiment Treebank Sentiment: " + stanfordSentiment);
+        System.out.println("Naive Bayes Sentiment: " + getNaiveBayesSentiment());
+        System.out.println("Bayesian Net Sentiment: " + getBayesianNetSentiment());
+        System.out.println("Stanford Sentiment Treebank Sentiment: " + getStanfordSentiment());
         System.out.println("--------------------------------------------");
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * aString with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.utilities.dsretriever;
+
+import java.util.Date;
+
+/**
+ * A tweet that keeps all of its data in fields, e.g. one that was read from
+ * MongoDB.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class TweetRecord extends Tweet {
+    
+    private final long id;
+    private final String username;
+    private final long userId;
+    private final String text;
+    private final Date date;
+    private final double latitude;
+    private final double longitude;
+    private final int numberOfRetweets;
+    private final int numberOfFavorites;
+    private final boolean retweet;
+    private final boolean favorited;
+    private final boolean retweeted;
+    private final String language;
+    private final long retweetId;
+    private final int stanfordSentiment;
+    private final int positiveEmoticonFlag;
+    private final int negativeEmoticonFlag;
+    private final int naiveBayesSentiment;
+    private final int bayesianNetSentiment;
+    
+    public TweetRecord(long id, String username, long userId, String text, Date date, 
+            double latitude, double longitude, int numberOfRetweets, 
+            int numberOfFavorites, boolean retweet, boolean favorited, 
+            boolean retweeted, String language, long retweetId, int stanfordSentiment,
+            int positiveEmoticonFlag, int negativeEmoticonFlag, int naiveBayesSentiment,
+            int bayesianNetSentiment) {
+        
+        this.id = id;
+        this.username = username;
+        this.userId = userId;
+        this.text = text;
+        this.date = date;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.numberOfRetweets = numberOfRetweets;
+        this.numberOfFavorites = numberOfFavorites;
+        this.retweet = retweet;
+        this.favorited = favorited;
+        this.retweeted = retweeted;
+        this.language = language;
+        this.retweetId = retweetId;
+        this.stanfordSentiment = stanfordSentiment;
+        this.positiveEmoticonFlag = positiveEmoticonFlag;
+        this.negativeEmoticonFlag = negativeEmoticonFlag;
+        this.naiveBayesSentiment = naiveBayesSentiment;
+        this.bayesianNetSentiment = bayesianNetSentiment;
+    }
+    
+    @Override
+    public long getID() { return id; }
+    
+    @Override
+    public String getUsername() { return username; }
+    
+    @Override
+    public long getUserId() { return userId; }
+    
+    @Override
+    public String getText() { return text; }
+    
+    @Override
+    public Date getDate() { return date; }
+    
+    @Override
+    public long getDateMillis() { return date.getTime(); }
+    
+    @Override
+    public double getLatitude() { return latitude; }
+    
+    @Override
+    public double getLongitude() { return longitude; }
+    
+    @Override
+    public int getNumberOfRetweets() { return numberOfRetweets; }
+    
+    @Override
+    public int getNumberOfFavorites() { return numberOfFavorites; }
+    
+    @Override
+    public boolean isRetweet() { return retweet; }
+    
+    @Override
+    public boolean isFavorited() { return favorited; }
+    
+    @Override
+    public boolean isRetweeted() { return retweeted; }
+    
+    @Override
+    public String getLanguage() { return language; }
+    
+    @Override
+    public long getOriginalIDOfRetweet() { return retweetId; }
+    
+    @Override
+    public int getStanfordSentiment() { return stanfordSentiment; }
+    
+    @Override
+    public int getNaiveBayesSentiment() { return naiveBayesSentiment; }
+    
+    @Override
+    public int getBayesianNetSentiment() { return bayesianNetSentiment; }
+    
+    @Override
+    public int getPositiveEmoticonFlag() { return positiveEmoticonFlag; }
+    
+    @Override
+    public int getNegativeEmoticonFlag() { return negativeEmoticonFlag; }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.utilities.dsretriever;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Columnar storage of tweets. <br>
+ * Every field of the tweets is kept in its own primitive array: IDs, dates
+ * (epoch milliseconds) and user IDs as longs, the sentiments and emoticon
+ * flags as bytes and the language as a code into a small dictionary. The
+ * usernames and texts are stored UTF-8 encoded in an off-heap arena of
+ * direct buffers. Hence a table holds no object per tweet, and scanning a
+ * single column (e.g. a sentiment) touches only that column. <br>
+ * Existing Tweet-based code keeps working through {@link TweetView TweetView}
+ * flyweights, which read their row on demand; see {@link #asList() asList()}.
+ * Tweets are only appended. Concurrent reads are safe, provided that no
+ * tweets are added meanwhile.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class TweetTable {
+
+    private static final int CHUNK_SIZE = 1 << 22; //Bytes of every chunk of the arena
+    private static final int NULL_STRING = -1;
+    private static final byte RETWEET = 1;
+    private static final byte FAVORITED = 2;
+    private static final byte RETWEETED = 4;
+
+    private int size = 0;
+    private long[] ids = new long[0];
+    private long[] dates = new long[0];
+    private long[] userIds = new long[0];
+    private long[] retweetIds = new long[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private int[] numbersOfRetweets = new int[0];
+    private int[] numbersOfFavorites = new int[0];
+    private byte[] flags = new byte[0]; //Retweet, favorited and retweeted bits
+    private byte[] stanfordSentiments = new byte[0];
+    private byte[] naiveBayesSentiments = new byte[0];
+    private byte[] bayesianNetSentiments = new byte[0];
+    private byte[] positiveEmoticonFlags = new byte[0];
+    private byte[] negativeEmoticonFlags = new byte[0];
+    private short[] languages = new short[0]; //Codes into 'languageNames'
+    private long[] usernameAddresses = new long[0]; //Positions in the arena
+    private int[] usernameLengths = new int[0]; //Bytes, or NULL_STRING
+    private long[] textAddresses = new long[0];
+    private int[] textLengths = new int[0];
+
+    private final List<String> languageNames = new ArrayList<>();
+    private final Map<String, Short> languageCodes = new HashMap<>();
+    private final List<ByteBuffer> arena = new ArrayList<>(); //Direct buffers of CHUNK_SIZE bytes
+    private int arenaPosition = CHUNK_SIZE; //Position in the last chunk; a new one is needed
+
+    /**
+     * Public constructor.
+     */
+    public TweetTable() {
+        languageNames.add(null); //Code 0 stands for a missing language
+        languageCodes.put(null, (short) 0);
+    }
+
+    /**
+     * Appends a tweet. The arguments are the same as those of the
+     * {@link TweetRecord#TweetRecord(long, String, long, String, Date, double,
+     * double, int, int, boolean, boolean, boolean, String, long, int, int, int,
+     * int, int) TweetRecord constructor}.
+     * @param id The ID of the tweet.
+     * @param username The username of the publisher.
+     * @param userId The ID of the publisher.
+     * @param text The text of the tweet.
+     * @param date The creation date.
+     * @param latitude The latitude or -1.
+     * @param longitude The longitude or -1.
+     * @param numberOfRetweets The number of retweets.
+     * @param numberOfFavorites The number of favorites.
+     * @param retweet True if the tweet is a retweet.
+     * @param favorited True if the tweet is favorited.
+     * @param retweeted True if the tweet is retweeted.
+     * @param language The language of the tweet.
+     * @param retweetId The ID of the original tweet or -1.
+     * @param stanfordSentiment The Stanford sentiment.
+     * @param positiveEmoticonFlag The positive emoticon flag.
+     * @param negativeEmoticonFlag The negative emoticon flag.
+     * @param naiveBayesSentiment The Naive Bayes sentiment.
+     * @param bayesianNetSentiment The Bayesian Net sentiment.
+     * @return An integer with the row of the tweet.
+     */
+    public final int add(long id, String username, long userId, String text, Date date,
+            double latitude, double longitude, int numberOfRetweets,
+            int numberOfFavorites, boolean retweet, boolean favorited,
+            boolean retweeted, String language, long retweetId, int stanfordSentiment,
+            int positiveEmoticonFlag, int negativeEmoticonFlag, int naiveBayesSentiment,
+            int bayesianNetSentiment) {
+        return add(id, username, userId, text, date.getTime(), latitude, longitude,
+                numberOfRetweets, numberOfFavorites, retweet, favorited, retweeted,
+                language, retweetId, stanfordSentiment, positiveEmoticonFlag,
+                negativeEmoticonFlag, naiveBayesSentiment, bayesianNetSentiment);
+    }
+
+    /**
+     * Appends a tweet whose date is given in epoch milliseconds.
+     */
+    private int add(long id, String username, long userId, String text, long date,
+            double latitude, double longitude, int numberOfRetweets,
+            int numberOfFavorites, boolean retweet, boolean favorited,
+            boolean retweeted, String language, long retweetId, int stanfordSentiment,
+            int positiveEmoticonFlag, int negativeEmoticonFlag, int naiveBayesSentiment,
+            int bayesianNetSentiment) {
+        if(size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = id;
+        dates[row] = date;
+        userIds[row] = userId;
+        retweetIds[row] = retweetId;
+        latitudes[row] = latitude;
+        longitudes[row] = longitude;
+        numbersOfRetweets[row] = numberOfRetweets;
+        numbersOfFavorites[row] = numberOfFavorites;
+        flags[row] = (byte) ((retweet ? RETWEET : 0) | (favorited ? FAVORITED : 0)
+                | (retweeted ? RETWEETED : 0));
+        stanfordSentiments[row] = (byte) stanfordSentiment;
+        naiveBayesSentiments[row] = (byte) naiveBayesSentiment;
+        bayesianNetSentiments[row] = (byte) bayesianNetSentiment;
+        positiveEmoticonFlags[row] = (byte) positiveEmoticonFlag;
+        negativeEmoticonFlags[row] = (byte) negativeEmoticonFlag;
+        languages[row] = languageCodes.computeIfAbsent(language, (name) -> {
+            languageNames.add(name);
+            return (short) (languageNames.size() - 1);
+        });
+        if(username == null) {
+            usernameLengths[row] = NULL_STRING;
+        } else {
+            byte[] bytes = username.getBytes(StandardCharsets.UTF_8);
+            usernameAddresses[row] = store(bytes);
+            usernameLengths[row] = bytes.length;
+        }
+        if(text == null) {
+            textLengths[row] = NULL_STRING;
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            textAddresses[row] = store(bytes);
+            textLengths[row] = bytes.length;
+        }
+        return row;
+    }
+
+    /**
+     * Appends a tweet, copying all of its fields.
+     * @param tweet A Tweet object.
+     * @return An integer with the row of the tweet.
+     */
+    public final int add(Tweet tweet) {
+        return add(tweet.getID(), tweet.getUsername(), tweet.getUserId(), tweet.getText(),
+                tweet.getDateMillis(), tweet.getLatitude(), tweet.getLongitude(),
+                tweet.getNumberOfRetweets(), tweet.getNumberOfFavorites(), tweet.isRetweet(),
+                tweet.isFavorited(), tweet.isRetweeted(), tweet.getLanguage(),
+                tweet.getOriginalIDOfRetweet(), tweet.getStanfordSentiment(),
+                tweet.getPositiveEmoticonFlag(), tweet.getNegativeEmoticonFlag(),
+                tweet.getNaiveBayesSentiment(), tweet.getBayesianNetSentiment());
+    }
+
+    /**
+     * Returns the number of tweets of the table.
+     * @return An integer with the number of tweets.
+     */
+    public final int size() { return size; }
+
+    /**
+     * Returns a flyweight view of a row.
+     * @param row The row of the tweet.
+     * @return A TweetView object.
+     */
+    public final TweetView getTweet(int row) {
+        if(row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+        }
+        return new TweetView(this, row);
+    }
+
+    /**
+     * Returns the table as a read-only list of tweets. Every element is
+     * created on access, as a flyweight view of its row.
+     * @return A List of Tweet objects.
+     */
+    public final List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    public final long getID(int row) { return ids[row]; }
+
+    public final long getDateMillis(int row) { return dates[row]; }
+
+    public final long getUserId(int row) { return userIds[row]; }
+
+    public final int getStanfordSentiment(int row) { return stanfordSentiments[row]; }
+
+    public final int getNaiveBayesSentiment(int row) { return naiveBayesSentiments[row]; }
+
+    public final int getBayesianNetSentiment(int row) { return bayesianNetSentiments[row]; }
+
+    public final int getPositiveEmoticonFlag(int row) { return positiveEmoticonFlags[row]; }
+
+    public final int getNegativeEmoticonFlag(int row) { return negativeEmoticonFlags[row]; }
+
+    public final String getLanguage(int row) { return languageNames.get(languages[row]); }
+
+    public final String getUsername(int row) {
+        return load(usernameAddresses[row], usernameLengths[row]);
+    }
+
+    public final String getText(int row) { return load(textAddresses[row], textLengths[row]); }
+
+    /**
+     * Grows all columns by half of their length.
+     */
+    private void grow() {
+        int capacity = Math.max(1024, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        retweetIds = Arrays.copyOf(retweetIds, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        numbersOfRetweets = Arrays.copyOf(numbersOfRetweets, capacity);
+        numbersOfFavorites = Arrays.copyOf(numbersOfFavorites, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        stanfordSentiments = Arrays.copyOf(stanfordSentiments, capacity);
+        naiveBayesSentiments = Arrays.copyOf(naiveBayesSentiments, capacity);
+        bayesianNetSentiments = Arrays.copyOf(bayesianNetSentiments, capacity);
+        positiveEmoticonFlags = Arrays.copyOf(positiveEmoticonFlags, capacity);
+        negativeEmoticonFlags = Arrays.copyOf(negativeEmoticonFlags, capacity);
+        languages = Arrays.copyOf(languages, capacity);
+        usernameAddresses = Arrays.copyOf(usernameAddresses, capacity);
+        usernameLengths = Arrays.copyOf(usernameLengths, capacity);
+        textAddresses = Arrays.copyOf(textAddresses, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+
+    /**
+     * Copies a byte sequence into the arena. A sequence never spans two
+     * chunks; longer ones than a chunk get a chunk of their own.
+     * @param bytes The bytes.
+     * @return A long with the address of the sequence, namely its chunk times
+     * CHUNK_SIZE plus its position in the chunk.
+     */
+    private long store(byte[] bytes) {
+        if(arenaPosition + bytes.length > CHUNK_SIZE) {
+            arena.add(ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, bytes.length)));
+            arenaPosition = 0;
+        }
+        ByteBuffer chunk = arena.get(arena.size() - 1);
+        chunk.position(arenaPosition);
+        chunk.put(bytes);
+        long address = (long) (arena.size() - 1) * CHUNK_SIZE + arenaPosition;
+        arenaPosition += bytes.length;
+        return address;
+    }
+
+    /**
+     * Decodes a byte sequence of the arena.
+     * @param address The address of the sequence.
+     * @param length The length of the sequence or NULL_STRING.
+     * @return A String or null.
+     */
+    private String load(long address, int length) {
+        if(length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer chunk = arena.get((int) (address / CHUNK_SIZE)).duplicate();
+        chunk.position((int) (address % CHUNK_SIZE));
+        chunk.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Flyweight Tweet, backed by a row of a TweetTable. It holds only the
+     * table and the row; every getter reads the corresponding column.
+     */
+    public static final class TweetView extends Tweet {
+
+        private final TweetTable table;
+        private final int row;
+
+        private TweetView(TweetTable table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        /**
+         * Returns the table of the tweet.
+         * @return A TweetTable object.
+         */
+        public TweetTable getTable() { return table; }
+
+        /**
+         * Returns the row of the tweet in its table.
+         * @return An integer with the row.
+         */
+        public int getRow() { return row; }
+
+        @Override
+        public long getID() { return table.ids[row]; }
+
+        @Override
+        public String getUsername() { return table.getUsername(row); }
+
+        @Override
+        public long getUserId() { return table.userIds[row]; }
+
+        @Override
+        public String getText() { return table.getText(row); }
+
+        @Override
+        public Date getDate() { return new Date(table.dates[row]); }
+
+        @Override
+        public long getDateMillis() { return table.dates[row]; }
+
+        @Override
+        public double getLatitude() { return table.latitudes[row]; }
+
+        @Override
+        public double getLongitude() { return table.longitudes[row]; }
+
+        @Override
+        public int getNumberOfRetweets() { return table.numbersOfRetweets[row]; }
+
+        @Override
+        public int getNumberOfFavorites() { return table.numbersOfFavorites[row]; }
+
+        @Override
+        public boolean isRetweet() { return (table.flags[row] & RETWEET) != 0; }
+
+        @Override
+        public boolean isFavorited() { return (table.flags[row] & FAVORITED) != 0; }
+
+        @Override
+        public boolean isRetweeted() { return (table.flags[row] & RETWEETED) != 0; }
+
+        @Override
+        public String getLanguage() { return table.getLanguage(row); }
+
+        @Override
+        public long getOriginalIDOfRetweet() { return table.retweetIds[row]; }
+
+        @Override
+        public int getStanfordSentiment() { return table.stanfordSentiments[row]; }
+
+        @Override
+        public int getNaiveBayesSentiment() { return table.naiveBayesSentiments[row]; }
+
+        @Override
+        public int getBayesianNetSentiment() { return table.bayesianNetSentiments[row]; }
+
+        @Override
+        public int getPositiveEmoticonFlag() { return table.positiveEmoticonFlags[row]; }
+
+        @Override
+        public int getNegativeEmoticonFlag() { return table.negativeEmoticonFlags[row]; }
+    }
+
+    /**
+     * Read-only list view of the whole table.
+     */
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+
+        @Override
+        public Tweet get(int index) { return getTweet(index); }
+
+        @Override
+        public int size() { return size; }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2016 Lefteris Paraskevas
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.left8.evs.edmodule.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.left8.evs.edmodule.edcow.EDCoW;
+import com.left8.evs.edmodule.edcow.event.EDCoWEvent;
+import com.left8.evs.edmodule.edcow.frequencies.TermFrequencyIndex;
+import com.left8.evs.edmodule.utils.Stemmers;
+import com.left8.evs.edmodule.utils.StopWordsHandlers;
+import com.left8.evs.utilities.Config;
+import com.left8.evs.utilities.dsretriever.Tweet;
+import com.left8.evs.utilities.dsretriever.TweetRecord;
+
+/**
+ * Checks that appending tweets to a corpus with the support pre-filter gives
+ * the same counts and EDCoW events as creating the corpus from all tweets.
+ *
+ * @author  Lefteris Paraskevas
+ * @version 2026.10.19_0030
+ */
+public class EDCoWCorpusAppendTest {
+
+    private static final double MIN_TERM_SUPPORT = 0.001;
+    private static final long ORIGIN = 1000000200000L; //Aligned to the 10-minute buckets
+    private static final int BUCKETS = 256;
+
+    /**
+     * Creates tweets of random words, periodic bursts and a term that is rare
+     * in the first half of the buckets and frequent in the second one.
+     */
+    private static List<Tweet> createTweets() {
+        Random random = new Random(11);
+        List<Tweet> tweets = new ArrayList<>();
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            int tweetsOfBucket = 40 + random.nextInt(20);
+            for(int k = 0; k < tweetsOfBucket; k++) {
+                StringBuilder text = new StringBuilder();
+                for(int word = 0; word < 6; word++) {
+                    text.append("w").append((int) Math.abs(random.nextGaussian() * 80) % 400).append("x ");
+                }
+                if(random.nextInt(3) == 0 && (bucket % 16) < 5) {
+                    for(int word = 0; word < 3; word++) {
+                        text.append("burst").append((bucket / 16) % 5).append("t").append(word).append("z ");
+                    }
+                }
+                if(random.nextInt(bucket < BUCKETS / 2 ? 1200 : 4) == 0) {
+                    text.append("risingz ");
+                }
+                text.append("nz").append(Integer.toString(random.nextInt(1000000), 36)).append("q");
+                tweets.add(new TweetRecord(tweets.size(), "user", random.nextInt(500), text.toString(),
+                        new Date(ORIGIN + bucket * 600000L + random.nextInt(600000)), -1, -1, 0, 0,
+                        false, false, false, "en", -1, 2, 0, 0, 1, 1));
+            }
+        }
+        return tweets;
+    }
+
+    private static List<String> detectEvents(EDCoWCorpus corpus) {
+        EDCoW edcow = new EDCoW(4, 32, 5, MIN_TERM_SUPPORT, 0.05, 0,
+                corpus.getNumberOfDocuments().length, corpus);
+        edcow.apply();
+        List<String> events = new ArrayList<>();
+        for(EDCoWEvent event : edcow.events.list) {
+            events.add(event.getTextualDescription() + "|" + event.getTemporalDescription()
+                    + "|" + event.getScore());
+        }
+        return events;
+    }
+
+    @Test
+    public void appendWithPreFilterMatchesRebuild() throws IOException {
+        Config config = new Config() {
+            @Override
+            public double getCorpusMinTermSupport() { return MIN_TERM_SUPPORT; }
+        };
+        StopWordsHandlers swH = new StopWordsHandlers(config);
+        Stemmers.initStemmers();
+        List<Tweet> tweets = createTweets();
+        List<Tweet> firstHalf = new ArrayList<>();
+        List<Tweet> secondHalf = new ArrayList<>();
+        for(Tweet tweet : tweets) {
+            if(tweet.getDateMillis() < ORIGIN + (BUCKETS / 2) * 600000L) {
+                firstHalf.add(tweet);
+            } else {
+                secondHalf.add(tweet);
+            }
+        }
+
+        EDCoWCorpus rebuilt = new EDCoWCorpus(config, tweets, swH, 10);
+        rebuilt.createCorpus(2);
+        rebuilt.setDocTermFreqIdList();
+        EDCoWCorpus appended = new EDCoWCorpus(config, firstHalf, swH, 10);
+        appended.createCorpus(2);
+        appended.setDocTermFreqIdList();
+        assertEquals(secondHalf.size(), appended.append(secondHalf, 2));
+        assertTrue(appended.hasIncompleteTerms());
+
+        //Every term that EDCoW may keep has the same frequencies in every bucket
+        TermFrequencyIndex rebuiltIndex = rebuilt.getTermFrequencyIndex();
+        TermFrequencyIndex appendedIndex = appended.getTermFrequencyIndex();
+        assertEquals(rebuiltIndex.getNumberOfDocuments(), appendedIndex.getNumberOfDocuments());
+        double minTermOccur = MIN_TERM_SUPPORT * tweets.size();
+        for(int term = 0; term < rebuilt.getDictionary().size(); term++) {
+            if(rebuiltIndex.getTermTotal(term) > minTermOccur) {
+                String token = rebuilt.getDictionary().getTerm(term);
+                assertArrayEquals(token, rebuiltIndex.getDenseRow(term),
+                        appendedIndex.getDenseRow(appended.getDictionary().getId(token)));
+            }
+        }
+        assertEquals(detectEvents(rebuilt), detectEvents(appended));
+    }
+}